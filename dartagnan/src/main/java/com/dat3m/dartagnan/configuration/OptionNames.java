@@ -29,6 +29,9 @@ public class OptionNames {
 	public static final String BREAK_SYMMETRY_ON = "encoding.symmetry.breakOn";
 	public static final String BREAK_SYMMETRY_BY_SYNC_DEGREE = "encoding.symmetry.orderBySyncDegree";
 	public static final String IDL_TO_SAT = "encoding.wmm.idl2sat";
+	public static final String STREAMING_CHUNK_SIZE = "encoding.streaming.chunkSize";
+	public static final String SMTLIB2_EXPORT_PATH = "encoding.smtlib2.exportPath";
+	public static final String SMTLIB2_EXPORT_ONLY = "encoding.smtlib2.exportOnly";
 	
 	// Program Processing Options
 	public static final String DETERMINISTIC_REORDERING = "program.processing.detReordering";
@@ -37,11 +40,13 @@ public class OptionNames {
 	public static final String DEAD_ASSIGNMENT_ELIMINATION = "program.processing.dce";
 	public static final String DYNAMIC_PURE_LOOP_CUTTING = "program.processing.dplc";
 	public static final String PROPAGATE_COPY_ASSIGNMENTS = "program.processing.propagateCopyAssignments";
+	public static final String LAZY_INIT_EVENTS = "program.processing.lazyInitEvents";
 	
 	// Program Property Options
 	public static final String ALIAS_METHOD = "program.analysis.alias";
 	public static final String ALWAYS_SPLIT_ON_JUMPS = "program.analysis.cf.alwaysSplitOnJump";
 	public static final String MERGE_BRANCHES = "program.analysis.cf.mergeBranches";
+	public static final String BIT_WIDTH_INFERENCE = "program.analysis.bitWidthInference";
 
 	// Memory Model Options
 	public static final String ENABLE_RELATION_ANALYSIS = "wmm.analysis.relationAnalysis";
@@ -50,6 +55,15 @@ public class OptionNames {
 
 	// Refinement Options
 	public static final String BASELINE = "refinement.baseline";
+	public static final String PROMOTION_THRESHOLD = "refinement.promotionThreshold";
+	public static final String FLAG_PROMOTION_THRESHOLD = "refinement.flagPromotionThreshold";
+	public static final String LEMMA_STORE = "refinement.lemmaStore";
+	public static final String MODELS_PER_ITERATION = "refinement.modelsPerIteration";
+	public static final String PARALLEL_POPULATION = "refinement.parallelPopulation";
+	public static final String REASONING_SHORTEST_CYCLES = "refinement.reasoning.shortestCycles";
+	public static final String REASONING_MINIMIZATION = "refinement.reasoning.minimization";
+	public static final String REASONING_MAX_REASONS = "refinement.reasoning.maxReasons";
+	public static final String REASONING_FIRST_VIOLATION = "refinement.reasoning.firstViolation";
 	
 	// SMT solver Options
 	public static final String PHANTOM_REFERENCES = "solver.z3.usePhantomReferences";
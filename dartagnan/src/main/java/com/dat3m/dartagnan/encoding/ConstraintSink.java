@@ -0,0 +1,44 @@
+package com.dat3m.dartagnan.encoding;
+
+import org.sosy_lab.java_smt.api.BooleanFormula;
+
+import java.util.Collection;
+
+/*
+    A ConstraintSink receives the constraints generated by the encoders one at a time.
+    Encoders that emit into a sink do not need to collect their whole encoding into a list
+    and conjunct it before it is handed over to the solver (see ProverSink).
+ */
+@FunctionalInterface
+public interface ConstraintSink {
+
+    void add(BooleanFormula constraint);
+
+    // Adds a constraint that can be referred to by <name>, e.g. in exported queries.
+    // Sinks that have no use for names simply drop them.
+    default void add(String name, BooleanFormula constraint) {
+        add(constraint);
+    }
+
+    default void addAll(Collection<? extends BooleanFormula> constraints) {
+        constraints.forEach(this::add);
+    }
+
+    // Returns a sink that passes every constraint to this sink first and to <other> afterwards.
+    default ConstraintSink andThen(ConstraintSink other) {
+        final ConstraintSink first = this;
+        return new ConstraintSink() {
+            @Override
+            public void add(BooleanFormula constraint) {
+                first.add(constraint);
+                other.add(constraint);
+            }
+
+            @Override
+            public void add(String name, BooleanFormula constraint) {
+                first.add(name, constraint);
+                other.add(name, constraint);
+            }
+        };
+    }
+}
@@ -3,6 +3,7 @@ package com.dat3m.dartagnan.encoding;
 import com.dat3m.dartagnan.expression.ExprInterface;
 import com.dat3m.dartagnan.expression.op.COpBin;
 import com.dat3m.dartagnan.program.Register;
+import com.dat3m.dartagnan.program.analysis.BitWidthAnalysis;
 import com.dat3m.dartagnan.program.analysis.BranchEquivalence;
 import com.dat3m.dartagnan.program.analysis.ExecutionAnalysis;
 import com.dat3m.dartagnan.program.analysis.alias.AliasAnalysis;
@@ -11,6 +12,7 @@ import com.dat3m.dartagnan.program.event.core.Event;
 import com.dat3m.dartagnan.program.event.core.Load;
 import com.dat3m.dartagnan.program.event.core.MemEvent;
 import com.dat3m.dartagnan.program.event.core.utils.RegWriter;
+import com.dat3m.dartagnan.program.memory.MemoryObject;
 import com.dat3m.dartagnan.program.memory.VirtualMemoryObject;
 import com.dat3m.dartagnan.verification.Context;
 import com.dat3m.dartagnan.verification.VerificationTask;
@@ -45,6 +47,7 @@ public final class EncodingContext {
     private final ExecutionAnalysis executionAnalysis;
     private final AliasAnalysis aliasAnalysis;
     private final RelationAnalysis relationAnalysis;
+    private final BitWidthAnalysis bitWidthAnalysis;
     private final FormulaManager formulaManager;
     private final BooleanFormulaManager booleanFormulaManager;
 
@@ -72,6 +75,7 @@ public final class EncodingContext {
         executionAnalysis = a.requires(ExecutionAnalysis.class);
         aliasAnalysis = a.requires(AliasAnalysis.class);
         relationAnalysis = a.requires(RelationAnalysis.class);
+        bitWidthAnalysis = a.get(BitWidthAnalysis.class);
         formulaManager = m;
         booleanFormulaManager = m.getBooleanFormulaManager();
     }
@@ -113,15 +117,15 @@ public final class EncodingContext {
     }
 
     public Formula encodeFinalIntegerExpression(ExprInterface expression) {
-        return new ExpressionEncoder(formulaManager, null).encodeAsInteger(expression);
+        return new ExpressionEncoder(formulaManager, bitWidthAnalysis, null).encodeAsInteger(expression);
     }
 
     public BooleanFormula encodeBooleanExpressionAt(ExprInterface expression, Event event) {
-        return new ExpressionEncoder(formulaManager, event).encodeAsBoolean(expression);
+        return new ExpressionEncoder(formulaManager, bitWidthAnalysis, event).encodeAsBoolean(expression);
     }
 
     public Formula encodeIntegerExpressionAt(ExprInterface expression, Event event) {
-        return new ExpressionEncoder(formulaManager, event).encodeAsInteger(expression);
+        return new ExpressionEncoder(formulaManager, bitWidthAnalysis, event).encodeAsInteger(expression);
     }
 
     public BooleanFormula encodeComparison(COpBin op, Formula lhs, Formula rhs) {
@@ -208,6 +212,10 @@ public final class EncodingContext {
         return results.get(event);
     }
 
+    public Formula lastValue(MemoryObject base, int offset) {
+        return ExpressionEncoder.getLastMemValueExpr(base, offset, bitWidthAnalysis, formulaManager);
+    }
+
     public NumeralFormula.IntegerFormula clockVariable(String name, Event event) {
         return formulaManager.getIntegerFormulaManager().makeVariable(formulaManager.escape(name) + " " + event.getGlobalId());
     }
@@ -278,11 +286,8 @@ public final class EncodingContext {
                 Register register = ((RegWriter) e).getResultRegister();
                 String name = register.getName() + "(" + e.getGlobalId() + "_result)";
                 int precision = register.getPrecision();
-                if (precision > 0) {
-                    r = formulaManager.getBitvectorFormulaManager().makeVariable(precision, name);
-                } else {
-                    r = formulaManager.getIntegerFormulaManager().makeVariable(name);
-                }
+                int width = bitWidthAnalysis == null ? precision : bitWidthAnalysis.getWidth(register);
+                r = ExpressionEncoder.makeVariable(name, precision, width, formulaManager);
             } else {
                 r = null;
             }
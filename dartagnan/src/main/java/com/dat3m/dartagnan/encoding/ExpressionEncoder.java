@@ -4,6 +4,7 @@ import com.dat3m.dartagnan.expression.*;
 import com.dat3m.dartagnan.expression.op.COpBin;
 import com.dat3m.dartagnan.expression.processing.ExpressionVisitor;
 import com.dat3m.dartagnan.program.Register;
+import com.dat3m.dartagnan.program.analysis.BitWidthAnalysis;
 import com.dat3m.dartagnan.program.event.core.Event;
 import com.dat3m.dartagnan.program.memory.Location;
 import com.dat3m.dartagnan.program.memory.MemoryObject;
@@ -19,11 +20,14 @@ class ExpressionEncoder implements ExpressionVisitor<Formula> {
 
     private final FormulaManager formulaManager;
     private final BooleanFormulaManager booleanFormulaManager;
+    private final BitWidthAnalysis widths;
     private final Event event;
 
-    public ExpressionEncoder(FormulaManager formulaManager, Event event) {
+    // <widths> may be null, in which case all variables get declared with their full precision
+    public ExpressionEncoder(FormulaManager formulaManager, BitWidthAnalysis widths, Event event) {
         this.formulaManager = formulaManager;
         this.booleanFormulaManager = formulaManager.getBooleanFormulaManager();
+        this.widths = widths;
         this.event = event;
     }
 
@@ -135,14 +139,25 @@ class ExpressionEncoder implements ExpressionVisitor<Formula> {
         throw new UnsupportedOperationException("Encoding not supported for COpBin: " + lhs + " " + op + " " + rhs);
     }
 
-    static Formula getLastMemValueExpr(MemoryObject object, int offset, FormulaManager formulaManager) {
+    static Formula getLastMemValueExpr(MemoryObject object, int offset, BitWidthAnalysis widths, FormulaManager formulaManager) {
         checkArgument(0 <= offset && offset < object.size(), "array index out of bounds");
         String name = String.format("last_val_at_%s_%d", object, offset);
-        if (getArchPrecision() > -1) {
-            return formulaManager.getBitvectorFormulaManager().makeVariable(getArchPrecision(), name);
-        } else {
+        int width = widths == null ? getArchPrecision() : widths.getWidth(object, offset);
+        return makeVariable(name, getArchPrecision(), width, formulaManager);
+    }
+
+    // Declares a variable that only holds values of <width> bits.
+    // Narrower variables get zero-extended, such that their users still see a formula of size <precision>.
+    // Thus only the domain of the variable shrinks, all operations on it are still encoded with <precision> bits.
+    static Formula makeVariable(String name, int precision, int width, FormulaManager formulaManager) {
+        if (precision < 0) {
             return formulaManager.getIntegerFormulaManager().makeVariable(name);
         }
+        BitvectorFormulaManager bitvectorFormulaManager = formulaManager.getBitvectorFormulaManager();
+        if (width >= precision) {
+            return bitvectorFormulaManager.makeVariable(precision, name);
+        }
+        return bitvectorFormulaManager.extend(bitvectorFormulaManager.makeVariable(width, name), precision - width, false);
     }
 
     @Override
@@ -488,10 +503,8 @@ class ExpressionEncoder implements ExpressionVisitor<Formula> {
         String name = event == null ?
                 reg.getName() + "_" + reg.getThreadId() + "_final" :
                 reg.getName() + "(" + event.getGlobalId() + ")";
-        if (reg.getPrecision() < 0) {
-            return integerFormulaManager().makeVariable(name);
-        }
-        return bitvectorFormulaManager().makeVariable(reg.getPrecision(), name);
+        int width = widths == null ? reg.getPrecision() : widths.getWidth(reg);
+        return makeVariable(name, reg.getPrecision(), width, formulaManager);
     }
 
     @Override
@@ -504,6 +517,6 @@ class ExpressionEncoder implements ExpressionVisitor<Formula> {
     @Override
     public Formula visit(Location location) {
         checkState(event == null, "Cannot evaluate %s at event %s.", location, event);
-        return getLastMemValueExpr(location.getMemoryObject(), location.getOffset(), formulaManager);
+        return getLastMemValueExpr(location.getMemoryObject(), location.getOffset(), widths, formulaManager);
     }
 }
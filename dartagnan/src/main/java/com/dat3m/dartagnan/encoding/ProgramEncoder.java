@@ -62,31 +62,38 @@ public class ProgramEncoder implements Encoder {
     // ============================== Encoding ==============================
 
     public BooleanFormula encodeFullProgram() {
-        return context.getBooleanFormulaManager().and(
-                encodeMemory(),
-                encodeControlFlow(),
-                encodeFinalRegisterValues(),
-                encodeFilter(),
-                encodeDependencies());
+        List<BooleanFormula> enc = new ArrayList<>();
+        encodeFullProgram(enc::add);
+        return context.getBooleanFormulaManager().and(enc);
     }
 
-    public BooleanFormula encodeControlFlow() {
-        logger.info("Encoding program control flow");
+    // Emits the same constraints as <encodeFullProgram()> one by one into <enc>.
+    public void encodeFullProgram(ConstraintSink enc) {
+        enc.add(encodeMemory());
+        encodeControlFlow(enc);
+        encodeFinalRegisterValues(enc);
+        enc.add(encodeFilter());
+        encodeDependencies(enc);
+    }
 
-        BooleanFormulaManager bmgr = context.getBooleanFormulaManager();
+    public BooleanFormula encodeControlFlow() {
         List<BooleanFormula> enc = new ArrayList<>();
+        encodeControlFlow(enc::add);
+        return context.getBooleanFormulaManager().and(enc);
+    }
+
+    private void encodeControlFlow(ConstraintSink enc) {
+        logger.info("Encoding program control flow");
         for(Thread t : context.getTask().getProgram().getThreads()){
-            enc.add(encodeThreadCF(t));
+            encodeThreadCF(t, enc);
         }
-        return bmgr.and(enc);
     }
 
-    private BooleanFormula encodeThreadCF(Thread thread) {
+    private void encodeThreadCF(Thread thread, ConstraintSink enc) {
         final BooleanFormulaManager bmgr = context.getBooleanFormulaManager();
 
         Map<Label, Set<CondJump>> labelJumpMap = new HashMap<>();
         Event pred = null;
-        final List<BooleanFormula> enc = new ArrayList<>();
         for(Event e : thread.getEntry().getSuccessors()) {
             // Immediate control flow
             BooleanFormula cfCond = pred == null ? bmgr.makeTrue() : context.controlFlow(pred);
@@ -108,7 +115,6 @@ public class ProgramEncoder implements Encoder {
             enc.add(e.encodeExec(context));
             pred = e;
         }
-        return bmgr.and(enc);
     }
 
     // Assigns each Address a fixed memory address.
@@ -143,9 +149,14 @@ public class ProgramEncoder implements Encoder {
      * Also, if no fitting writer is executed, the reader uses 0.
      */
     public BooleanFormula encodeDependencies() {
+        List<BooleanFormula> enc = new ArrayList<>();
+        encodeDependencies(enc::add);
+        return context.getBooleanFormulaManager().and(enc);
+    }
+
+    private void encodeDependencies(ConstraintSink enc) {
         logger.info("Encoding dependencies");
         final BooleanFormulaManager bmgr = context.getBooleanFormulaManager();
-        List<BooleanFormula> enc = new ArrayList<>();
         for(Map.Entry<Event,Map<Register, Dependency.State>> e : dep.getAll()) {
             final Event reader = e.getKey();
             for(Map.Entry<Register, Dependency.State> r : e.getValue().entrySet()) {
@@ -180,7 +191,6 @@ public class ProgramEncoder implements Encoder {
                 }
             }
         }
-        return bmgr.and(enc);
     }
 
     public BooleanFormula encodeFilter() {
@@ -190,15 +200,20 @@ public class ProgramEncoder implements Encoder {
     }
     
     public BooleanFormula encodeFinalRegisterValues() {
+        List<BooleanFormula> enc = new ArrayList<>();
+        encodeFinalRegisterValues(enc::add);
+        return context.getBooleanFormulaManager().and(enc);
+    }
+
+    private void encodeFinalRegisterValues(ConstraintSink enc) {
         final BooleanFormulaManager bmgr = context.getFormulaManager().getBooleanFormulaManager();
         if (context.getTask().getProgram().getFormat() == Program.SourceLanguage.BOOGIE) {
             // Boogie does not have assertions over final register values, so we do not need to encode them.
             logger.info("Skipping encoding of final register values: C-Code has no assertions over those values.");
-            return bmgr.makeTrue();
+            return;
         }
 
         logger.info("Encoding final register values");
-        List<BooleanFormula> enc = new ArrayList<>();
         for(Map.Entry<Register,Dependency.State> e : dep.finalWriters().entrySet()) {
             final Formula value = context.encodeFinalIntegerExpression(e.getKey());
             final Dependency.State state = e.getValue();
@@ -224,6 +239,5 @@ public class ProgramEncoder implements Encoder {
                 enc.add(bmgr.or(clause));
             }
         }
-        return bmgr.and(enc);
     }
 }
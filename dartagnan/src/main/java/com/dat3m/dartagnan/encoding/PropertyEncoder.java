@@ -17,7 +17,6 @@ import com.dat3m.dartagnan.wmm.axiom.Axiom;
 import com.dat3m.dartagnan.wmm.relation.RelationNameRepository;
 import com.dat3m.dartagnan.wmm.utils.Tuple;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -67,6 +66,11 @@ public class PropertyEncoder implements Encoder {
             this.trackingLiteral = trackingLit;
             this.trackedFormula = formula;
         }
+
+        // Names the tracking constraint after the variable of its tracking literal.
+        private String getName(FormulaManager fmgr) {
+            return "track_" + String.join("_", fmgr.extractVariables(trackingLiteral).keySet());
+        }
     }
 
     // =====================================================================
@@ -94,6 +98,22 @@ public class PropertyEncoder implements Encoder {
     }
 
     public BooleanFormula encodeProperties(EnumSet<Property> properties) {
+        List<BooleanFormula> enc = new ArrayList<>();
+        encodeProperties(properties, enc::add);
+        return context.getBooleanFormulaManager().and(enc);
+    }
+
+    // Emits the same constraints as <encodeProperties(properties)> into <enc>.
+    // The constraints that connect tracking literals to their tracked formulas get named after the literal.
+    public void encodeProperties(EnumSet<Property> properties, ConstraintSink enc) {
+        encodeProperties(properties, List.of(), enc);
+    }
+
+    // Emits the same constraints as <encodeProperties(properties, enc)>, except that the CAT specification
+    // is given by <lazyFlaggedAxioms> which do not get encoded: their tracking literals
+    // (see <Property.getSMTVariable(Axiom, EncodingContext)>) only count as potential violations and
+    // stay unconstrained otherwise. The caller is responsible for checking them (e.g. Refinement does so on the found executions).
+    public void encodeProperties(EnumSet<Property> properties, List<Axiom> lazyFlaggedAxioms, ConstraintSink enc) {
         Property.Type specType = Property.getCombinedType(properties, context.getTask());
         if (specType == Property.Type.MIXED) {
             final String error = String.format(
@@ -102,20 +122,24 @@ public class PropertyEncoder implements Encoder {
             throw new IllegalArgumentException(error);
         }
 
-        BooleanFormula encoding = (specType == Property.Type.SAFETY) ?
-                encodePropertyViolations(properties) : encodePropertyWitnesses(properties);
+        if (specType == Property.Type.SAFETY) {
+            encodePropertyViolations(properties, lazyFlaggedAxioms, enc);
+        } else {
+            encodePropertyWitnesses(properties, enc);
+        }
         if (program.getFormat().equals(LITMUS) || properties.contains(LIVENESS)) {
             // Both litmus assertions and liveness need to identify
             // the final stores to addresses.
             // TODO Optimization: This encoding can be restricted to only those addresses
             //  that are relevant for the specification (e.g., only variables that are used in spin loops).
-            encoding = context.getBooleanFormulaManager().and(encoding, encodeLastCoConstraints());
+            enc.add(encodeLastCoConstraints());
         }
-        return encoding;
     }
 
-    private BooleanFormula encodePropertyViolations(EnumSet<Property> properties) {
+    private void encodePropertyViolations(EnumSet<Property> properties, List<Axiom> lazyFlaggedAxioms, ConstraintSink enc) {
+        final BooleanFormulaManager bmgr = context.getBooleanFormulaManager();
         final List<TrackableFormula> trackableViolationEncodings = new ArrayList<>();
+        final List<BooleanFormula> lazyViolationLiterals = new ArrayList<>();
         if (properties.contains(LIVENESS)) {
             trackableViolationEncodings.add(encodeDeadlocks());
         }
@@ -123,41 +147,44 @@ public class PropertyEncoder implements Encoder {
             trackableViolationEncodings.add(encodeDataRaces());
         }
         if (properties.contains(CAT_SPEC)) {
-            trackableViolationEncodings.addAll(encodeCATSpecificationViolations());
+            if (lazyFlaggedAxioms.isEmpty()) {
+                trackableViolationEncodings.addAll(encodeCATSpecificationViolations());
+            } else {
+                lazyFlaggedAxioms.forEach(ax -> lazyViolationLiterals.add(bmgr.not(CAT_SPEC.getSMTVariable(ax, context))));
+            }
         }
         if (properties.contains(PROGRAM_SPEC)) {
             trackableViolationEncodings.add(encodeProgramSpecification());
         }
 
-        final BooleanFormulaManager bmgr = context.getBooleanFormulaManager();
         // Weak tracking: "TrackingVar => TrackingEnc", strong tracking: "TrackingVar <=> TrackingEnc"
         final BiFunction<BooleanFormula, BooleanFormula, BooleanFormula> trackingConnector =
                 doWeakTracking ? bmgr::implication : bmgr::equivalence;
-        final BooleanFormula trackedViolationEnc = bmgr.and(Lists.transform(trackableViolationEncodings,
-                vio -> trackingConnector.apply(vio.trackingLiteral, vio.trackedFormula)));
-        final BooleanFormula atLeastOneViolation = bmgr.or(Lists.transform(trackableViolationEncodings,
-                vio -> vio.trackingLiteral));
-
-        return bmgr.and(atLeastOneViolation, trackedViolationEnc);
-
+        final List<BooleanFormula> violationLiterals = new ArrayList<>(lazyViolationLiterals);
+        trackableViolationEncodings.forEach(vio -> violationLiterals.add(vio.trackingLiteral));
+        final BooleanFormula atLeastOneViolation = bmgr.or(violationLiterals);
+        enc.add(atLeastOneViolation);
+        for (TrackableFormula vio : trackableViolationEncodings) {
+            enc.add(vio.getName(context.getFormulaManager()),
+                    trackingConnector.apply(vio.trackingLiteral, vio.trackedFormula));
+        }
     }
 
-    private BooleanFormula encodePropertyWitnesses(EnumSet<Property> properties) {
+    private void encodePropertyWitnesses(EnumSet<Property> properties, ConstraintSink enc) {
         // NOTE: For now, the only witness-able properties are existential queries formulated in
         // Litmus (program spec). We cannot check this together with safety specs, so we make sure
         // that we do not mix them up.
         Preconditions.checkArgument(properties.contains(PROGRAM_SPEC));
         Preconditions.checkArgument(!program.getSpecification().isSafetySpec());
 
-        final BooleanFormulaManager bmgr = context.getBooleanFormulaManager();
         final TrackableFormula progSpec = encodeProgramSpecification();
         // NOTE: We have a single property to check, so the tracking becomes trivial.
-        return bmgr.and(progSpec.trackingLiteral, progSpec.trackedFormula);
+        enc.add(progSpec.trackingLiteral);
+        enc.add(progSpec.getName(context.getFormulaManager()), progSpec.trackedFormula);
     }
 
     private BooleanFormula encodeLastCoConstraints() {
         final Relation co = memoryModel.getRelation(CO);
-        final FormulaManager fmgr = context.getFormulaManager();
         final BooleanFormulaManager bmgr = context.getBooleanFormulaManager();
         final EncodingContext.EdgeEncoder coEncoder = context.edge(co);
         final RelationAnalysis.Knowledge knowledge = ra.getKnowledge(co);
@@ -203,7 +230,7 @@ public class PropertyEncoder implements Encoder {
                         continue;
                     }
                     BooleanFormula sameAddress = context.sameAddress(init, w1);
-                    Formula v2 = ExpressionEncoder.getLastMemValueExpr(init.getBase(), init.getOffset(), fmgr);
+                    Formula v2 = context.lastValue(init.getBase(), init.getOffset());
                     BooleanFormula sameValue = context.equal(context.value(w1), v2);
                     enc.add(bmgr.implication(bmgr.and(lastCoExpr, sameAddress), sameValue));
                 }
@@ -217,7 +244,7 @@ public class PropertyEncoder implements Encoder {
             for (Init init : program.getEvents(Init.class)) {
                 BooleanFormula lastValueEnc = bmgr.makeFalse();
                 BooleanFormula lastStoreExistsEnc = bmgr.makeFalse();
-                Formula v2 = ExpressionEncoder.getLastMemValueExpr(init.getBase(), init.getOffset(), fmgr);
+                Formula v2 = context.lastValue(init.getBase(), init.getOffset());
                 BooleanFormula readFromInit = context.equal(context.value(init), v2);
                 for (Store w : program.getEvents(Store.class)) {
                     if (!alias.mayAlias(w, init)) {
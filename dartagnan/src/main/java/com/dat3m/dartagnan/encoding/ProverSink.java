@@ -0,0 +1,105 @@
+package com.dat3m.dartagnan.encoding;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.dat3m.dartagnan.configuration.OptionNames.STREAMING_CHUNK_SIZE;
+
+/*
+    Streams constraints to one or more ProverEnvironments in chunks of bounded size.
+    Compared to building a single conjunction over the full encoding, this keeps at most one chunk alive on the heap.
+
+    NOTE: Constraints are only guaranteed to have reached the provers after <flush> was called.
+          This needs to happen before the provers are used (e.g. before push/pop or any satisfiability check).
+ */
+@Options
+public class ProverSink implements ConstraintSink {
+
+    private static final Logger logger = LogManager.getLogger(ProverSink.class);
+
+    // =========================== Configurables ===========================
+
+    @Option(name = STREAMING_CHUNK_SIZE,
+            description = "Number of constraints that are buffered before they are passed to the solver. " +
+                    "Non-positive values buffer the whole encoding and pass it to the solver at once.",
+            secure = true)
+    private int chunkSize = 1000;
+
+    // =====================================================================
+
+    private final BooleanFormulaManager bmgr;
+    private final List<ProverEnvironment> provers;
+    private final List<BooleanFormula> buffer = new ArrayList<>();
+    private InterruptedException interruption;
+
+    // ------ Just for statistics ------
+    private long numConstraints = 0;
+    private long numChunks = 0;
+
+    private ProverSink(BooleanFormulaManager bmgr, List<ProverEnvironment> provers) {
+        this.bmgr = bmgr;
+        this.provers = provers;
+    }
+
+    public static ProverSink fromConfig(BooleanFormulaManager bmgr, Configuration config, ProverEnvironment... provers)
+            throws InvalidConfigurationException {
+        ProverSink sink = new ProverSink(bmgr, Arrays.asList(provers));
+        config.inject(sink);
+        return sink;
+    }
+
+    @Override
+    public void add(BooleanFormula constraint) {
+        if (bmgr.isTrue(constraint)) {
+            return;
+        }
+        numConstraints++;
+        buffer.add(constraint);
+        if (chunkSize > 0 && buffer.size() >= chunkSize) {
+            pushBuffer();
+        }
+    }
+
+    // Passes all buffered constraints to the provers.
+    // An interruption that happened while streaming gets rethrown here.
+    public void flush() throws InterruptedException {
+        pushBuffer();
+        logger.debug("Streamed {} constraints in {} chunks", numConstraints, numChunks);
+        if (interruption != null) {
+            InterruptedException e = interruption;
+            interruption = null;
+            throw e;
+        }
+    }
+
+    private void pushBuffer() {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        BooleanFormula chunk = buffer.size() == 1 ? buffer.get(0) : bmgr.and(buffer);
+        buffer.clear();
+        if (interruption != null) {
+            // The solver was asked to stop, there is no point in sending more constraints.
+            return;
+        }
+        try {
+            for (ProverEnvironment prover : provers) {
+                prover.addConstraint(chunk);
+            }
+            numChunks++;
+        } catch (InterruptedException e) {
+            interruption = e;
+        }
+    }
+}
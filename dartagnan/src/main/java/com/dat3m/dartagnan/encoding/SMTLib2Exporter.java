@@ -0,0 +1,257 @@
+package com.dat3m.dartagnan.encoding;
+
+import com.dat3m.dartagnan.configuration.Property;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.FormulaManager;
+
+import java.io.*;
+import java.util.*;
+
+import static com.dat3m.dartagnan.configuration.OptionNames.SMTLIB2_EXPORT_ONLY;
+import static com.dat3m.dartagnan.configuration.OptionNames.SMTLIB2_EXPORT_PATH;
+import static com.google.common.base.Preconditions.checkState;
+
+/*
+    Writes the verification query into an SMT-LIB2 script that can be solved without Dartagnan.
+    The script contains
+        - the full encoding received through the ConstraintSink interface (program, memory model, witness, symmetry),
+        - the property check inside a push/pop scope (or under an assumption literal) followed by the bound check.
+    Named constraints (e.g. the tracking constraints of the PropertyEncoder) are exported as named assertions.
+
+    Each received constraint gets dumped on its own, so the declarations of the dumps are merged
+    to make sure every symbol is declared exactly once per scope.
+    Since (pop) also removes the declarations made inside the popped scope,
+    a symbol first declared inside a scope gets declared again if it is used after the scope.
+
+    The script is complete once one of the export*Check methods (or <finish>) returned.
+    Closing the exporter before that (e.g. because the encoding failed) deletes the incomplete script.
+ */
+@Options
+public class SMTLib2Exporter implements ConstraintSink, AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(SMTLib2Exporter.class);
+
+    // =========================== Configurables ===========================
+
+    @Option(name = SMTLIB2_EXPORT_PATH,
+            description = "Writes the complete verification query as an SMT-LIB2 script to the given file.",
+            secure = true)
+    private String exportPath = "";
+
+    @Option(name = SMTLIB2_EXPORT_ONLY,
+            description = "Stops verification right after the SMT-LIB2 script was written (the result is UNKNOWN). " +
+                    "Only has an effect if " + SMTLIB2_EXPORT_PATH + " is set.",
+            secure = true)
+    private boolean exportOnly = false;
+
+    // =====================================================================
+
+    private final FormulaManager fmgr;
+    // The declarations of each open scope (the outermost scope is at the bottom)
+    private final Deque<Set<String>> declarations = new ArrayDeque<>(List.of(new HashSet<>()));
+    private Writer writer;
+
+    private SMTLib2Exporter(FormulaManager fmgr) {
+        this.fmgr = fmgr;
+    }
+
+    public static SMTLib2Exporter fromConfig(FormulaManager fmgr, Configuration config) throws InvalidConfigurationException {
+        SMTLib2Exporter exporter = new SMTLib2Exporter(fmgr);
+        config.inject(exporter);
+        if (exporter.isEnabled()) {
+            logger.info("{}: {}", SMTLIB2_EXPORT_PATH, exporter.exportPath);
+            logger.info("{}: {}", SMTLIB2_EXPORT_ONLY, exporter.exportOnly);
+            exporter.open();
+        }
+        return exporter;
+    }
+
+    public boolean isEnabled() { return !exportPath.isEmpty(); }
+    public boolean isExportOnly() { return isEnabled() && exportOnly; }
+
+    // Returns the sink the encoders should write to:
+    // <proverSink> if nothing gets exported, this exporter alone if we only export, and both otherwise.
+    public ConstraintSink attachTo(ConstraintSink proverSink) {
+        if (!isEnabled()) {
+            return proverSink;
+        }
+        return exportOnly ? this : proverSink.andThen(this);
+    }
+
+    // ======================================== Script ==============================================
+
+    @Override
+    public void add(BooleanFormula constraint) {
+        add(null, constraint);
+    }
+
+    @Override
+    public void add(String name, BooleanFormula constraint) {
+        checkState(writer != null, "The exporter is not enabled or already closed.");
+        for (String command : splitCommands(fmgr.dumpFormula(constraint).toString())) {
+            if (command.startsWith("(assert")) {
+                String term = command.substring("(assert".length(), command.length() - 1).trim();
+                if (term.equals("true")) {
+                    continue;
+                }
+                write(name == null ? "(assert " + term + ")" : "(assert (! " + term + " :named " + quote(name) + "))");
+            } else if (command.startsWith("(declare") || command.startsWith("(define")) {
+                if (declarations.stream().noneMatch(scope -> scope.contains(command))) {
+                    declarations.peek().add(command);
+                    write(command);
+                }
+            }
+            // Other commands (e.g. set-info) produced by the solver's dump are dropped.
+        }
+    }
+
+    public void push() {
+        declarations.push(new HashSet<>());
+        write("(push 1)");
+    }
+
+    public void pop() {
+        checkState(declarations.size() > 1, "Cannot pop the outermost scope.");
+        declarations.pop();
+        write("(pop 1)");
+    }
+
+    public void checkSat() {
+        write("(check-sat)");
+    }
+
+    public void checkSatAssuming(BooleanFormula assumption) {
+        String literal = splitCommands(fmgr.dumpFormula(assumption).toString()).stream()
+                .filter(c -> c.startsWith("(assert")).findFirst()
+                .map(c -> c.substring("(assert".length(), c.length() - 1).trim())
+                .orElseThrow();
+        write("(check-sat-assuming (" + literal + "))");
+    }
+
+    // Exports the property check as done by IncrementalSolver and TwoSolvers:
+    // the property is checked inside a scope and if it cannot be violated, the bound check follows.
+    public void exportScopedPropertyCheck(PropertyEncoder encoder, EnumSet<Property> properties) {
+        push();
+        encoder.encodeProperties(properties, this);
+        checkSat();
+        pop();
+        add("bound", encoder.encodeBoundEventExec());
+        checkSat();
+        finish();
+    }
+
+    // Exports the property check as done by AssumeSolver:
+    // the property only holds under <assumption> which is only assumed for the first check.
+    public void exportAssumedPropertyCheck(PropertyEncoder encoder, EnumSet<Property> properties, BooleanFormula assumption) {
+        encoder.encodeProperties(properties, new ConstraintSink() {
+            @Override
+            public void add(BooleanFormula constraint) {
+                SMTLib2Exporter.this.add(fmgr.getBooleanFormulaManager().implication(assumption, constraint));
+            }
+
+            @Override
+            public void add(String name, BooleanFormula constraint) {
+                SMTLib2Exporter.this.add(name, fmgr.getBooleanFormulaManager().implication(assumption, constraint));
+            }
+        });
+        checkSatAssuming(assumption);
+        add("bound", encoder.encodeBoundEventExec());
+        checkSat();
+        finish();
+    }
+
+    // Completes the script (the export*Check methods do so themselves).
+    public void finish() {
+        write("(exit)");
+        closeWriter();
+        logger.info("Exported SMT-LIB2 query to {}", exportPath);
+    }
+
+    // Deletes the script, unless it was completed.
+    @Override
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+        closeWriter();
+        if (!new File(exportPath).delete()) {
+            logger.warn("Could not delete the incomplete SMT-LIB2 query {}", exportPath);
+        } else {
+            logger.warn("Deleted the incomplete SMT-LIB2 query {}", exportPath);
+        }
+    }
+
+    // ======================================== Internals ==============================================
+
+    private void closeWriter() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writer = null;
+        }
+    }
+
+    private void open() {
+        try {
+            File file = new File(exportPath);
+            if (file.getParentFile() != null) {
+                file.getParentFile().mkdirs();
+            }
+            writer = new BufferedWriter(new FileWriter(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        write("; Verification query exported by Dartagnan");
+        write("(set-option :produce-models true)");
+        write("(set-option :produce-unsat-cores true)");
+    }
+
+    private void write(String line) {
+        try {
+            writer.write(line);
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Splits an SMT-LIB2 script into its top-level commands.
+    private static List<String> splitCommands(String script) {
+        List<String> commands = new ArrayList<>();
+        int depth = 0;
+        int start = -1;
+        for (int i = 0; i < script.length(); i++) {
+            char c = script.charAt(i);
+            if (c == '|' || c == '"') {
+                // Skip over quoted symbols and string literals ("" is an escaped quote inside strings)
+                int end = script.indexOf(c, i + 1);
+                while (c == '"' && end + 1 < script.length() && script.charAt(end + 1) == '"') {
+                    end = script.indexOf(c, end + 2);
+                }
+                i = end;
+            } else if (c == ';' && depth == 0) {
+                int end = script.indexOf('\n', i);
+                i = end < 0 ? script.length() : end;
+            } else if (c == '(') {
+                if (depth++ == 0) {
+                    start = i;
+                }
+            } else if (c == ')' && --depth == 0) {
+                commands.add(script.substring(start, i + 1));
+            }
+        }
+        return commands;
+    }
+
+    private static String quote(String name) {
+        return name.matches("[a-zA-Z_][\\w.\\-]*") ? name : "|" + name.replace("|", "") + "|";
+    }
+}
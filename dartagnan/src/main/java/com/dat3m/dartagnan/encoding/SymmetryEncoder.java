@@ -83,12 +83,18 @@ public class SymmetryEncoder implements Encoder {
     }
 
     public BooleanFormula encodeFullSymmetryBreaking() {
-        final BooleanFormulaManager bmgr = context.getBooleanFormulaManager();
+        List<BooleanFormula> enc = new ArrayList<>();
+        encodeFullSymmetryBreaking(enc::add);
+        return context.getBooleanFormulaManager().and(enc);
+    }
+
+    // Emits the same constraints as <encodeFullSymmetryBreaking()>, one per symmetry class, into <enc>.
+    public void encodeFullSymmetryBreaking(ConstraintSink enc) {
         final Set<Tuple> maySet;
         final EncodingContext.EdgeEncoder edgeEncoder;
         switch(symmBreakTarget) {
             case "":
-                return bmgr.makeTrue();
+                return;
             case "_cf":
                 maySet = cfSet();
                 edgeEncoder = t -> context.execution(t.getFirst(), t.getSecond());
@@ -98,14 +104,14 @@ public class SymmetryEncoder implements Encoder {
                 if (!baseline.containsRelation(symmBreakTarget) || !memoryModel.containsRelation(symmBreakTarget)) {
                     logger.warn("The wmm has no relation named {} to break symmetry on." +
                             " Symmetry breaking was disabled.", symmBreakTarget);
-                    return bmgr.makeTrue();
+                    return;
                 }
                 maySet = ra.getKnowledge(memoryModel.getRelation(symmBreakTarget)).getMaySet();
                 edgeEncoder = context.edge(baseline.getRelation(symmBreakTarget));
         }
-        return symm.getNonTrivialClasses().stream()
-                .map(symmClass -> encodeSymmetryBreakingOnClass(maySet, edgeEncoder, symmClass))
-                .reduce(bmgr.makeTrue(), bmgr::and);
+        for (EquivalenceClass<Thread> symmClass : symm.getNonTrivialClasses()) {
+            enc.add(encodeSymmetryBreakingOnClass(maySet, edgeEncoder, symmClass));
+        }
     }
 
     private BooleanFormula encodeSymmetryBreakingOnClass(Set<Tuple> maySet, EncodingContext.EdgeEncoder edge, EquivalenceClass<Thread> symmClass) {
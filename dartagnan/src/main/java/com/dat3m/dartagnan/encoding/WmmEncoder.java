@@ -51,6 +51,7 @@ public class WmmEncoder implements Encoder {
 
     private final EncodingContext context;
     final Map<Relation, Set<Tuple>> encodeSets = new HashMap<>();
+    private final Set<Relation> encodedRelations = new HashSet<>();
 
     // =====================================================================
 
@@ -91,16 +92,27 @@ public class WmmEncoder implements Encoder {
     }
 
     public BooleanFormula encodeFullMemoryModel() {
-        return context.getBooleanFormulaManager().and(
-                encodeRelations(),
-                encodeConsistency()
-        );
+        List<BooleanFormula> enc = new ArrayList<>();
+        encodeFullMemoryModel(enc::add);
+        return context.getBooleanFormulaManager().and(enc);
+    }
+
+    // Emits the same constraints as <encodeFullMemoryModel()> one by one into <enc>.
+    public void encodeFullMemoryModel(ConstraintSink enc) {
+        encodeRelations(enc);
+        encodeConsistency(enc);
     }
 
     // Initializes everything just like encodeAnarchicSemantics but also encodes all
     // relations that are needed for the axioms (but does NOT encode the axioms themselves yet)
     // NOTE: It avoids encoding relations that do NOT affect the axioms, i.e. unused relations
     public BooleanFormula encodeRelations() {
+        List<BooleanFormula> enc = new ArrayList<>();
+        encodeRelations(enc::add);
+        return context.getBooleanFormulaManager().and(enc);
+    }
+
+    public void encodeRelations(ConstraintSink enc) {
         logger.info("Encoding relations");
         Wmm memoryModel = context.getTask().getMemoryModel();
         final DependencyGraph<Relation> depGraph = DependencyGraph.from(
@@ -109,21 +121,52 @@ public class WmmEncoder implements Encoder {
                         Iterables.transform(memoryModel.getAxioms(), Axiom::getRelation) // axiom relations
                 )
         );
-        RelationEncoder v = new RelationEncoder();
+        RelationEncoder v = new RelationEncoder(enc);
         for (Relation rel : depGraph.getNodeContents()) {
             logger.trace("Encoding relation '{}'", rel);
             rel.getDefinition().accept(v);
+            encodedRelations.add(rel);
+        }
+    }
+
+    // Encodes the given axioms together with all relations they depend on.
+    // Relations already encoded by this encoder are skipped, so this can be called repeatedly,
+    // e.g. to eagerly encode axioms in the middle of a Refinement run.
+    public void encodeAxioms(Collection<? extends Axiom> axioms, ConstraintSink enc) {
+        encodeRelations(Iterables.transform(axioms, Axiom::getRelation), enc);
+        for (Axiom a : axioms) {
+            if (!a.isFlagged()) {
+                logger.trace("Encoding axiom '{}'", a);
+                enc.addAll(a.consistent(context));
+            }
+        }
+    }
+
+    // Encodes the given relations together with all relations they depend on.
+    // Like <encodeAxioms>, this skips relations already encoded by this encoder.
+    public void encodeRelations(Iterable<? extends Relation> relations, ConstraintSink enc) {
+        final DependencyGraph<Relation> depGraph = DependencyGraph.from(relations);
+        RelationEncoder v = new RelationEncoder(enc);
+        for (Relation rel : depGraph.getNodeContents()) {
+            if (encodedRelations.add(rel)) {
+                logger.trace("Encoding relation '{}'", rel);
+                rel.getDefinition().accept(v);
+            }
         }
-        return v.bmgr.and(v.enc);
     }
 
     // Encodes all axioms. This should be called after <encodeRelations>
     public BooleanFormula encodeConsistency() {
+        List<BooleanFormula> enc = new ArrayList<>();
+        encodeConsistency(enc::add);
+        return context.getBooleanFormulaManager().and(enc);
+    }
+
+    public void encodeConsistency(ConstraintSink enc) {
         logger.info("Encoding consistency");
         Wmm memoryModel = context.getTask().getMemoryModel();
         final BooleanFormulaManager bmgr = context.getBooleanFormulaManager();
         RelationAnalysis ra = context.getAnalysisContext().get(RelationAnalysis.class);
-        List<BooleanFormula> enc = new ArrayList<>();
         for (Axiom a : memoryModel.getAxioms()) {
             if (!a.isFlagged()) {
                 logger.trace("Encoding axiom '{}'", a);
@@ -133,7 +176,6 @@ public class WmmEncoder implements Encoder {
         for (Tuple t : ra.getMutuallyExclusiveTuples()) {
             enc.add(bmgr.not(context.execution(t.getFirst(), t.getSecond())));
         }
-        return bmgr.and(enc);
     }
 
     public Set<Tuple> getTuples(Relation relation, Model model) {
@@ -156,7 +198,11 @@ public class WmmEncoder implements Encoder {
         final Program program = context.getTask().getProgram();
         final RelationAnalysis ra = context.getAnalysisContext().requires(RelationAnalysis.class);
         final BooleanFormulaManager bmgr = context.getBooleanFormulaManager();
-        final List<BooleanFormula> enc = new ArrayList<>();
+        final ConstraintSink enc;
+
+        RelationEncoder(ConstraintSink enc) {
+            this.enc = enc;
+        }
 
         @Override
         public Void visitDefinition(Relation rel, List<? extends Relation> dependencies) {
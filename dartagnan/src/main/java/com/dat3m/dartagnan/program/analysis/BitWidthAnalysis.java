@@ -0,0 +1,355 @@
+package com.dat3m.dartagnan.program.analysis;
+
+import com.dat3m.dartagnan.expression.*;
+import com.dat3m.dartagnan.expression.processing.ExpressionVisitor;
+import com.dat3m.dartagnan.program.Program;
+import com.dat3m.dartagnan.program.Register;
+import com.dat3m.dartagnan.program.analysis.alias.AliasAnalysis;
+import com.dat3m.dartagnan.program.event.core.*;
+import com.dat3m.dartagnan.program.event.core.utils.RegWriter;
+import com.dat3m.dartagnan.program.memory.MemoryObject;
+import com.dat3m.dartagnan.verification.Context;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+
+import java.math.BigInteger;
+import java.util.*;
+
+import static com.dat3m.dartagnan.GlobalSettings.getArchPrecision;
+import static com.dat3m.dartagnan.configuration.OptionNames.BIT_WIDTH_INFERENCE;
+import static com.dat3m.dartagnan.program.event.Tag.WRITE;
+
+/**
+ * Infers for each register and each memory location the smallest bit-vector width
+ * that can hold all values it may have in any execution.
+ * Values are interpreted as unsigned numbers, so anything that may become negative keeps its full width.
+ * <p>
+ * The analysis runs on the processed program, i.e. it profits from the constants propagated by
+ * {@link com.dat3m.dartagnan.program.processing.SparseConditionalConstantPropagation}
+ * and from the addresses assigned by {@link com.dat3m.dartagnan.program.processing.MemoryAllocation}.
+ * Loads receive the joined ranges of all stores they may read from (according to the {@link AliasAnalysis}).
+ * <p>
+ * Only bit-vector encodings make use of the results, and only for the domains of variables:
+ * the encoder declares registers and final memory values with the inferred width and zero-extends them
+ * to the architecture's precision right away, so the operations on them are still encoded at full width
+ * (the solver sees the constant upper bits, though).
+ * <p>
+ * Registers that may be read before being written are never narrowed,
+ * no matter whether the encoding initializes registers to zero.
+ */
+@Options
+public final class BitWidthAnalysis {
+
+    private static final Logger logger = LogManager.getLogger(BitWidthAnalysis.class);
+
+    // =========================== Configurables ===========================
+
+    @Option(name = BIT_WIDTH_INFERENCE,
+            description = "Declares registers and final memory values with the smallest sound bit-vector width. " +
+                    "Operations on them are still encoded at full width (only has an effect on bit-vector encodings).",
+            secure = true)
+    private boolean enabled = false;
+
+    // =====================================================================
+
+    private final Map<Register, BigInteger> registerBounds = new HashMap<>();
+    private final Set<Register> unbounded = new HashSet<>();
+    private final Map<MemoryObject, Map<Integer, BigInteger>> locationBounds = new HashMap<>();
+
+    private BitWidthAnalysis() { }
+
+    /**
+     * Performs the width analysis on a program.
+     *
+     * @param program         Processed and compiled program to be analyzed.
+     * @param analysisContext Collection of other analyses previously performed on {@code program}.
+     *                        Should include {@link Dependency} and {@link AliasAnalysis}.
+     * @param config          Mapping from keywords to values,
+     *                        further specifying the behavior of this analysis.
+     * @throws InvalidConfigurationException Some option was provided with an unsupported type.
+     */
+    public static BitWidthAnalysis fromConfig(Program program, Context analysisContext, Configuration config) throws InvalidConfigurationException {
+        BitWidthAnalysis analysis = new BitWidthAnalysis();
+        config.inject(analysis);
+        logger.info("{}: {}", BIT_WIDTH_INFERENCE, analysis.enabled);
+        if (analysis.enabled && getArchPrecision() > 0) {
+            long t0 = System.currentTimeMillis();
+            analysis.run(program,
+                    analysisContext.requires(Dependency.class),
+                    analysisContext.requires(AliasAnalysis.class));
+            logger.info("Finished bit-width analysis in {}ms", System.currentTimeMillis() - t0);
+        }
+        return analysis;
+    }
+
+    /**
+     * @param register Register of the analyzed program.
+     * @return Number of bits needed to store every possible value of {@code register}.
+     * Equals the precision of {@code register}, if no smaller width could be inferred.
+     */
+    public int getWidth(Register register) {
+        return width(registerBounds.get(register), register.getPrecision());
+    }
+
+    /**
+     * @param base   Memory object of the analyzed program.
+     * @param offset Field of {@code base}.
+     * @return Number of bits needed to store every possible value of the field.
+     * Equals the architecture's precision, if no smaller width could be inferred.
+     */
+    public int getWidth(MemoryObject base, int offset) {
+        return width(locationBounds.getOrDefault(base, Map.of()).get(offset), getArchPrecision());
+    }
+
+    // ================= Private methods ===================
+
+    private static int width(BigInteger bound, int precision) {
+        if (bound == null || precision <= 0) {
+            return precision;
+        }
+        return Math.min(precision, Math.max(1, bound.bitLength()));
+    }
+
+    private void run(Program program, Dependency dep, AliasAnalysis alias) {
+        // Registers that may be read before any write have arbitrary values (unless the encoding initializes them)
+        for (Map.Entry<Event, Map<Register, Dependency.State>> reader : dep.getAll()) {
+            reader.getValue().forEach((r, s) -> { if (!s.initialized) { unbounded.add(r); } });
+        }
+        dep.finalWriters().forEach((r, s) -> { if (!s.initialized) { unbounded.add(r); } });
+
+        final List<MemEvent> writes = new ArrayList<>();
+        final List<Init> inits = new ArrayList<>();
+        final List<RegWriter> writers = new ArrayList<>();
+        for (Event e : program.getEvents()) {
+            if (e instanceof MemEvent && e.is(WRITE)) {
+                writes.add((MemEvent) e);
+            }
+            if (e instanceof Init) {
+                inits.add((Init) e);
+            }
+            if (e instanceof RegWriter) {
+                writers.add((RegWriter) e);
+            }
+        }
+        final Map<Load, List<MemEvent>> readFrom = new HashMap<>();
+        for (RegWriter writer : writers) {
+            if (writer instanceof Load) {
+                Load load = (Load) writer;
+                List<MemEvent> sources = new ArrayList<>();
+                for (MemEvent w : writes) {
+                    if (alias.mayAlias(load, w)) {
+                        sources.add(w);
+                    }
+                }
+                readFrom.put(load, sources);
+            }
+        }
+
+        // Fixed point over the register bounds.
+        // Each update rounds the bound up to the next width, so every register changes at most <precision> times.
+        final BoundEvaluator evaluator = new BoundEvaluator();
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (RegWriter writer : writers) {
+                Register register = writer.getResultRegister();
+                if (unbounded.contains(register)) {
+                    continue;
+                }
+                BigInteger bound;
+                if (writer instanceof Local) {
+                    bound = ((Local) writer).getExpr().visit(evaluator);
+                } else if (writer instanceof Load) {
+                    bound = BigInteger.ZERO;
+                    for (MemEvent w : readFrom.get(writer)) {
+                        bound = max(bound, w.getMemValue().visit(evaluator));
+                    }
+                } else if (writer instanceof ExecutionStatus) {
+                    bound = BigInteger.ONE;
+                } else {
+                    bound = null;
+                }
+                if (bound == null || register.getPrecision() <= 0 || bound.bitLength() >= register.getPrecision()) {
+                    unbounded.add(register);
+                    registerBounds.remove(register);
+                    changed = true;
+                    continue;
+                }
+                BigInteger old = registerBounds.get(register);
+                BigInteger widened = mask(Math.max(bound.bitLength(), old == null ? 0 : old.bitLength()));
+                if (!widened.equals(old)) {
+                    registerBounds.put(register, widened);
+                    changed = true;
+                }
+            }
+        }
+
+        for (Init init : inits) {
+            BigInteger bound = BigInteger.ZERO;
+            for (MemEvent w : writes) {
+                if (alias.mayAlias(init, w)) {
+                    bound = max(bound, w.getMemValue().visit(evaluator));
+                }
+            }
+            if (bound != null && bound.bitLength() < getArchPrecision()) {
+                locationBounds.computeIfAbsent(init.getBase(), k -> new HashMap<>()).put(init.getOffset(), bound);
+            }
+        }
+
+        if (logger.isInfoEnabled()) {
+            logger.info("Narrowed {} registers and {} memory locations",
+                    registerBounds.keySet().stream().filter(r -> getWidth(r) < r.getPrecision()).count(),
+                    locationBounds.values().stream().mapToInt(Map::size).sum());
+        }
+    }
+
+    private static BigInteger mask(int width) {
+        return BigInteger.ONE.shiftLeft(width).subtract(BigInteger.ONE);
+    }
+
+    private static BigInteger max(BigInteger a, BigInteger b) {
+        return a == null || b == null ? null : a.max(b);
+    }
+
+    // Keeps <bound>, if it fits into <precision> bits without wrapping around.
+    private static BigInteger fit(BigInteger bound, int precision) {
+        return bound == null || precision <= 0 || bound.bitLength() > precision ? null : bound;
+    }
+
+    // Keeps <bound>, if values up to <bound> are non-negative when interpreted as signed <precision>-bit numbers.
+    private static BigInteger fitSigned(BigInteger bound, int precision) {
+        return bound == null || precision <= 0 || bound.bitLength() >= precision ? null : bound;
+    }
+
+    /*
+        Computes an upper bound for the unsigned value of an expression under the current register bounds.
+        Returns null, if no bound below the expression's precision is known.
+        Boolean expressions get encoded as 0 or 1 when used as integers.
+     */
+    private final class BoundEvaluator implements ExpressionVisitor<BigInteger> {
+
+        @Override
+        public BigInteger visit(Atom atom) {
+            return BigInteger.ONE;
+        }
+
+        @Override
+        public BigInteger visit(BConst bConst) {
+            return BigInteger.ONE;
+        }
+
+        @Override
+        public BigInteger visit(BExprBin bBin) {
+            return BigInteger.ONE;
+        }
+
+        @Override
+        public BigInteger visit(BExprUn bUn) {
+            return BigInteger.ONE;
+        }
+
+        @Override
+        public BigInteger visit(BNonDet bNonDet) {
+            return BigInteger.ONE;
+        }
+
+        @Override
+        public BigInteger visit(IValue iValue) {
+            BigInteger value = iValue.getValue();
+            if (iValue.getPrecision() <= 0) {
+                return value.signum() < 0 ? null : value;
+            }
+            return value.mod(BigInteger.ONE.shiftLeft(iValue.getPrecision()));
+        }
+
+        @Override
+        public BigInteger visit(MemoryObject address) {
+            return fit(address.getValue(), address.getPrecision());
+        }
+
+        @Override
+        public BigInteger visit(INonDet iNonDet) {
+            return iNonDet.getMin() < 0 ? null : fit(BigInteger.valueOf(iNonDet.getMax()), iNonDet.getPrecision());
+        }
+
+        @Override
+        public BigInteger visit(Register reg) {
+            // Registers outside of threads are not written by any event
+            return unbounded.contains(reg) || reg.getThreadId() == Register.NO_THREAD ? null : registerBounds.getOrDefault(reg, BigInteger.ZERO);
+        }
+
+        @Override
+        public BigInteger visit(IfExpr ifExpr) {
+            return max(ifExpr.getTrueBranch().visit(this), ifExpr.getFalseBranch().visit(this));
+        }
+
+        @Override
+        public BigInteger visit(IExprBin iBin) {
+            BigInteger lhs = iBin.getLHS().visit(this);
+            BigInteger rhs = iBin.getRHS().visit(this);
+            int precision = iBin.getPrecision();
+            switch (iBin.getOp()) {
+                case PLUS:
+                    return lhs == null || rhs == null ? null : fit(lhs.add(rhs), precision);
+                case MULT:
+                    return lhs == null || rhs == null ? null : fit(lhs.multiply(rhs), precision);
+                case AND:
+                    return lhs == null ? rhs : rhs == null ? lhs : lhs.min(rhs);
+                case OR:
+                case XOR:
+                    return lhs == null || rhs == null ? null : mask(lhs.max(rhs).bitLength());
+                case L_SHIFT:
+                    if (lhs == null || rhs == null || !(iBin.getRHS() instanceof IValue) || rhs.bitLength() > 8) {
+                        return null;
+                    }
+                    return fit(lhs.shiftLeft(rhs.intValue()), precision);
+                case R_SHIFT:
+                case UREM:
+                    // Unsigned remainder by zero yields the dividend
+                    return lhs;
+                case AR_SHIFT:
+                    return fitSigned(lhs, precision);
+                case SREM:
+                case MOD:
+                    return fitSigned(rhs, precision) == null ? null : fitSigned(lhs, precision);
+                case UDIV:
+                case DIV:
+                    // Division by zero yields all ones
+                    boolean nonZero = iBin.getRHS() instanceof IValue && ((IValue) iBin.getRHS()).getValue().signum() > 0;
+                    return !nonZero || fitSigned(rhs, precision) == null ? null : fitSigned(lhs, precision);
+                default:
+                    return null;
+            }
+        }
+
+        @Override
+        public BigInteger visit(IExprUn iUn) {
+            BigInteger inner = iUn.getInner().visit(this);
+            switch (iUn.getOp()) {
+                case BV2UINT:
+                case INT2BV1: case INT2BV8: case INT2BV16: case INT2BV32: case INT2BV64:
+                case ZEXT18: case ZEXT116: case ZEXT132: case ZEXT164: case ZEXT816:
+                case ZEXT832: case ZEXT864: case ZEXT1632: case ZEXT1664: case ZEXT3264:
+                    return inner;
+                case BV2INT:
+                case SEXT18: case SEXT116: case SEXT132: case SEXT164: case SEXT816:
+                case SEXT832: case SEXT864: case SEXT1632: case SEXT1664: case SEXT3264:
+                    return fitSigned(inner, iUn.getInner().getPrecision());
+                case TRUNC6432: case TRUNC6416: case TRUNC3216: case TRUNC648: case TRUNC328: case TRUNC168:
+                case TRUNC641: case TRUNC321: case TRUNC161: case TRUNC81:
+                    // The encoding keeps two bits when truncating to a single bit
+                    BigInteger max = mask(Math.max(2, iUn.getPrecision()));
+                    return inner == null ? max : inner.min(max);
+                case CTLZ:
+                    int length = iUn.getInner().getPrecision();
+                    return length <= 0 ? null : BigInteger.valueOf(length);
+                default:
+                    return null;
+            }
+        }
+    }
+}
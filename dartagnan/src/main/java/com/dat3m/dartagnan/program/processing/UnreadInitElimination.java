@@ -0,0 +1,71 @@
+package com.dat3m.dartagnan.program.processing;
+
+import com.dat3m.dartagnan.program.Program;
+import com.dat3m.dartagnan.program.analysis.alias.AliasAnalysis;
+import com.dat3m.dartagnan.program.event.Tag;
+import com.dat3m.dartagnan.program.event.core.Init;
+import com.dat3m.dartagnan.program.event.core.MemEvent;
+import com.dat3m.dartagnan.verification.Context;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.dat3m.dartagnan.configuration.OptionNames.LAZY_INIT_EVENTS;
+
+/*
+    This pass removes the threads of Init events that no load may read from (according to the alias analysis).
+    Such events cannot influence the behaviour of the program.
+    It runs after the alias analysis of the analysis context and before all other analyses.
+    The alias analysis stays valid, since the removed events do not propagate any pointer.
+    All other events, including the remaining Init events, keep their thread and event ids.
+    Litmus tests always keep all Init events, since their final conditions refer to memory values.
+ */
+@Options
+public class UnreadInitElimination implements ProgramProcessor {
+
+    private static final Logger logger = LogManager.getLogger(UnreadInitElimination.class);
+
+    private final Context analysisContext;
+
+    // =========================== Configurables ===========================
+
+    @Option(name = LAZY_INIT_EVENTS,
+            description = "Removes Init events that no load may read from (according to the alias analysis). " +
+                    "Litmus tests always keep all Init events.",
+            secure = true)
+    private boolean lazyInitEvents = false;
+
+    // =====================================================================
+
+    private UnreadInitElimination(Context analysisContext) {
+        this.analysisContext = analysisContext;
+    }
+
+    public static UnreadInitElimination fromConfig(Context analysisContext, Configuration config) throws InvalidConfigurationException {
+        UnreadInitElimination elimination = new UnreadInitElimination(analysisContext);
+        config.inject(elimination);
+        return elimination;
+    }
+
+    @Override
+    public void run(Program program) {
+        if (!lazyInitEvents || program.getFormat() == Program.SourceLanguage.LITMUS) {
+            return;
+        }
+        final AliasAnalysis alias = analysisContext.requires(AliasAnalysis.class);
+        final List<MemEvent> loads = program.getEvents(MemEvent.class).stream()
+                .filter(e -> e.is(Tag.READ))
+                .collect(Collectors.toList());
+        final int numInits = program.getEvents(Init.class).size();
+        program.getThreads().removeIf(t -> t.getEntry() instanceof Init
+                && loads.stream().noneMatch(load -> alias.mayAlias((Init) t.getEntry(), load)));
+        logger.info("Removed {} of {} Init events that no load may read from",
+                numInits - program.getEvents(Init.class).size(), numInits);
+    }
+}
@@ -5,6 +5,7 @@ import com.dat3m.dartagnan.solver.caat.domain.Domain;
 import com.dat3m.dartagnan.solver.caat.predicates.CAATPredicate;
 import com.dat3m.dartagnan.solver.caat.predicates.PredicateHierarchy;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Collections2;
 import com.google.common.collect.Maps;
 
 import java.util.*;
@@ -64,8 +65,15 @@ public class CAATModel {
         this.hierarchy.initializeToDomain(domain);
     }
 
+    // Populates the predicates of all constraints.
+    // Other predicates only get populated when asked for (see <populate(Collection)>).
+    // Derived graphs are always populated as a whole; there are no on-demand edge queries for them.
     public void populate() {
-        this.hierarchy.populate();
+        this.hierarchy.populate(Collections2.transform(constraints, Constraint::getConstrainedPredicate));
+    }
+
+    public void populate(Collection<? extends CAATPredicate> predicates) {
+        this.hierarchy.populate(predicates);
     }
 
     // ======================================== Consistency ==============================================
@@ -3,13 +3,15 @@ package com.dat3m.dartagnan.solver.caat;
 
 import com.dat3m.dartagnan.solver.caat.constraints.Constraint;
 import com.dat3m.dartagnan.solver.caat.misc.PathAlgorithm;
+import com.dat3m.dartagnan.solver.caat.predicates.CAATPredicate;
 import com.dat3m.dartagnan.solver.caat.reasoning.CAATLiteral;
 import com.dat3m.dartagnan.solver.caat.reasoning.Reasoner;
 import com.dat3m.dartagnan.utils.logic.Conjunction;
 import com.dat3m.dartagnan.utils.logic.DNF;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import static com.dat3m.dartagnan.solver.caat.CAATSolver.Status.CONSISTENT;
 import static com.dat3m.dartagnan.solver.caat.CAATSolver.Status.INCONSISTENT;
@@ -20,6 +22,14 @@ public class CAATSolver {
     // ======================================== Fields  ==============================================
 
     private final Reasoner reasoner;
+    // The scratch memory of the path searches of this solver
+    private final PathAlgorithm pathAlgorithm;
+    // If enabled, the constraints are checked one after another and the check stops at the first violation
+    private boolean firstViolationSuffices = false;
+    // If enabled, the constraints are populated and checked concurrently (see <checkConcurrently>)
+    private boolean parallelPopulation = false;
+    // The history of each constraint, used to decide which constraint to check first
+    private final Map<Constraint, ConstraintHistory> histories = new HashMap<>();
 
     // The statistics of the last call
     private Statistics stats;
@@ -27,7 +37,8 @@ public class CAATSolver {
     // ======================================== Construction ==============================================
 
     private CAATSolver() {
-        this.reasoner = new Reasoner();
+        this.pathAlgorithm = new PathAlgorithm();
+        this.reasoner = new Reasoner(pathAlgorithm);
     }
 
     public static CAATSolver create() {
@@ -40,6 +51,17 @@ public class CAATSolver {
 
     public Statistics getStatistics() { return stats; }
 
+    // If enabled, <check> reports only the violations of the first violated constraint it finds.
+    // The constraints are then checked in the order of their (historical) chance of being violated
+    // relative to their cost, and only the predicates of the constraints checked so far get populated.
+    // Consistent models still get all constraints checked.
+    public void setFirstViolationSuffices(boolean value) { this.firstViolationSuffices = value; }
+
+    // If enabled, <check> populates the independent parts of the model and checks the constraints
+    // concurrently on the common fork-join pool. The result is the same as for a sequential check.
+    // Stopping at the first violation takes precedence over this.
+    public void setParallelPopulation(boolean value) { this.parallelPopulation = value; }
+
     // ======================================== Solving ==============================================
 
     /*
@@ -48,7 +70,8 @@ public class CAATSolver {
             - All base predicates are populated or will populate themselves.
 
         <check> will:
-            - Populate the derived predicates in <model>
+            - Populate the derived predicates in <model> the constraints depend on
+              (other predicates get populated once they are asked for)
             - Check consistency of <model>
             - If applicable, compute base reasons of consistency violations
             - Return results about the computation
@@ -57,22 +80,30 @@ public class CAATSolver {
         Result result = new Result();
         stats = result.getStatistics();
 
-        PathAlgorithm.ensureCapacity(model.getDomain().size());
-        // ============== Populate derived predicates ===============
-        long curTime = System.currentTimeMillis();
-        model.populate();
-        stats.populationTime = System.currentTimeMillis() - curTime;
-
-        // ============== Check for inconsistencies ===============
-        curTime = System.currentTimeMillis();
-        List<Constraint> violatedConstraints = model.getViolatedConstraints();
+        pathAlgorithm.ensureCapacity(model.getDomain().size());
+        List<Constraint> violatedConstraints;
+        if (firstViolationSuffices) {
+            violatedConstraints = findFirstViolation(model);
+        } else if (parallelPopulation) {
+            violatedConstraints = checkConcurrently(model);
+        } else {
+            // ============== Populate derived predicates ===============
+            long curTime = System.currentTimeMillis();
+            model.populate();
+            stats.populationTime = System.currentTimeMillis() - curTime;
+
+            // ============== Check for inconsistencies ===============
+            curTime = System.currentTimeMillis();
+            violatedConstraints = model.getViolatedConstraints();
+            stats.consistencyCheckTime = System.currentTimeMillis() - curTime;
+        }
         Status status = violatedConstraints.isEmpty() ? CONSISTENT : INCONSISTENT;
         result.setStatus(status);
-        stats.consistencyCheckTime = System.currentTimeMillis() - curTime;
+        result.setViolatedConstraints(violatedConstraints);
 
         if (status == INCONSISTENT) {
             // ============== Compute reasons ===============
-            curTime = System.currentTimeMillis();
+            long curTime = System.currentTimeMillis();
             result.setBaseReasons(computeInconsistencyReasons(violatedConstraints));
             stats.reasonComputationTime += (System.currentTimeMillis() - curTime);
         }
@@ -80,6 +111,66 @@ public class CAATSolver {
         return result;
     }
 
+    // Populates and checks the constraints one by one (most promising first) until one is violated.
+    private List<Constraint> findFirstViolation(CAATModel model) {
+        List<Constraint> constraints = new ArrayList<>(model.getConstraints());
+        for (Constraint constraint : constraints) {
+            histories.computeIfAbsent(constraint, ConstraintHistory::new);
+        }
+        constraints.sort(Comparator.comparingDouble(c -> -histories.get(c).getPriority()));
+
+        for (Constraint constraint : constraints) {
+            long curTime = System.currentTimeMillis();
+            model.populate(List.of(constraint.getConstrainedPredicate()));
+            stats.populationTime += System.currentTimeMillis() - curTime;
+
+            curTime = System.currentTimeMillis();
+            boolean isViolated = constraint.checkForViolations();
+            stats.consistencyCheckTime += System.currentTimeMillis() - curTime;
+            stats.numCheckedConstraints++;
+
+            ConstraintHistory history = histories.get(constraint);
+            history.numChecks++;
+            if (isViolated) {
+                history.numViolations++;
+                return List.of(constraint);
+            }
+        }
+        return List.of();
+    }
+
+    // First populates the predicates that several constraints depend on.
+    // Then the remaining sub-hierarchy of each constraint is disjoint from the others,
+    // so each constraint gets populated and checked in its own task.
+    // The violated constraints are reported in the order of <model.getConstraints()>, no matter which task finishes first.
+    private List<Constraint> checkConcurrently(CAATModel model) {
+        List<Constraint> constraints = new ArrayList<>(model.getConstraints());
+        List<CAATPredicate> constrainedPreds = new ArrayList<>(constraints.size());
+        constraints.forEach(c -> constrainedPreds.add(c.getConstrainedPredicate()));
+
+        long curTime = System.currentTimeMillis();
+        model.populate(model.getHierarchy().getSharedDependencies(constrainedPreds));
+        stats.populationTime = System.currentTimeMillis() - curTime;
+
+        // The time of the concurrent phase (population and checks of the remaining predicates)
+        curTime = System.currentTimeMillis();
+        List<ForkJoinTask<Boolean>> tasks = new ArrayList<>(constraints.size());
+        for (Constraint constraint : constraints) {
+            tasks.add(ForkJoinPool.commonPool().submit(() -> {
+                model.populate(List.of(constraint.getConstrainedPredicate()));
+                return constraint.checkForViolations();
+            }));
+        }
+        List<Constraint> violatedConstraints = new ArrayList<>();
+        for (int i = 0; i < constraints.size(); i++) {
+            if (tasks.get(i).join()) {
+                violatedConstraints.add(constraints.get(i));
+            }
+        }
+        stats.consistencyCheckTime = System.currentTimeMillis() - curTime;
+        return violatedConstraints;
+    }
+
     // ======================================== Reason computation ==============================================
 
     private DNF<CAATLiteral> computeInconsistencyReasons(List<Constraint> violatedConstraints) {
@@ -96,24 +187,56 @@ public class CAATSolver {
 
     // ======================================== Inner Classes ==============================================
 
+    private static class ConstraintHistory {
+        // The number of predicates the constraint depends on (including its own predicate).
+        // This approximates the cost of populating and checking it.
+        final int cost;
+        int numChecks;
+        int numViolations;
+
+        ConstraintHistory(Constraint constraint) {
+            Set<CAATPredicate> dependencies = new HashSet<>();
+            Deque<CAATPredicate> stack = new ArrayDeque<>();
+            stack.push(constraint.getConstrainedPredicate());
+            while (!stack.isEmpty()) {
+                CAATPredicate pred = stack.pop();
+                if (dependencies.add(pred)) {
+                    stack.addAll(pred.getDependencies());
+                }
+            }
+            cost = dependencies.size();
+        }
+
+        // The estimated violation rate (1/2 without any history) per unit of cost
+        double getPriority() {
+            return (numViolations + 1.0) / (numChecks + 2.0) / cost;
+        }
+    }
+
     public static class Result {
         private Status status;
         private DNF<CAATLiteral> baseReasons;
+        private List<Constraint> violatedConstraints;
         private final Statistics stats;
 
         public Status getStatus() { return status; }
         public DNF<CAATLiteral> getBaseReasons() { return baseReasons; }
+        public List<Constraint> getViolatedConstraints() { return violatedConstraints; }
         public Statistics getStatistics() { return stats; }
 
         void setStatus(Status status) { this.status = status; }
         void setBaseReasons(DNF<CAATLiteral> reasons) {
             this.baseReasons = reasons;
         }
+        void setViolatedConstraints(List<Constraint> constraints) {
+            this.violatedConstraints = constraints;
+        }
 
         public Result() {
             stats = new Statistics();
             status = Status.INCONCLUSIVE;
             baseReasons = DNF.FALSE();
+            violatedConstraints = List.of();
         }
 
         @Override
@@ -130,12 +253,15 @@ public class CAATSolver {
         long reasonComputationTime;
         int numComputedReasons;
         int numComputedReducedReasons;
+        int numCheckedConstraints;
 
         public long getPopulationTime() { return populationTime; }
         public long getReasonComputationTime() { return reasonComputationTime; }
         public long getConsistencyCheckTime() { return consistencyCheckTime; }
         public int getNumComputedReasons() { return numComputedReasons; }
         public int getNumComputedReducedReasons() { return numComputedReducedReasons; }
+        // Only counted if the check stops at the first violation
+        public int getNumCheckedConstraints() { return numCheckedConstraints; }
 
         public String toString() {
             StringBuilder str = new StringBuilder();
@@ -11,7 +11,6 @@ import com.dat3m.dartagnan.solver.caat.predicates.misc.MaterializedSubgraphView;
 import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.Edge;
 import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.RelationGraph;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Sets;
 
 import java.util.*;
 
@@ -19,18 +18,28 @@ public class AcyclicityConstraint extends AbstractConstraint {
 
     private final RelationGraph constrainedGraph;
 
-    private static final ObjectPool<DenseIntegerSet> SET_COLLECTION_POOL =
+    // Instance-owned (not static), so that independent models can be checked in parallel.
+    private final ObjectPool<DenseIntegerSet> setCollectionPool =
             new ObjectPool<>(DenseIntegerSet::new, 10);
 
 
     private final List<DenseIntegerSet> violatingSccs = new ArrayList<>();
     private final DenseIntegerSet markedNodes = new DenseIntegerSet();
-    private Node[] nodeMap;
+    private final PathAlgorithm pathAlgorithm = new PathAlgorithm();
+    // The nodes are reused across domains, only the first <numNodes> of them belong to the current domain.
+    private Node[] nodeMap = new Node[0];
+    private int numNodes = 0;
+    private boolean onlyShortestCycles = false;
 
     public AcyclicityConstraint(RelationGraph constrainedGraph) {
         this.constrainedGraph = constrainedGraph;
     }
 
+    // If enabled, only a single cycle (the one with the shortest derivation) is reported per SCC.
+    public void setOnlyShortestCycles(boolean onlyShortestCycles) {
+        this.onlyShortestCycles = onlyShortestCycles;
+    }
+
     @Override
     public RelationGraph getConstrainedPredicate() {
         return constrainedGraph;
@@ -62,28 +71,45 @@ public class AcyclicityConstraint extends AbstractConstraint {
         // (1) find a shortest path C from <e> to <e> (=cycle)
         // (2) remove all nodes in C from the search space (those nodes are likely to give the same cycle)
         // (3) remove chords and normalize cycle order (starting from element with smallest id)
-        for (Set<Integer> scc : violatingSccs) {
+        DenseIntegerSet nodes = setCollectionPool.get();
+        for (DenseIntegerSet scc : violatingSccs) {
             MaterializedSubgraphView subgraph = new MaterializedSubgraphView(constrainedGraph, scc);
-            Set<Integer> nodes = new HashSet<>(Sets.intersection(scc, markedNodes));
+            nodes.clear();
+            nodes.or(scc);
+            nodes.and(markedNodes);
+            List<Edge> shortestCycle = null;
             while (!nodes.isEmpty()) {
-                int e = nodes.stream().findAny().get();
+                int e = nodes.intIterator().nextInt();
 
-                List<Edge> cycle = PathAlgorithm.findShortestPath(subgraph, e, e);
+                List<Edge> cycle = pathAlgorithm.findShortestPath(subgraph, e, e);
                 cycle = new ArrayList<>(cycle);
 
                 cycle.forEach(edge -> nodes.remove(edge.getFirst()));
                 //TODO: Most cycles have chords, so a specialized algorithm that avoids
                 // chords altogether would be great
                 reduceChordsAndNormalize(cycle);
-                if (!cycles.contains(cycle)) {
+                if (onlyShortestCycles) {
+                    if (shortestCycle == null || CYCLE_ORDER.compare(cycle, shortestCycle) < 0) {
+                        shortestCycle = cycle;
+                    }
+                } else if (!cycles.contains(cycle)) {
                     cycles.add(cycle);
                 }
             }
+            if (shortestCycle != null) {
+                cycles.add(shortestCycle);
+            }
         }
+        setCollectionPool.returnToPool(nodes);
 
         return cycles;
     }
 
+    // Orders cycles by their total derivation length and then by their number of edges
+    private static final Comparator<List<Edge>> CYCLE_ORDER = Comparator
+            .comparingInt((List<Edge> cycle) -> cycle.stream().mapToInt(Edge::getDerivationLength).sum())
+            .thenComparingInt(List::size);
+
     private void reduceChordsAndNormalize(List<Edge> cycle) {
         // Reduces chords by iteratively merging first and last edge if possible
         // Note that edges in the middle should not have chords since
@@ -136,12 +162,17 @@ public class AcyclicityConstraint extends AbstractConstraint {
     public void onDomainInit(CAATPredicate predicate, Domain<?> domain) {
         super.onDomainInit(predicate, domain);
         cleanUp();
-        int domSize = domain.size();;
+        int domSize = domain.size();
         markedNodes.ensureCapacity(domSize);
-        nodeMap = new Node[domSize];
-        for (int i = 0; i < domSize; i++) {
-            nodeMap[i] = new Node(i);
+        pathAlgorithm.ensureCapacity(domSize);
+        if (domSize > nodeMap.length) {
+            final int oldSize = nodeMap.length;
+            nodeMap = Arrays.copyOf(nodeMap, domSize);
+            for (int i = oldSize; i < domSize; i++) {
+                nodeMap[i] = new Node(i);
+            }
         }
+        numNodes = domSize;
     }
 
     @Override
@@ -151,7 +182,7 @@ public class AcyclicityConstraint extends AbstractConstraint {
     }
 
     private void cleanUp() {
-        violatingSccs.forEach(SET_COLLECTION_POOL::returnToPool);
+        violatingSccs.forEach(setCollectionPool::returnToPool);
         violatingSccs.clear();
         markedNodes.clear();
     }
@@ -165,20 +196,21 @@ public class AcyclicityConstraint extends AbstractConstraint {
         index = 0;
         stack.clear();
 
-        for (Node node : nodeMap) {
-            node.reset();
+        for (int i = 0; i < numNodes; i++) {
+            nodeMap[i].reset();
         }
 
-        for (Node node : nodeMap) {
+        for (int i = 0; i < numNodes; i++) {
+            Node node = nodeMap[i];
             if (!node.wasVisited()) {
                 strongConnect(node);
             }
         }
     }
 
-    // The TEMP_LIST is used to temporary hold the nodes in an SCC.
+    // The tempList is used to temporary hold the nodes in an SCC.
     // The SCC will only actually get created if it is violating! (selfloop or size > 1)
-    private static final ArrayList<Integer> TEMP_LIST = new ArrayList<>();
+    private final ArrayList<Integer> tempList = new ArrayList<>();
     private void strongConnect(Node v) {
         v.index = index;
         v.lowlink = index;
@@ -206,17 +238,17 @@ public class AcyclicityConstraint extends AbstractConstraint {
             do {
                 w = stack.pop();
                 w.isOnStack = false;
-                TEMP_LIST.add(w.id);
+                tempList.add(w.id);
             } while (w != v);
 
-            if (v.hasSelfLoop || TEMP_LIST.size() > 1) {
-                DenseIntegerSet scc = SET_COLLECTION_POOL.get();
+            if (v.hasSelfLoop || tempList.size() > 1) {
+                DenseIntegerSet scc = setCollectionPool.get();
                 scc.ensureCapacity(domain.size());
                 scc.clear();
-                scc.addAll(TEMP_LIST);
+                scc.addAll(tempList);
                 violatingSccs.add(scc);
             }
-            TEMP_LIST.clear();
+            tempList.clear();
         }
     }
 
@@ -4,10 +4,28 @@ import java.util.*;
 import java.util.function.IntConsumer;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+/*
+    A set of non-negative integers stored as a bitset (64 elements per word).
+    In addition to the words, the set keeps an index of the words that were non-zero at some point
+    since the last clear (a superset of the non-zero words).
+    This makes clearing, iteration and the bulk operations (or/and/andNot) proportional
+    to the number of elements rather than to the capacity.
+    Iteration is in ascending order.
+    Iterating requires the index to be compacted first. The compaction is synchronized, so a set that is not
+    modified anymore can be iterated by multiple threads at the same time.
+ */
 public class DenseIntegerSet implements Set<Integer> {
 
-    private boolean[] elements = new boolean[0];
+    private static final int WORD_SHIFT = 6;
+
+    private long[] words = new long[0];
+    private boolean[] isUsedWord = new boolean[0];
+    private int[] usedWords = new int[0];
+    private int numUsedWords = 0;
+    // True if <usedWords> is ascending and contains only non-zero words
+    private volatile boolean isCompact = true;
     int size = 0;
 
     public DenseIntegerSet() {
@@ -19,8 +37,11 @@ public class DenseIntegerSet implements Set<Integer> {
     }
 
     public void ensureCapacity(int capacity) {
-        if (capacity > elements.length) {
-            elements = Arrays.copyOf(elements, capacity);
+        final int numWords = (capacity + 63) >>> WORD_SHIFT;
+        if (numWords > words.length) {
+            words = Arrays.copyOf(words, numWords);
+            isUsedWord = Arrays.copyOf(isUsedWord, numWords);
+            usedWords = Arrays.copyOf(usedWords, numWords);
         }
     }
 
@@ -37,18 +58,25 @@ public class DenseIntegerSet implements Set<Integer> {
     }
 
     public boolean contains(int e) {
-        return elements[e];
+        final int w = e >>> WORD_SHIFT;
+        return w < words.length && (words[w] & (1L << e)) != 0;
     }
 
     @Override
     public Iterator<Integer> iterator() {
         return intIterator();
     }
-    public PrimitiveIterator.OfInt intIterator() { return new SetIterator(elements, size); }
+    public PrimitiveIterator.OfInt intIterator() {
+        compact();
+        return new SetIterator(words, usedWords, numUsedWords);
+    }
 
     @Override
     public Stream<Integer> stream() { return intStream().boxed(); }
-    public IntStream intStream() { return IntStream.range(0, elements.length).filter(i -> elements[i]); }
+    public IntStream intStream() {
+        return StreamSupport.intStream(Spliterators.spliterator(intIterator(), size,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
 
     @Override
     public Object[] toArray() { return stream().toArray(); }
@@ -58,12 +86,16 @@ public class DenseIntegerSet implements Set<Integer> {
     public <T> T[] toArray(T[] a) { return (T[])stream().toArray(Object[]::new); }
 
     public boolean add(int ele) {
-        boolean contains = contains(ele);
-        if (!contains) {
-            elements[ele] = true;
-            size++;
+        ensureCapacity(ele + 1);
+        final int w = ele >>> WORD_SHIFT;
+        final long old = words[w];
+        if ((old & (1L << ele)) != 0) {
+            return false;
         }
-        return contains;
+        words[w] = old | (1L << ele);
+        markUsed(w);
+        size++;
+        return true;
     }
 
     @Override
@@ -72,12 +104,16 @@ public class DenseIntegerSet implements Set<Integer> {
     }
 
     public boolean remove(int ele) {
-        boolean contains = contains(ele);
-        if (contains) {
-            elements[ele] = false;
-            size--;
+        if (!contains(ele)) {
+            return false;
         }
-        return contains;
+        final int w = ele >>> WORD_SHIFT;
+        words[w] &= ~(1L << ele);
+        if (words[w] == 0) {
+            isCompact = false;
+        }
+        size--;
+        return true;
     }
 
     @Override
@@ -97,6 +133,9 @@ public class DenseIntegerSet implements Set<Integer> {
 
     @Override
     public boolean addAll(Collection<? extends Integer> c) {
+        if (c instanceof DenseIntegerSet) {
+            return or((DenseIntegerSet) c);
+        }
         boolean changed = false;
         for (Integer e : c) {
             changed |= add(e);
@@ -106,12 +145,15 @@ public class DenseIntegerSet implements Set<Integer> {
 
     @Override
     public boolean retainAll(Collection<?> c) {
+        if (c instanceof DenseIntegerSet) {
+            return and((DenseIntegerSet) c);
+        }
         boolean changed = false;
-        for (int i = 0; i < elements.length; i++) {
-            if (elements[i] && !c.contains(i)) {
-                elements[i] = false;
-                size--;
-                changed = true;
+        final PrimitiveIterator.OfInt iter = intIterator();
+        while (iter.hasNext()) {
+            final int e = iter.nextInt();
+            if (!c.contains(e)) {
+                changed |= remove(e);
             }
         }
         return changed;
@@ -119,57 +161,164 @@ public class DenseIntegerSet implements Set<Integer> {
 
     @Override
     public boolean removeAll(Collection<?> c) {
-       boolean changed = false;
-       for (Object o : c) {
-           changed |= remove(o);
-       }
-       return changed;
+        if (c instanceof DenseIntegerSet) {
+            return andNot((DenseIntegerSet) c);
+        }
+        boolean changed = false;
+        for (Object o : c) {
+            changed |= remove(o);
+        }
+        return changed;
     }
 
     @Override
     public void clear() {
-        if (size > 0) {
-            Arrays.fill(elements, false);
-            size = 0;
+        for (int i = 0; i < numUsedWords; i++) {
+            final int w = usedWords[i];
+            words[w] = 0;
+            isUsedWord[w] = false;
+        }
+        numUsedWords = 0;
+        isCompact = true;
+        size = 0;
+    }
+
+    // ============== Bulk operations ==============
+    // Each operation only visits the used words of one of the two sets.
+
+    // Adds all elements of <other>. Returns true if this set changed.
+    public boolean or(DenseIntegerSet other) {
+        ensureCapacity(other.words.length << WORD_SHIFT);
+        boolean changed = false;
+        for (int i = 0; i < other.numUsedWords; i++) {
+            final int w = other.usedWords[i];
+            final long old = words[w];
+            final long updated = old | other.words[w];
+            if (updated != old) {
+                words[w] = updated;
+                markUsed(w);
+                size += Long.bitCount(updated) - Long.bitCount(old);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    // Removes all elements that are not in <other>. Returns true if this set changed.
+    public boolean and(DenseIntegerSet other) {
+        boolean changed = false;
+        for (int i = 0; i < numUsedWords; i++) {
+            final int w = usedWords[i];
+            final long old = words[w];
+            final long updated = w < other.words.length ? old & other.words[w] : 0;
+            if (updated != old) {
+                changed |= updateWord(w, old, updated);
+            }
+        }
+        return changed;
+    }
+
+    // Removes all elements of <other>. Returns true if this set changed.
+    public boolean andNot(DenseIntegerSet other) {
+        boolean changed = false;
+        for (int i = 0; i < numUsedWords; i++) {
+            final int w = usedWords[i];
+            final long old = words[w];
+            final long updated = w < other.words.length ? old & ~other.words[w] : old;
+            if (updated != old) {
+                changed |= updateWord(w, old, updated);
+            }
         }
+        return changed;
+    }
+
+    // ============== Internals ==============
+
+    private boolean updateWord(int w, long old, long updated) {
+        words[w] = updated;
+        size -= Long.bitCount(old) - Long.bitCount(updated);
+        if (updated == 0) {
+            isCompact = false;
+        }
+        return true;
     }
 
+    private void markUsed(int w) {
+        if (!isUsedWord[w]) {
+            isUsedWord[w] = true;
+            if (numUsedWords > 0 && usedWords[numUsedWords - 1] > w) {
+                isCompact = false;
+            }
+            usedWords[numUsedWords++] = w;
+        }
+    }
 
+    // Sorts the used words and drops those that became zero.
+    private void compact() {
+        if (isCompact) {
+            return;
+        }
+        synchronized (this) {
+            if (isCompact) {
+                return;
+            }
+            Arrays.sort(usedWords, 0, numUsedWords);
+            int j = 0;
+            for (int i = 0; i < numUsedWords; i++) {
+                final int w = usedWords[i];
+                if (words[w] != 0) {
+                    usedWords[j++] = w;
+                } else {
+                    isUsedWord[w] = false;
+                }
+            }
+            numUsedWords = j;
+            isCompact = true;
+        }
+    }
 
     private static class SetIterator implements PrimitiveIterator.OfInt {
-        final boolean[] elements;
-        int index;
-        int size;
+        final long[] words;
+        final int[] usedWords;
+        final int numUsedWords;
+        int wordIndex;
+        long remaining;
 
-        public SetIterator(boolean[] elements, int size) {
-            this.elements = elements;
-            this.size = size;
-            index = -1;
+        public SetIterator(long[] words, int[] usedWords, int numUsedWords) {
+            this.words = words;
+            this.usedWords = usedWords;
+            this.numUsedWords = numUsedWords;
+            wordIndex = -1;
+            remaining = 0;
+            advance();
         }
 
+        private void advance() {
+            while (remaining == 0 && ++wordIndex < numUsedWords) {
+                remaining = words[usedWords[wordIndex]];
+            }
+        }
 
         @Override
         public boolean hasNext() {
-            return size > 0;
+            return remaining != 0;
         }
 
         @Override
         public int nextInt() {
-            while (!elements[++index]) { }
-            size--;
-            return index;
+            if (remaining == 0) {
+                throw new NoSuchElementException();
+            }
+            final int e = (usedWords[wordIndex] << WORD_SHIFT) + Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            advance();
+            return e;
         }
 
         @Override
         public void forEachRemaining(IntConsumer action) {
-            int size = this.size;
-            final boolean[] elements = this.elements;
-            int i = -1;
-            while (size > 0) {
-                if (elements[++i]) {
-                    action.accept(i);
-                    size--;
-                }
+            while (remaining != 0) {
+                action.accept(nextInt());
             }
         }
 
@@ -0,0 +1,157 @@
+package com.dat3m.dartagnan.solver.caat.misc;
+
+
+import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.Edge;
+
+import java.util.Arrays;
+
+// Maps pairs of ids to the edge stored for them.
+// This is an open-addressing hash table (with linear probing) over the primitive id pairs,
+// so unlike a HashMap<Edge, Edge> it neither allocates an entry per edge nor needs an Edge to look up a pair.
+// A slot is only occupied if its stamp matches the current generation, so clearing the map takes constant time
+// (the edges of cleared slots stay referenced until the slots get reused).
+public class EdgeMap {
+
+    private static final int MIN_CAPACITY = 128;
+
+    private long[] keys = new long[MIN_CAPACITY];
+    private Edge[] values = new Edge[MIN_CAPACITY];
+    private int[] stamps = new int[MIN_CAPACITY];
+    private int generation = 1;
+    private int mask = MIN_CAPACITY - 1;
+    private int size = 0;
+
+    public EdgeMap() { }
+
+    // Starts at the given generation, so that tests can reach its wrap-around
+    EdgeMap(int generation) {
+        this.generation = generation;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public Edge get(int id1, int id2) {
+        final long key = key(id1, id2);
+        for (int i = slot(key); isOccupied(i); i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+        }
+        return null;
+    }
+
+    public boolean contains(int id1, int id2) {
+        return get(id1, id2) != null;
+    }
+
+    // Returns the edge stored for the ids of <e> or null (in which case <e> gets stored).
+    public Edge putIfAbsent(Edge e) {
+        final long key = key(e.getFirst(), e.getSecond());
+        int i = slot(key);
+        for (; isOccupied(i); i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+        }
+        keys[i] = key;
+        values[i] = e;
+        stamps[i] = generation;
+        if (++size > (values.length >> 1)) {
+            resize(values.length << 1);
+        }
+        return null;
+    }
+
+    public Edge remove(int id1, int id2) {
+        final long key = key(id1, id2);
+        int i = slot(key);
+        for (; isOccupied(i); i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                Edge removed = values[i];
+                deleteSlot(i);
+                size--;
+                return removed;
+            }
+        }
+        return null;
+    }
+
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+        size = 0;
+        if (++generation == Integer.MAX_VALUE) {
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+    }
+
+    // ============== Internals ==============
+
+    private static long key(int id1, int id2) {
+        return ((long) id1 << 32) | (id2 & 0xFFFFFFFFL);
+    }
+
+    private boolean isOccupied(int i) {
+        return stamps[i] == generation;
+    }
+
+    // The slot at which the probe sequence for the ids starts
+    int homeSlot(int id1, int id2) {
+        return slot(key(id1, id2));
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    // Closes the gap at slot <i> by moving back later entries of the same probe sequence
+    private void deleteSlot(int i) {
+        int gap = i;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (!isOccupied(j)) {
+                break;
+            }
+            final int home = slot(keys[j]);
+            // The entry at <j> may be moved into the gap if its home slot is not in (gap, j]
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        values[gap] = null;
+        stamps[gap] = 0;
+    }
+
+    private void resize(int newCapacity) {
+        final long[] oldKeys = keys;
+        final Edge[] oldValues = values;
+        final int[] oldStamps = stamps;
+        keys = new long[newCapacity];
+        values = new Edge[newCapacity];
+        stamps = new int[newCapacity];
+        mask = newCapacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldStamps[i] == generation) {
+                int j = slot(oldKeys[i]);
+                while (isOccupied(j)) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+                stamps[j] = generation;
+            }
+        }
+    }
+}
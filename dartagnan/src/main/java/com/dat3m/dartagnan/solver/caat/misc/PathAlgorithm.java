@@ -7,16 +7,18 @@ import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.RelationGraph;
 import java.util.*;
 import java.util.function.Predicate;
 
+// The search buffers belong to the instance, so each solver needs its own instance
+// (an instance must not be used by multiple threads at the same time).
 public class PathAlgorithm {
 
     //TODO: We need custom data datastructures that work with primitive integers
-    private final static Queue<Integer> queue1 = new ArrayDeque<>();
-    private final static Queue<Integer> queue2 = new ArrayDeque<>();
+    private final Queue<Integer> queue1 = new ArrayDeque<>();
+    private final Queue<Integer> queue2 = new ArrayDeque<>();
 
-    private static Edge[] parentMap1 = new Edge[0];
-    private static Edge[] parentMap2 = new Edge[0];
+    private Edge[] parentMap1 = new Edge[0];
+    private Edge[] parentMap2 = new Edge[0];
 
-    public static void ensureCapacity(int capacity) {
+    public void ensureCapacity(int capacity) {
         if (capacity <= parentMap1.length) {
             return;
         }
@@ -31,8 +33,8 @@ public class PathAlgorithm {
         This uses a bidirectional BFS to find a shortest path.
         A <filter> can be provided to skip certain edges during the search.
      */
-    public static List<Edge> findShortestPath(RelationGraph graph, int start, int end,
-                                              Predicate<Edge> filter) {
+    public List<Edge> findShortestPath(RelationGraph graph, int start, int end,
+                                       Predicate<Edge> filter) {
         queue1.clear();
         queue2.clear();
 
@@ -119,13 +121,13 @@ public class PathAlgorithm {
 
     // =============================== Public Methods ===============================
 
-    public static List<Edge> findShortestPath(RelationGraph graph, int start, int end) {
+    public List<Edge> findShortestPath(RelationGraph graph, int start, int end) {
         Predicate<Edge> alwaysTrueFilter = (edge -> true);
         return findShortestPath(graph, start, end, alwaysTrueFilter);
     }
 
 
-    public static List<Edge> findShortestPath(RelationGraph graph, int start, int end, int derivationBound) {
+    public List<Edge> findShortestPath(RelationGraph graph, int start, int end, int derivationBound) {
         Predicate<Edge> filter = (edge -> edge.getDerivationLength() <= derivationBound);
         return findShortestPath(graph, start, end, filter);
     }
@@ -6,6 +6,7 @@ import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.derived.Recursi
 import com.dat3m.dartagnan.utils.dependable.DependencyGraph;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 
@@ -14,6 +15,7 @@ import java.util.stream.Collectors;
         - it maintains the dependency structure of CAATPredicates
         - it initializes/populates derived CAATPredicates
         - it propagates changes topologically along the dependency structure
+        - it evaluates recursive groups (SCCs of the dependency structure) semi-naively as a single unit
         - it maintains a set of PredicateListeners to detect changes to CAATPredicates (e.g. for constraints)
  */
 public class PredicateHierarchy {
@@ -21,6 +23,11 @@ public class PredicateHierarchy {
     private final DependencyGraph<CAATPredicate> dependencyGraph;
     private final PriorityQueue<Task> tasks = new PriorityQueue<>();
     private final Set<CAATPredicate> basePredicates;
+    // The predicates populated since the last initialization (together with all their dependencies).
+    // Concurrent, because disjoint sub-hierarchies may get populated by different threads.
+    private final Set<CAATPredicate> populated = ConcurrentHashMap.newKeySet();
+    // Maps each predicate that is part of a recursive group to its group
+    private final Map<CAATPredicate, RecursiveGroup> recursiveGroups = new HashMap<>();
 
     private Domain<?> domain;
 
@@ -34,6 +41,13 @@ public class PredicateHierarchy {
 
         basePredicates = dependencyGraph.getNodeContents().stream()
                 .filter(p -> p.getDependencies().isEmpty()).collect(Collectors.toSet());
+
+        for (Set<DependencyGraph<CAATPredicate>.Node> scc : dependencyGraph.getSCCs()) {
+            if (scc.size() > 1) {
+                RecursiveGroup group = new RecursiveGroup(scc);
+                group.members.forEach(pred -> recursiveGroups.put(pred, group));
+            }
+        }
     }
 
     // ========================================
@@ -59,6 +73,7 @@ public class PredicateHierarchy {
 
     public void initializeToDomain(Domain<?> domain) {
         this.domain = domain;
+        populated.clear();
         for (CAATPredicate pred : getPredicateList()) {
             pred.initializeToDomain(domain);
             for (PredicateListener listener : listenersMap.get(pred)) {
@@ -69,28 +84,58 @@ public class PredicateHierarchy {
 
     // Computes the content of all derived predicates in topological order
     public void populate() {
+        populate(getPredicateList());
+    }
+
+    // Computes the content of <preds> and of all predicates they depend on, in topological order.
+    // Predicates that were already populated since the last initialization are skipped.
+    // All other predicates stay empty (and do not receive propagated changes) until they get populated,
+    // so predicates that are never asked for are never computed.
+    // The laziness is per predicate only: a populated predicate (and its whole dependency cone) is fully materialized,
+    // even if only a few of its edges are ever queried. Since ExecutionGraph only creates the graphs some axiom
+    // depends on, this mostly spares the graphs of flagged axioms (and the witness' hb).
+    // Multiple threads may populate at the same time, as long as the predicates they need to populate are disjoint
+    // (see <getSharedDependencies>). The already populated predicates are only read.
+    public void populate(Collection<? extends CAATPredicate> preds) {
+        Set<CAATPredicate> required = new HashSet<>();
+        Deque<CAATPredicate> stack = new ArrayDeque<>(preds);
+        while (!stack.isEmpty()) {
+            CAATPredicate pred = stack.pop();
+            if (!populated.contains(pred) && required.add(pred)) {
+                stack.addAll(pred.getDependencies());
+            }
+        }
+        if (required.isEmpty()) {
+            return;
+        }
+
         for (Set<DependencyGraph<CAATPredicate>.Node> scc : dependencyGraph.getSCCs()) {
             Set<CAATPredicate> recGrp = scc.stream().map(DependencyGraph.Node::getContent).collect(Collectors.toSet());
+            if (Collections.disjoint(recGrp, required)) {
+                continue;
+            }
+            populated.addAll(recGrp);
             if (recGrp.size() == 1) {
                 recGrp.stream().findAny().get().repopulate();
             } else {
                 populateRecursively(recGrp.stream().findAny().get(), recGrp, new HashSet<>());
 
-                // For all recursive relations, initialize the propagation
-                recGrp.stream().filter(x -> x instanceof RecursiveGraph).forEach(x -> {
-                    for(CAATPredicate dep : x.getDependencies()) {
-                        createPropagationTask(dep, x, new ArrayList<>(dep.setView()), 0);
+                // The recursive relations start out empty, so the first round
+                // propagates the initial content of their bodies into them
+                RecursiveGroup group = recursiveGroups.get(recGrp.stream().findAny().get());
+                Map<CAATPredicate, Map<CAATPredicate, List<Derivable>>> delta = new HashMap<>();
+                for (CAATPredicate pred : group.members) {
+                    if (pred instanceof RecursiveGraph) {
+                        for (CAATPredicate dep : pred.getDependencies()) {
+                            addDelta(delta, dep, pred, dep.setView());
+                        }
                     }
-                });
-
-                // Propagate within this recursive group
-                while (!tasks.isEmpty()) {
-                    handleTask(tasks.poll(), true);
                 }
+                evaluateRecursiveGroup(group, delta);
             }
 
             // Notify listeners about population
-            for (CAATPredicate pred : getPredicateList()) {
+            for (CAATPredicate pred : recGrp) {
                 for (PredicateListener listener : listenersMap.get(pred)) {
                     listener.onPopulation(pred);
                 }
@@ -98,6 +143,29 @@ public class PredicateHierarchy {
         }
     }
 
+    // Returns the predicates that are needed by more than one of <preds> (including <preds> themselves).
+    // A predicate that occurs several times in <preds> counts once per occurrence, so it is shared as well.
+    // Once these are populated, the remaining sub-hierarchies below each of <preds> are pairwise disjoint.
+    public Set<CAATPredicate> getSharedDependencies(Collection<? extends CAATPredicate> preds) {
+        Set<CAATPredicate> seen = new HashSet<>();
+        Set<CAATPredicate> shared = new HashSet<>();
+        for (CAATPredicate root : preds) {
+            Set<CAATPredicate> visited = new HashSet<>();
+            Deque<CAATPredicate> stack = new ArrayDeque<>();
+            stack.push(root);
+            while (!stack.isEmpty()) {
+                CAATPredicate pred = stack.pop();
+                if (visited.add(pred)) {
+                    if (!seen.add(pred)) {
+                        shared.add(pred);
+                    }
+                    stack.addAll(pred.getDependencies());
+                }
+            }
+        }
+        return shared;
+    }
+
     private void populateRecursively(CAATPredicate pred, Set<CAATPredicate> recGroup, Set<CAATPredicate> initialized) {
         if (initialized.contains(pred) || !recGroup.contains(pred)) {
             return;
@@ -140,7 +208,13 @@ public class PredicateHierarchy {
 
     private void forwardPropagate() {
         while (!tasks.isEmpty()) {
-            handleTask(tasks.poll(), false);
+            Task task = tasks.poll();
+            RecursiveGroup group = recursiveGroups.get(task.target);
+            if (group == null) {
+                handleTask(task);
+            } else {
+                handleGroupTasks(group, task);
+            }
         }
     }
 
@@ -151,10 +225,14 @@ public class PredicateHierarchy {
         tasks.add(new Task(from, target, added, priority));
     }
 
-    private void handleTask(Task task, boolean withinRecGroup) {
+    private void handleTask(Task task) {
         CAATPredicate target = task.target;
         CAATPredicate from = task.from;
         Collection<? extends Derivable> added = task.added;
+        if (!populated.contains(target) && !basePredicates.contains(target)) {
+            // The changes are taken into account once <target> gets populated
+            return;
+        }
 
         Collection<? extends Derivable> newlyAdded = target.forwardPropagate(from, added);
         if (newlyAdded.isEmpty()) {
@@ -166,18 +244,94 @@ public class PredicateHierarchy {
             listener.onChanged(target, newlyAdded);
         }
 
-        List<DependencyGraph<CAATPredicate>.Node> dependents = dependencyGraph.get(target).getDependents();
-        if (withinRecGroup) {
-            // Limits propagation to EventGraphs in the same recursive Group.
-            Set<DependencyGraph<CAATPredicate>.Node> recGroup = dependencyGraph.get(target).getSCC();
-            dependents = dependents.stream().filter(recGroup::contains).collect(Collectors.toList());
-        }
-        for (DependencyGraph<CAATPredicate>.Node dependent : dependents) {
+        for (DependencyGraph<CAATPredicate>.Node dependent : dependencyGraph.get(target).getDependents()) {
             Task newTask = new Task(target, dependent.getContent(), newlyAdded, dependent.getTopologicalIndex());
             tasks.add(newTask);
         }
     }
 
+    // All members of a recursive group share the same topological index, so once the first task
+    // targeting the group is polled, all other changes the group will receive from outside are already queued.
+    // We take all of them and evaluate the group as a single unit, before passing on its changes.
+    private void handleGroupTasks(RecursiveGroup group, Task first) {
+        Map<CAATPredicate, Map<CAATPredicate, List<Derivable>>> delta = new HashMap<>();
+        addDelta(delta, first.from, first.target, first.added);
+        Iterator<Task> iter = tasks.iterator();
+        while (iter.hasNext()) {
+            Task task = iter.next();
+            if (recursiveGroups.get(task.target) == group) {
+                addDelta(delta, task.from, task.target, task.added);
+                iter.remove();
+            }
+        }
+        if (!populated.contains(first.target)) {
+            // The changes are taken into account once the group gets populated
+            return;
+        }
+
+        Map<CAATPredicate, List<Derivable>> changes = evaluateRecursiveGroup(group, delta);
+        for (Map.Entry<CAATPredicate, List<Derivable>> entry : changes.entrySet()) {
+            CAATPredicate pred = entry.getKey();
+            for (DependencyGraph<CAATPredicate>.Node dependent : dependencyGraph.get(pred).getDependents()) {
+                if (!group.members.contains(dependent.getContent())) {
+                    tasks.add(new Task(pred, dependent.getContent(), entry.getValue(), dependent.getTopologicalIndex()));
+                }
+            }
+        }
+    }
+
+    // Semi-naive evaluation of a recursive group:
+    // Each round visits the members in their evaluation order and propagates only the changes
+    // of the previous round (or the changes of earlier members in the same round).
+    // Changes for the same member are merged, so each member handles at most one delta per source and round.
+    // <delta> maps each member to the pending changes of its sources.
+    // Returns all changes of the members.
+    private Map<CAATPredicate, List<Derivable>> evaluateRecursiveGroup(RecursiveGroup group,
+                                                                        Map<CAATPredicate, Map<CAATPredicate, List<Derivable>>> delta) {
+        Map<CAATPredicate, List<Derivable>> changes = new HashMap<>();
+        while (!delta.isEmpty()) {
+            Map<CAATPredicate, Map<CAATPredicate, List<Derivable>>> nextDelta = new HashMap<>();
+            for (int i = 0; i < group.members.size(); i++) {
+                CAATPredicate pred = group.members.get(i);
+                Map<CAATPredicate, List<Derivable>> sources = delta.remove(pred);
+                if (sources == null) {
+                    continue;
+                }
+                List<Derivable> newlyAdded = new ArrayList<>();
+                for (Map.Entry<CAATPredicate, List<Derivable>> source : sources.entrySet()) {
+                    newlyAdded.addAll(pred.forwardPropagate(source.getKey(), source.getValue()));
+                }
+                if (newlyAdded.isEmpty()) {
+                    continue;
+                }
+
+                for (PredicateListener listener : listenersMap.get(pred)) {
+                    listener.onChanged(pred, newlyAdded);
+                }
+                changes.computeIfAbsent(pred, k -> new ArrayList<>()).addAll(newlyAdded);
+                for (DependencyGraph<CAATPredicate>.Node dependent : dependencyGraph.get(pred).getDependents()) {
+                    CAATPredicate dep = dependent.getContent();
+                    Integer pos = group.positions.get(dep);
+                    if (pos != null) {
+                        // Members that were already visited in this round see the changes in the next round
+                        addDelta(pos > i ? delta : nextDelta, pred, dep, newlyAdded);
+                    }
+                }
+            }
+            delta = nextDelta;
+        }
+        return changes;
+    }
+
+    private static void addDelta(Map<CAATPredicate, Map<CAATPredicate, List<Derivable>>> delta,
+                                 CAATPredicate from, CAATPredicate target, Collection<? extends Derivable> added) {
+        if (added.isEmpty()) {
+            return;
+        }
+        delta.computeIfAbsent(target, k -> new LinkedHashMap<>())
+                .computeIfAbsent(from, k -> new ArrayList<>()).addAll(added);
+    }
+
     // ==========================================
 
     // ============== Listeners =================
@@ -212,6 +366,36 @@ public class PredicateHierarchy {
     // ================= Internal structures ===================
 
 
+    // A non-trivial SCC of the predicate hierarchy.
+    // The members are ordered such that every member comes after its dependencies within the group,
+    // except for the dependencies of recursive relations (which close the cycles).
+    // So in each round of the evaluation, the recursive relations take the changes of their bodies
+    // from the previous round, and all other members see the changes of their dependencies from the same round.
+    private static class RecursiveGroup {
+        private final List<CAATPredicate> members = new ArrayList<>();
+        private final Map<CAATPredicate, Integer> positions = new HashMap<>();
+
+        public RecursiveGroup(Set<DependencyGraph<CAATPredicate>.Node> scc) {
+            Set<CAATPredicate> content = scc.stream().map(DependencyGraph.Node::getContent).collect(Collectors.toSet());
+            // Recursive relations first, so that the order does not depend on where the traversal starts
+            content.stream().filter(RecursiveGraph.class::isInstance).forEach(pred -> order(pred, content));
+            content.forEach(pred -> order(pred, content));
+        }
+
+        private void order(CAATPredicate pred, Set<CAATPredicate> content) {
+            if (positions.containsKey(pred)) {
+                return;
+            }
+            // Marks <pred> as visited; the final position is set after its dependencies
+            positions.put(pred, -1);
+            if (!(pred instanceof RecursiveGraph)) {
+                pred.getDependencies().stream().filter(content::contains).forEach(dep -> order(dep, content));
+            }
+            positions.put(pred, members.size());
+            members.add(pred);
+        }
+    }
+
     private static class Task implements Comparable<Task> {
         private final CAATPredicate from;
         private final CAATPredicate target;
@@ -21,8 +21,11 @@ public class Edge extends AbstractDerivable implements Comparable<Edge> {
     }
 
 
+    // Edges are immutable, so an edge can be reused if nothing changes
     @Override
-    public Edge with(int time, int derivationLength) { return new Edge(dId1, dId2, time, derivationLength); }
+    public Edge with(int time, int derivationLength) {
+        return time == this.time && derivationLength == derivLength ? this : new Edge(dId1, dId2, time, derivationLength);
+    }
     @Override
     public Edge withTime(int time) { return with(time, derivLength); }
     @Override
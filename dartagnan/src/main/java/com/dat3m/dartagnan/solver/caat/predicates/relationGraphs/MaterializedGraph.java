@@ -29,6 +29,11 @@ public abstract class MaterializedGraph extends AbstractPredicate implements Rel
         return simpleGraph.get(edge);
     }
 
+    @Override
+    public Edge getById(int a, int b) {
+        return simpleGraph.getById(a, b);
+    }
+
     @Override
     public boolean containsById(int a, int b) {
         return simpleGraph.containsById(a, b);
@@ -1,8 +1,10 @@
 package com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.base;
 
 import com.dat3m.dartagnan.solver.caat.domain.Domain;
+import com.dat3m.dartagnan.solver.caat.misc.DenseIntegerSet;
 import com.dat3m.dartagnan.solver.caat.misc.EdgeDirection;
 import com.dat3m.dartagnan.solver.caat.misc.EdgeList;
+import com.dat3m.dartagnan.solver.caat.misc.EdgeMap;
 import com.dat3m.dartagnan.solver.caat.predicates.CAATPredicate;
 import com.dat3m.dartagnan.solver.caat.predicates.Derivable;
 import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.Edge;
@@ -22,7 +24,10 @@ public final class SimpleGraph extends AbstractBaseGraph {
     private int maxTime = 0;
     private int numEvents = 0;
 
-    private final HashMap<Edge, Edge> edgeMap = new HashMap<>(100);
+    private final EdgeMap edgeMap = new EdgeMap();
+    // The nodes that got edges since the last clear. Clearing and backtracking only need to visit those nodes,
+    // so the storage of a graph can be reused for the next domain in time proportional to its content.
+    private final DenseIntegerSet usedNodes = new DenseIntegerSet();
 
     @Override
     public List<RelationGraph> getDependencies() {
@@ -46,18 +51,15 @@ public final class SimpleGraph extends AbstractBaseGraph {
         if (maxTime <= time) {
             return;
         }
-        final int bound = Math.min(numEvents, outgoing.length);
-        for (int i = 0; i < bound; i++) {
+        PrimitiveIterator.OfInt iter = usedNodes.intIterator();
+        while (iter.hasNext()) {
+            final int i = iter.nextInt();
             DataItem item = outgoing[i];
             if (item != null) {
                 item.backtrackTo(time);
                 maxTime = Math.max(maxTime, item.maxTime);
             }
-        }
-
-        final int bound2 = Math.min(numEvents, ingoing.length);
-        for (int i = 0; i < bound2; i++) {
-            DataItem item = ingoing[i];
+            item = ingoing[i];
             if (item != null) {
                 item.backtrackTo(time);
             }
@@ -82,7 +84,17 @@ public final class SimpleGraph extends AbstractBaseGraph {
     }
 
     public Edge get(Edge edge) {
-        return edgeMap.get(edge);
+        return edgeMap.get(edge.getFirst(), edge.getSecond());
+    }
+
+    @Override
+    public Edge getById(int id1, int id2) {
+        return edgeMap.get(id1, id2);
+    }
+
+    @Override
+    public boolean containsById(int id1, int id2) {
+        return edgeMap.contains(id1, id2);
     }
 
     @Override
@@ -97,16 +109,18 @@ public final class SimpleGraph extends AbstractBaseGraph {
     }
 
     public boolean contains(Edge e) {
-        return edgeMap.containsKey(e);
+        return edgeMap.contains(e.getFirst(), e.getSecond());
     }
 
     public boolean add(Edge e) {
-        if (edgeMap.putIfAbsent(e, e) != null) {
+        if (edgeMap.putIfAbsent(e) != null) {
             return false;
         }
         int firstId = e.getFirst();
         int secondId = e.getSecond();
         maxTime = Math.max(maxTime, e.getTime());
+        usedNodes.add(firstId);
+        usedNodes.add(secondId);
         DataItem item1 = outgoing[firstId];
         if (item1 == null) {
             outgoing[firstId] = item1 = new DataItem(true);
@@ -134,21 +148,17 @@ public final class SimpleGraph extends AbstractBaseGraph {
         maxTime = 0;
         edgeMap.clear();
 
-        final int bound = Math.min(numEvents, outgoing.length);
-        for (int i = 0; i < bound; i++) {
-            DataItem item = outgoing[i];
-            if (item != null) {
-                item.clear();
+        PrimitiveIterator.OfInt iter = usedNodes.intIterator();
+        while (iter.hasNext()) {
+            final int i = iter.nextInt();
+            if (outgoing[i] != null) {
+                outgoing[i].clear();
             }
-        }
-
-        final int bound2 = Math.min(numEvents, ingoing.length);
-        for (int i = 0; i < bound2; i++) {
-            DataItem item = ingoing[i];
-            if (item != null) {
-                item.clear();
+            if (ingoing[i] != null) {
+                ingoing[i].clear();
             }
         }
+        usedNodes.clear();
     }
 
     @Override
@@ -185,6 +195,7 @@ public final class SimpleGraph extends AbstractBaseGraph {
             final int newCapacity = numEvents + 20; // We give a buffer of 20 extra events
             outgoing = Arrays.copyOf(outgoing, newCapacity);
             ingoing = Arrays.copyOf(ingoing, newCapacity);
+            usedNodes.ensureCapacity(newCapacity);
         }
     }
 
@@ -235,14 +246,14 @@ public final class SimpleGraph extends AbstractBaseGraph {
             // should be sorted by timestamp (since edges with higher timestamp get added later)
             if (maxTime > time) {
                 final List<Edge> edgeList = this.edgeList;
-                final Map<Edge, Edge> edgeMap = SimpleGraph.this.edgeMap;
+                final EdgeMap edgeMap = SimpleGraph.this.edgeMap;
                 int i = edgeList.size();
                 while (--i >= 0) {
                     Edge e = edgeList.get(i);
                     if (e.getTime() > time) {
                         edgeList.remove(i);
                         if (deleteFromMap) {
-                            edgeMap.remove(e);
+                            edgeMap.remove(e.getFirst(), e.getSecond());
                         }
                     } else {
                         maxTime = e.getTime();
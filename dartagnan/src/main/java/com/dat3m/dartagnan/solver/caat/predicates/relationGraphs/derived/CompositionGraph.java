@@ -1,6 +1,8 @@
 package com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.derived;
 
 
+import com.dat3m.dartagnan.solver.caat.domain.Domain;
+import com.dat3m.dartagnan.solver.caat.misc.EdgeDirection;
 import com.dat3m.dartagnan.solver.caat.predicates.CAATPredicate;
 import com.dat3m.dartagnan.solver.caat.predicates.Derivable;
 import com.dat3m.dartagnan.solver.caat.predicates.misc.PredicateVisitor;
@@ -13,9 +15,16 @@ import java.util.*;
 
 public class CompositionGraph extends MaterializedGraph {
 
+    // Deltas up to this size are joined edge by edge, larger ones are joined per middle node (see <joinFirst>).
+    private static final int BATCH_JOIN_THRESHOLD = 8;
+
     private final RelationGraph first;
     private final RelationGraph second;
 
+    // Statistics for tuning the join strategies (since the last initialization)
+    private long numProbedEdges = 0;
+    private long numProducedEdges = 0;
+
     @Override
     public List<RelationGraph> getDependencies() {
         return Arrays.asList(first, second);
@@ -24,6 +33,11 @@ public class CompositionGraph extends MaterializedGraph {
     public RelationGraph getFirst() { return first; }
     public RelationGraph getSecond() { return second; }
 
+    // The number of edges of one operand visited while joining it with edges of the other operand
+    public long getNumProbedEdges() { return numProbedEdges; }
+    // The number of edges added by joins
+    public long getNumProducedEdges() { return numProducedEdges; }
+
     public CompositionGraph(RelationGraph first, RelationGraph second) {
         this.first = first;
         this.second = second;
@@ -35,10 +49,23 @@ public class CompositionGraph extends MaterializedGraph {
         return visitor.visitGraphComposition(this, data, context);
     }
 
+    @Override
+    public void initializeToDomain(Domain<?> domain) {
+        super.initializeToDomain(domain);
+        numProbedEdges = 0;
+        numProducedEdges = 0;
+    }
+
     @Override
     public void repopulate() {
         Set<Edge> fakeSet = SetUtil.fakeSet();
-        if (first.getEstimatedSize() <= second.getEstimatedSize()) {
+        final int firstSize = first.getEstimatedSize();
+        final int secondSize = second.getEstimatedSize();
+        if (Math.min(firstSize, secondSize) > domain.size()) {
+            // Both operands have more edges than there are nodes, so it is cheaper to visit each
+            // middle node once than to look up the adjacency of the other operand for each edge.
+            joinPerMiddleNode(fakeSet);
+        } else if (firstSize <= secondSize) {
             for (Edge a : first.edges()) {
                 updateFirst(a, fakeSet);
             }
@@ -61,15 +88,11 @@ public class CompositionGraph extends MaterializedGraph {
         Collection<Edge> addedEdges = (Collection<Edge>) added;
         if (changedSource == first) {
             // (A+R);B = A;B + R;B
-            for (Edge e : addedEdges) {
-                updateFirst(e, newEdges);
-            }
+            joinFirst(addedEdges, newEdges);
         }
         if (changedSource == second) {
             // A;(B+R) = A;B + A;R
-            for (Edge e : addedEdges) {
-                updateSecond(e, newEdges);
-            }
+            joinSecond(addedEdges, newEdges);
         }
         // For A;A, we have the following:
         // (A+R);(A+R) = A;A + A;R + R;A + R;R = A;A + (A+R);R + R;(A+R)
@@ -77,23 +100,115 @@ public class CompositionGraph extends MaterializedGraph {
         return newEdges;
     }
 
+    // ------------------------------ Joins ------------------------------
+
+    // Joins the edges <delta> of <first> with <second>.
+    // Small deltas are joined edge by edge. Larger deltas get grouped by their middle node, so that
+    // the out-edges of <second> are looked up once per middle node rather than once per edge.
+    private void joinFirst(Collection<Edge> delta, Collection<Edge> addedEdges) {
+        if (delta.size() <= BATCH_JOIN_THRESHOLD) {
+            for (Edge a : delta) {
+                updateFirst(a, addedEdges);
+            }
+            return;
+        }
+        List<Edge> sorted = new ArrayList<>(delta);
+        sorted.sort(Comparator.comparingInt(Edge::getSecond));
+        List<Edge> partners = new ArrayList<>();
+        int i = 0;
+        while (i < sorted.size()) {
+            final int middle = sorted.get(i).getSecond();
+            int end = i;
+            while (end < sorted.size() && sorted.get(end).getSecond() == middle) {
+                end++;
+            }
+            partners.clear();
+            if (second.getMaxSize(middle, EdgeDirection.OUTGOING) > 0) {
+                second.outEdges(middle).forEach(partners::add);
+            }
+            for (Edge a : sorted.subList(i, end)) {
+                for (Edge b : partners) {
+                    add(a, b, a.getTime(), addedEdges);
+                }
+            }
+            i = end;
+        }
+    }
+
+    // Same as <joinFirst> with the roles of <first> and <second> swapped.
+    private void joinSecond(Collection<Edge> delta, Collection<Edge> addedEdges) {
+        if (delta.size() <= BATCH_JOIN_THRESHOLD) {
+            for (Edge b : delta) {
+                updateSecond(b, addedEdges);
+            }
+            return;
+        }
+        List<Edge> sorted = new ArrayList<>(delta);
+        sorted.sort(Comparator.comparingInt(Edge::getFirst));
+        List<Edge> partners = new ArrayList<>();
+        int i = 0;
+        while (i < sorted.size()) {
+            final int middle = sorted.get(i).getFirst();
+            int end = i;
+            while (end < sorted.size() && sorted.get(end).getFirst() == middle) {
+                end++;
+            }
+            partners.clear();
+            if (first.getMaxSize(middle, EdgeDirection.INGOING) > 0) {
+                first.inEdges(middle).forEach(partners::add);
+            }
+            for (Edge b : sorted.subList(i, end)) {
+                for (Edge a : partners) {
+                    add(a, b, b.getTime(), addedEdges);
+                }
+            }
+            i = end;
+        }
+    }
+
+    // Joins all edges of both operands by visiting each node as the middle node of the composed edges.
+    // Nodes without in-edges in <first> or without out-edges in <second> are skipped.
+    private void joinPerMiddleNode(Collection<Edge> addedEdges) {
+        List<Edge> partners = new ArrayList<>();
+        for (int middle = 0; middle < domain.size(); middle++) {
+            if (first.getMaxSize(middle, EdgeDirection.INGOING) == 0
+                    || second.getMaxSize(middle, EdgeDirection.OUTGOING) == 0) {
+                continue;
+            }
+            partners.clear();
+            second.outEdges(middle).forEach(partners::add);
+            if (partners.isEmpty()) {
+                continue;
+            }
+            for (Edge a : first.inEdges(middle)) {
+                for (Edge b : partners) {
+                    add(a, b, Math.max(a.getTime(), b.getTime()), addedEdges);
+                }
+            }
+        }
+    }
+
     private void updateFirst(Edge a, Collection<Edge> addedEdges) {
         for (Edge b : second.outEdges(a.getSecond())) {
-            Edge c = combine(a, b, a.getTime());
-            if (simpleGraph.add(c)) {
-                addedEdges.add(c);
-            }
+            add(a, b, a.getTime(), addedEdges);
         }
     }
 
     private void updateSecond(Edge b, Collection<Edge> addedEdges) {
         for (Edge a : first.inEdges(b.getFirst())) {
-            Edge c = combine(a, b, b.getTime());
-            if (simpleGraph.add(c)) {
-                addedEdges.add(c);
-            }
+            add(a, b, b.getTime(), addedEdges);
         }
     }
 
-
+    // The composed edge is only created if it is not yet present
+    private void add(Edge a, Edge b, int time, Collection<Edge> addedEdges) {
+        numProbedEdges++;
+        if (simpleGraph.containsById(a.getFirst(), b.getSecond())) {
+            return;
+        }
+        Edge c = combine(a, b, time);
+        simpleGraph.add(c);
+        numProducedEdges++;
+        addedEdges.add(c);
+    }
 }
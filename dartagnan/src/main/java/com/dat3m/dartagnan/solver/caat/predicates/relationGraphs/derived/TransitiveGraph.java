@@ -1,5 +1,6 @@
 package com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.derived;
 
+import com.dat3m.dartagnan.solver.caat.misc.DenseIntegerSet;
 import com.dat3m.dartagnan.solver.caat.predicates.CAATPredicate;
 import com.dat3m.dartagnan.solver.caat.predicates.Derivable;
 import com.dat3m.dartagnan.solver.caat.predicates.misc.PredicateVisitor;
@@ -34,14 +35,129 @@ public class TransitiveGraph extends MaterializedGraph {
 
     @Override
     public void repopulate() {
-        //TODO: This is inefficient for many edges (the likely default case!)
-        // Initially, we can probably use some non-incremental approach
+        List<Edge> innerEdges = new ArrayList<>();
+        inner.edges().forEach(innerEdges::add);
+        if (simpleGraph.isEmpty() && innerEdges.stream().mapToInt(Edge::getTime).distinct().count() <= 1) {
+            populateClosure(innerEdges);
+            return;
+        }
+        // The bulk closure cannot assign times, so we add the edges one by one
         Set<Edge> fakeSet = SetUtil.fakeSet();
-        for (Edge e : inner.edges()) {
+        for (Edge e : innerEdges) {
             updateEdge(derive(e), fakeSet);
         }
     }
 
+    // Computes the closure of <innerEdges> at once. All edges need to have the same time.
+    // Each edge of the closure gets the smallest derivation length that allows the Reasoner to find a path
+    // of inner edges with smaller derivation lengths (see <findShortestPath>).
+    // To this end, the closure is computed for each derivation length of the inner edges in increasing order,
+    // each time taking all inner edges up to that derivation length into account.
+    private void populateClosure(List<Edge> innerEdges) {
+        if (innerEdges.isEmpty()) {
+            return;
+        }
+        final int time = innerEdges.get(0).getTime();
+        final int size = domain.size();
+        innerEdges.sort(Comparator.comparingInt(Edge::getDerivationLength));
+        List<List<Integer>> successors = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            successors.add(new ArrayList<>());
+        }
+        DenseIntegerSet[] added = new DenseIntegerSet[size];
+        int i = 0;
+        while (i < innerEdges.size()) {
+            final int derivLength = innerEdges.get(i).getDerivationLength();
+            for (; i < innerEdges.size() && innerEdges.get(i).getDerivationLength() == derivLength; i++) {
+                Edge e = innerEdges.get(i);
+                successors.get(e.getFirst()).add(e.getSecond());
+            }
+            DenseIntegerSet[] reachable = computeReachability(successors);
+            for (int a = 0; a < size; a++) {
+                DenseIntegerSet newSuccessors = new DenseIntegerSet(size);
+                newSuccessors.or(reachable[a]);
+                if (added[a] != null) {
+                    newSuccessors.andNot(added[a]);
+                }
+                PrimitiveIterator.OfInt iter = newSuccessors.intIterator();
+                while (iter.hasNext()) {
+                    simpleGraph.add(new Edge(a, iter.nextInt(), time, derivLength + 1));
+                }
+                added[a] = reachable[a];
+            }
+        }
+    }
+
+    // Returns for each node the set of nodes that are reachable over at least one edge.
+    // The graph gets condensed into its SCCs (using Tarjan's algorithm) whose nodes share the same set.
+    // Since Tarjan's algorithm finds the SCCs in reverse topological order,
+    // the sets of the successors of an SCC are complete once the SCC is found.
+    private static DenseIntegerSet[] computeReachability(List<List<Integer>> successors) {
+        final int size = successors.size();
+        final int[] index = new int[size];
+        final int[] lowLink = new int[size];
+        final boolean[] onStack = new boolean[size];
+        final DenseIntegerSet[] reachable = new DenseIntegerSet[size];
+        final Deque<Integer> stack = new ArrayDeque<>();
+        // Each frame consists of a node and the position of the next successor to visit
+        final Deque<int[]> callStack = new ArrayDeque<>();
+        Arrays.fill(index, -1);
+        int counter = 0;
+
+        for (int root = 0; root < size; root++) {
+            if (index[root] != -1) {
+                continue;
+            }
+            index[root] = lowLink[root] = counter++;
+            stack.push(root);
+            onStack[root] = true;
+            callStack.push(new int[] { root, 0 });
+            while (!callStack.isEmpty()) {
+                final int[] frame = callStack.peek();
+                final int v = frame[0];
+                if (frame[1] < successors.get(v).size()) {
+                    final int w = successors.get(v).get(frame[1]++);
+                    if (index[w] == -1) {
+                        index[w] = lowLink[w] = counter++;
+                        stack.push(w);
+                        onStack[w] = true;
+                        callStack.push(new int[] { w, 0 });
+                    } else if (onStack[w]) {
+                        lowLink[v] = Math.min(lowLink[v], index[w]);
+                    }
+                    continue;
+                }
+                callStack.pop();
+                if (!callStack.isEmpty()) {
+                    final int u = callStack.peek()[0];
+                    lowLink[u] = Math.min(lowLink[u], lowLink[v]);
+                }
+                if (lowLink[v] != index[v]) {
+                    continue;
+                }
+                // <v> is the root of an SCC
+                final DenseIntegerSet scc = new DenseIntegerSet(size);
+                final List<Integer> members = new ArrayList<>();
+                int w;
+                do {
+                    w = stack.pop();
+                    onStack[w] = false;
+                    reachable[w] = scc;
+                    members.add(w);
+                } while (w != v);
+                for (int m : members) {
+                    for (int succ : successors.get(m)) {
+                        scc.add(succ);
+                        if (reachable[succ] != scc) {
+                            scc.or(reachable[succ]);
+                        }
+                    }
+                }
+            }
+        }
+        return reachable;
+    }
+
     // Every (transitive) edge that gets added by adding <edge> is collected into <addedEdged>
     private void updateEdge(Edge edge, Collection<Edge> addedEdges) {
         if (!simpleGraph.add(edge)) {
@@ -50,22 +166,27 @@ public class TransitiveGraph extends MaterializedGraph {
         addedEdges.add(edge);
         final int time = edge.getTime();
 
+        // Combined edges are only created if they are not yet present
         for (Edge inEdge : inEdges(edge.getFirst())) {
+            if (simpleGraph.containsById(inEdge.getFirst(), edge.getSecond())) {
+                continue;
+            }
             Edge newEdge = combine(inEdge, edge, time);
-            if (simpleGraph.add(newEdge)) {
-                addedEdges.add(newEdge);
-                for (Edge outEdge : outEdges(edge.getSecond())) {
+            simpleGraph.add(newEdge);
+            addedEdges.add(newEdge);
+            for (Edge outEdge : outEdges(edge.getSecond())) {
+                if (!simpleGraph.containsById(newEdge.getFirst(), outEdge.getSecond())) {
                     Edge combined = combine(newEdge, outEdge, time);
-                    if (simpleGraph.add(combined)) {
-                        addedEdges.add(combined);
-                    }
+                    simpleGraph.add(combined);
+                    addedEdges.add(combined);
                 }
             }
         }
 
         for (Edge outEdge : outEdges(edge.getSecond())) {
-            Edge newEdge = combine(edge, outEdge, time);
-            if (simpleGraph.add(newEdge)) {
+            if (!simpleGraph.containsById(edge.getFirst(), outEdge.getSecond())) {
+                Edge newEdge = combine(edge, outEdge, time);
+                simpleGraph.add(newEdge);
                 addedEdges.add(newEdge);
             }
         }
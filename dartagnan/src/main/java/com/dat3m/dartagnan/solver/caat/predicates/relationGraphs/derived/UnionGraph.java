@@ -46,10 +46,12 @@ public class UnionGraph extends MaterializedGraph {
             ArrayList<Edge> newlyAdded = new ArrayList<>();
             Collection<Edge> addedEdges = (Collection<Edge>)added;
             for (Edge e : addedEdges) {
-                Edge edge = derive(e);
-                if (simpleGraph.add(edge)) {
-                    newlyAdded.add(edge);
+                if (simpleGraph.containsById(e.getFirst(), e.getSecond())) {
+                    continue;
                 }
+                Edge edge = derive(e);
+                simpleGraph.add(edge);
+                newlyAdded.add(edge);
             }
             return newlyAdded;
         } else {
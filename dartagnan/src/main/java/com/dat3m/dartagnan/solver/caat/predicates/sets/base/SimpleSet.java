@@ -1,5 +1,7 @@
 package com.dat3m.dartagnan.solver.caat.predicates.sets.base;
 
+import com.dat3m.dartagnan.solver.caat.domain.Domain;
+import com.dat3m.dartagnan.solver.caat.misc.DenseIntegerSet;
 import com.dat3m.dartagnan.solver.caat.predicates.CAATPredicate;
 import com.dat3m.dartagnan.solver.caat.predicates.Derivable;
 import com.dat3m.dartagnan.solver.caat.predicates.sets.Element;
@@ -8,54 +10,73 @@ import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+// The elements are stored by their id, while the ids themselves are kept in a bitset
+// that provides fast membership tests, iteration and clearing.
 public class SimpleSet extends AbstractBaseSet {
 
-    private final Map<Element, Element> elements = new HashMap<>();
-    private final Set<Element> keySet = elements.keySet();
+    private Element[] elements = new Element[0];
+    private final DenseIntegerSet ids = new DenseIntegerSet();
+    private final Set<Element> setView = new SetView();
 
     @Override
     public int size() {
-        return elements.size();
+        return ids.size();
     }
 
     @Override
     public boolean contains(Derivable value) {
-        return keySet.contains(value);
+        return value instanceof Element && contains((Element) value);
     }
 
     @Override
     public Element get(Derivable value) {
-        return elements.get(value);
+        return value instanceof Element ? get((Element) value) : null;
     }
 
     @Override
     public Element get(Element e) {
-        return elements.get(e);
+        return getById(e.getId());
+    }
+
+    @Override
+    public Element getById(int id) {
+        return containsById(id) ? elements[id] : null;
     }
 
     @Override
     public boolean contains(Element e) {
-        return keySet.contains(e);
+        return containsById(e.getId());
+    }
+
+    @Override
+    public boolean containsById(int id) {
+        return ids.contains(id);
     }
 
     @Override
     public Iterator<Element> elementIterator() {
-        return keySet.iterator();
+        return setView.iterator();
     }
 
     @Override
     public Iterable<Element> elements() {
-        return keySet;
+        return setView;
     }
 
     @Override
     public Set<Element> setView() {
-        return keySet;
+        return setView;
     }
 
     @Override
     public void backtrackTo(int time) {
-        keySet.removeIf(e -> e.getTime() > time);
+        PrimitiveIterator.OfInt iter = ids.intIterator();
+        while (iter.hasNext()) {
+            int id = iter.nextInt();
+            if (elements[id].getTime() > time) {
+                remove(id);
+            }
+        }
     }
 
     @Override
@@ -66,11 +87,30 @@ public class SimpleSet extends AbstractBaseSet {
 
     @Override
     public Stream<Element> elementStream() {
-        return keySet.stream();
+        return ids.intStream().mapToObj(id -> elements[id]);
+    }
+
+    @Override
+    public void initializeToDomain(Domain<?> domain) {
+        super.initializeToDomain(domain);
+        clear();
+        if (domain.size() > elements.length) {
+            final int newCapacity = domain.size() + 20; // We give a buffer of 20 extra elements
+            elements = Arrays.copyOf(elements, newCapacity);
+            ids.ensureCapacity(newCapacity);
+        }
     }
 
     public boolean add(Element ele) {
-        return elements.putIfAbsent(ele, ele) == null;
+        final int id = ele.getId();
+        if (id >= elements.length) {
+            elements = Arrays.copyOf(elements, id + 20);
+        }
+        if (!ids.add(id)) {
+            return false;
+        }
+        elements[id] = ele;
+        return true;
     }
 
     public boolean addAll(Collection<? extends Element> elems) {
@@ -80,4 +120,63 @@ public class SimpleSet extends AbstractBaseSet {
         }
         return changed;
     }
+
+    public void clear() {
+        PrimitiveIterator.OfInt iter = ids.intIterator();
+        while (iter.hasNext()) {
+            elements[iter.nextInt()] = null;
+        }
+        ids.clear();
+    }
+
+    private void remove(int id) {
+        ids.remove(id);
+        elements[id] = null;
+    }
+
+    private final class SetView extends AbstractSet<Element> {
+
+        @Override
+        public int size() {
+            return ids.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Element && SimpleSet.this.contains((Element) o);
+        }
+
+        @Override
+        public Iterator<Element> iterator() {
+            PrimitiveIterator.OfInt iter = ids.intIterator();
+            return new Iterator<>() {
+                int last = -1;
+
+                @Override
+                public boolean hasNext() {
+                    return iter.hasNext();
+                }
+
+                @Override
+                public Element next() {
+                    last = iter.nextInt();
+                    return elements[last];
+                }
+
+                @Override
+                public void remove() {
+                    if (last < 0) {
+                        throw new IllegalStateException();
+                    }
+                    SimpleSet.this.remove(last);
+                    last = -1;
+                }
+            };
+        }
+
+        @Override
+        public Stream<Element> stream() {
+            return elementStream();
+        }
+    }
 }
@@ -3,6 +3,7 @@ package com.dat3m.dartagnan.solver.caat.reasoning;
 import com.dat3m.dartagnan.solver.caat.constraints.AcyclicityConstraint;
 import com.dat3m.dartagnan.solver.caat.constraints.Constraint;
 import com.dat3m.dartagnan.solver.caat.misc.EdgeDirection;
+import com.dat3m.dartagnan.solver.caat.misc.PathAlgorithm;
 import com.dat3m.dartagnan.solver.caat.predicates.CAATPredicate;
 import com.dat3m.dartagnan.solver.caat.predicates.Derivable;
 import com.dat3m.dartagnan.solver.caat.predicates.misc.PredicateVisitor;
@@ -15,15 +16,21 @@ import com.dat3m.dartagnan.utils.logic.DNF;
 
 import java.util.*;
 
-import static com.dat3m.dartagnan.solver.caat.misc.PathAlgorithm.findShortestPath;
-
 @SuppressWarnings("unchecked")
 public class Reasoner {
 
     private final GraphVisitor graphVisitor = new GraphVisitor();
     private final SetVisitor setVisitor = new SetVisitor();
+    private final PathAlgorithm pathAlgorithm;
+    private boolean minimizeReasons = false;
+
+    public Reasoner(PathAlgorithm pathAlgorithm) {
+        this.pathAlgorithm = pathAlgorithm;
+    }
 
-    public Reasoner() {
+    // If enabled, the reasons of violations get minimized (see <minimize>).
+    public void setMinimizeReasons(boolean minimizeReasons) {
+        this.minimizeReasons = minimizeReasons;
     }
 
     // ========================== Reason computation ==========================
@@ -49,14 +56,14 @@ public class Reasoner {
                 Conjunction<CAATLiteral> reason = violation.stream()
                         .map(edge -> reasonMap.computeIfAbsent(edge, key -> computeReason(constrainedGraph, key)))
                         .reduce(Conjunction.TRUE(), Conjunction::and);
-                reasonList.add(reason);
+                reasonList.add(minimizeReasons ? minimize(pred, violation, reason) : reason);
             }
         } else {
             for (Collection<? extends Derivable> violation : violations) {
                 Conjunction<CAATLiteral> reason = violation.stream()
                         .map(edge -> computeReason(pred, edge))
                         .reduce(Conjunction.TRUE(), Conjunction::and);
-                reasonList.add(reason);
+                reasonList.add(minimizeReasons ? minimize(pred, violation, reason) : reason);
             }
         }
 
@@ -94,6 +101,31 @@ public class Reasoner {
         return reason;
     }
 
+    // ========================== Reason minimization ==========================
+
+    /*
+        Deletion-based minimization: A positive literal gets removed from <reason> if the <violation> of <pred>
+        can still be derived from the remaining literals alone.
+        Negative literals are always kept. Since then all predicates are monotone in the positive literals,
+        the minimized reason still implies the violation.
+        The derivations are searched within the current model, which contains all edges derivable from <reason>.
+     */
+    public Conjunction<CAATLiteral> minimize(CAATPredicate pred, Collection<? extends Derivable> violation,
+                                             Conjunction<CAATLiteral> reason) {
+        Set<CAATLiteral> literals = new HashSet<>(reason.getLiterals());
+        for (CAATLiteral lit : reason.getLiterals()) {
+            if (lit.isNegative()) {
+                continue;
+            }
+            literals.remove(lit);
+            DerivabilityVisitor visitor = new DerivabilityVisitor(literals);
+            if (!violation.stream().allMatch(v -> visitor.isDerivable(pred, v))) {
+                literals.add(lit);
+            }
+        }
+        return literals.size() == reason.getSize() ? reason : new Conjunction<>(literals);
+    }
+
     // ======================== Visitors ==========================
     /*
         The visitors are used to traverse the structure of the predicate hierarchy
@@ -250,7 +282,7 @@ public class Reasoner {
         public Conjunction<CAATLiteral> visitTransitiveClosure(RelationGraph graph, Edge edge, Void unused) {
             RelationGraph inner = (RelationGraph) graph.getDependencies().get(0);
             Conjunction<CAATLiteral> reason = Conjunction.TRUE();
-            List<Edge> path = findShortestPath(inner, edge.getFirst(), edge.getSecond(), edge.getDerivationLength() - 1);
+            List<Edge> path = pathAlgorithm.findShortestPath(inner, edge.getFirst(), edge.getSecond(), edge.getDerivationLength() - 1);
             for (Edge e : path) {
                 reason = reason.and(computeReason(inner, e));
             }
@@ -327,4 +359,156 @@ public class Reasoner {
             return new ElementLiteral(set.getName(), ele, false).toSingletonReason();
         }
     }
+
+    // Checks if an edge/element can be derived using only a given set of literals.
+    private static class DerivabilityVisitor implements PredicateVisitor<Boolean, Derivable, Void> {
+
+        private final Set<CAATLiteral> literals;
+        private final Map<CAATPredicate, Map<Derivable, Boolean>> memo = new HashMap<>();
+
+        DerivabilityVisitor(Set<CAATLiteral> literals) {
+            this.literals = literals;
+        }
+
+        boolean isDerivable(CAATPredicate pred, Derivable value) {
+            Map<Derivable, Boolean> predMemo = memo.computeIfAbsent(pred, key -> new HashMap<>());
+            Boolean result = predMemo.get(value);
+            if (result == null) {
+                // Cyclic queries (in recursive definitions) are answered negatively.
+                // This is safe, as it only prevents literals from being removed.
+                predMemo.put(value, false);
+                result = pred.contains(value) && pred.accept(this, value, null);
+                predMemo.put(value, result);
+            }
+            return result;
+        }
+
+        @Override
+        public Boolean visit(CAATPredicate predicate, Derivable value, Void unused) {
+            return false;
+        }
+
+        // ============================ Graphs =========================
+
+        @Override
+        public Boolean visitGraphUnion(RelationGraph graph, Derivable edge, Void unused) {
+            return graph.getDependencies().stream().anyMatch(g -> isDerivable(g, edge));
+        }
+
+        @Override
+        public Boolean visitGraphIntersection(RelationGraph graph, Derivable edge, Void unused) {
+            return graph.getDependencies().stream().allMatch(g -> isDerivable(g, edge));
+        }
+
+        @Override
+        public Boolean visitGraphComposition(RelationGraph graph, Derivable value, Void unused) {
+            Edge edge = (Edge) value;
+            RelationGraph first = (RelationGraph) graph.getDependencies().get(0);
+            RelationGraph second = (RelationGraph) graph.getDependencies().get(1);
+            for (Edge e1 : first.outEdges(edge.getFirst())) {
+                Edge e2 = new Edge(e1.getSecond(), edge.getSecond());
+                if (second.contains(e2) && isDerivable(first, e1) && isDerivable(second, e2)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Boolean visitCartesian(RelationGraph graph, Derivable value, Void unused) {
+            Edge edge = (Edge) value;
+            return isDerivable(graph.getDependencies().get(0), new Element(edge.getFirst()))
+                    && isDerivable(graph.getDependencies().get(1), new Element(edge.getSecond()));
+        }
+
+        @Override
+        public Boolean visitGraphDifference(RelationGraph graph, Derivable value, Void unused) {
+            Edge edge = (Edge) value;
+            CAATPredicate rhs = graph.getDependencies().get(1);
+            return isDerivable(graph.getDependencies().get(0), edge)
+                    && literals.contains(new EdgeLiteral(rhs.getName(), edge, true));
+        }
+
+        @Override
+        public Boolean visitInverse(RelationGraph graph, Derivable value, Void unused) {
+            return isDerivable(graph.getDependencies().get(0), ((Edge) value).inverse());
+        }
+
+        @Override
+        public Boolean visitSetIdentity(RelationGraph graph, Derivable value, Void unused) {
+            return isDerivable(graph.getDependencies().get(0), new Element(((Edge) value).getFirst()));
+        }
+
+        @Override
+        public Boolean visitRangeIdentity(RelationGraph graph, Derivable value, Void unused) {
+            RelationGraph inner = (RelationGraph) graph.getDependencies().get(0);
+            for (Edge inEdge : inner.inEdges(((Edge) value).getSecond())) {
+                if (isDerivable(inner, inEdge)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Boolean visitReflexiveClosure(RelationGraph graph, Derivable value, Void unused) {
+            Edge edge = (Edge) value;
+            return edge.isLoop() || isDerivable(graph.getDependencies().get(0), edge);
+        }
+
+        @Override
+        public Boolean visitTransitiveClosure(RelationGraph graph, Derivable value, Void unused) {
+            Edge edge = (Edge) value;
+            RelationGraph inner = (RelationGraph) graph.getDependencies().get(0);
+            Set<Integer> visited = new HashSet<>();
+            Deque<Integer> queue = new ArrayDeque<>();
+            queue.add(edge.getFirst());
+            while (!queue.isEmpty()) {
+                for (Edge next : inner.outEdges(queue.poll())) {
+                    if (!visited.contains(next.getSecond()) && isDerivable(inner, next)) {
+                        if (next.getSecond() == edge.getSecond()) {
+                            return true;
+                        }
+                        visited.add(next.getSecond());
+                        queue.add(next.getSecond());
+                    }
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Boolean visitRecursiveGraph(RelationGraph graph, Derivable edge, Void unused) {
+            return isDerivable(graph.getDependencies().get(0), edge);
+        }
+
+        @Override
+        public Boolean visitBaseGraph(RelationGraph graph, Derivable edge, Void unused) {
+            return literals.contains(new EdgeLiteral(graph.getName(), (Edge) edge, false));
+        }
+
+        // ============================ Sets =========================
+
+        @Override
+        public Boolean visitSetUnion(SetPredicate set, Derivable ele, Void unused) {
+            return set.getDependencies().stream().anyMatch(s -> isDerivable(s, ele));
+        }
+
+        @Override
+        public Boolean visitSetIntersection(SetPredicate set, Derivable ele, Void unused) {
+            return set.getDependencies().stream().allMatch(s -> isDerivable(s, ele));
+        }
+
+        @Override
+        public Boolean visitSetDifference(SetPredicate set, Derivable ele, Void unused) {
+            SetPredicate rhs = set.getDependencies().get(1);
+            return isDerivable(set.getDependencies().get(0), ele)
+                    && literals.contains(new ElementLiteral(rhs.getName(), (Element) ele, true));
+        }
+
+        @Override
+        public Boolean visitBaseSet(SetPredicate set, Derivable ele, Void unused) {
+            return literals.contains(new ElementLiteral(set.getName(), (Element) ele, false));
+        }
+    }
 }
@@ -6,6 +6,7 @@ import com.dat3m.dartagnan.solver.caat.constraints.AcyclicityConstraint;
 import com.dat3m.dartagnan.solver.caat.constraints.Constraint;
 import com.dat3m.dartagnan.solver.caat.constraints.EmptinessConstraint;
 import com.dat3m.dartagnan.solver.caat.constraints.IrreflexivityConstraint;
+import com.dat3m.dartagnan.solver.caat.predicates.CAATPredicate;
 import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.RelationGraph;
 import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.base.EmptyGraph;
 import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.derived.*;
@@ -22,10 +23,12 @@ import com.dat3m.dartagnan.wmm.axiom.Axiom;
 import com.dat3m.dartagnan.wmm.axiom.ForceEncodeAxiom;
 import com.dat3m.dartagnan.wmm.definition.*;
 import com.google.common.collect.BiMap;
+import com.google.common.collect.Collections2;
 import com.google.common.collect.HashBiMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
@@ -59,6 +62,8 @@ public class ExecutionGraph {
     private final BiMap<Relation, RelationGraph> relationGraphMap;
     private final BiMap<FilterAbstract, SetPredicate> filterSetMap;
     private final BiMap<Axiom, Constraint> constraintMap;
+    // Flagged axioms are not part of consistency, their constraints only get maintained to detect spec violations
+    private final BiMap<Axiom, Constraint> flaggedConstraintMap;
     private final Set<Relation> cutRelations;
 
     private CAATModel caatModel;
@@ -74,12 +79,16 @@ public class ExecutionGraph {
         relationGraphMap = HashBiMap.create();
         filterSetMap = HashBiMap.create();
         constraintMap = HashBiMap.create();
+        flaggedConstraintMap = HashBiMap.create();
         this.cutRelations = cutRelations;
         constructMappings(createOnlyAxiomRelevantGraphs);
     }
 
     public void initializeFromModel(ExecutionModel executionModel) {
-        domain = new EventDomain(executionModel);
+        // The domain only views the (live) event list of the model, so it can be kept as long as the model is the same.
+        if (domain == null || domain.getExecution() != executionModel) {
+            domain = new EventDomain(executionModel);
+        }
         caatModel.initializeToDomain(domain);
     }
 
@@ -88,7 +97,7 @@ public class ExecutionGraph {
     private void constructMappings(boolean createOnlyAxiomRelevantGraphs) {
         final Wmm memoryModel = verificationTask.getMemoryModel();
 
-        Set<RelationGraph> graphs = new HashSet<>();
+        Set<CAATPredicate> graphs = new HashSet<>();
         Set<Constraint> constraints = new HashSet<>();
         DependencyGraph<Relation> dependencyGraph = DependencyGraph.from(memoryModel.getRelations());
 
@@ -115,11 +124,17 @@ public class ExecutionGraph {
         }
 
         for (Axiom axiom : memoryModel.getAxioms()) {
-            if (axiom instanceof ForceEncodeAxiom || axiom.isFlagged()) {
+            if (axiom instanceof ForceEncodeAxiom) {
                 continue;
             }
-            Constraint constraint = getOrCreateConstraintFromAxiom(axiom);
-            constraints.add(constraint);
+            if (axiom.isFlagged()) {
+                Constraint constraint = createConstraintFromAxiom(axiom);
+                flaggedConstraintMap.put(axiom, constraint);
+                graphs.add(constraint.getConstrainedPredicate());
+            } else {
+                Constraint constraint = getOrCreateConstraintFromAxiom(axiom);
+                constraints.add(constraint);
+            }
         }
 
         if (!createOnlyAxiomRelevantGraphs) {
@@ -132,6 +147,11 @@ public class ExecutionGraph {
         }
 
         caatModel = CAATModel.from(graphs, constraints);
+        // The flagged constraints do not take part in the consistency check of the CAATModel,
+        // but they need to observe their predicates just like the other constraints.
+        for (Constraint constraint : flaggedConstraintMap.values()) {
+            caatModel.getHierarchy().addListener(constraint.getConstrainedPredicate(), constraint);
+        }
     }
 
     // =================================================
@@ -152,6 +172,10 @@ public class ExecutionGraph {
         return Maps.unmodifiableBiMap(constraintMap);
     }
 
+    public BiMap<Axiom, Constraint> getFlaggedAxiomConstraintMap() {
+        return Maps.unmodifiableBiMap(flaggedConstraintMap);
+    }
+
     public Set<Relation> getCutRelations() { return cutRelations; }
 
     public RelationGraph getRelationGraph(Relation rel) {
@@ -186,6 +210,22 @@ public class ExecutionGraph {
         return caatModel.checkInconsistency();
     }
 
+    // Returns the flagged axioms that report a specification violation in the current execution.
+    // CAUTION: Like for the eager encoding, a flagged axiom reports a violation if it is satisfied.
+    // Since the flagged constraint encodes the axiom without its negation,
+    // a negated axiom is satisfied if its constraint is violated (and vice versa).
+    public List<Axiom> getViolatedFlaggedAxioms() {
+        // Flagged axioms are not needed for consistency, so their predicates only get populated here
+        caatModel.populate(Collections2.transform(flaggedConstraintMap.values(), Constraint::getConstrainedPredicate));
+        List<Axiom> violated = new ArrayList<>();
+        flaggedConstraintMap.forEach((axiom, constraint) -> {
+            if (constraint.checkForViolations() == axiom.isNegated()) {
+                violated.add(axiom);
+            }
+        });
+        return violated;
+    }
+
     // =======================================================
 
     //=================== Reading the WMM ====================
@@ -195,6 +235,12 @@ public class ExecutionGraph {
             return constraintMap.get(axiom);
         }
 
+        Constraint constraint = createConstraintFromAxiom(axiom);
+        constraintMap.put(axiom, constraint);
+        return constraint;
+    }
+
+    private Constraint createConstraintFromAxiom(Axiom axiom) {
         Constraint constraint;
         RelationGraph innerGraph = getOrCreateGraphFromRelation(axiom.getRelation());
         if (axiom.isAcyclicity()) {
@@ -206,8 +252,6 @@ public class ExecutionGraph {
         } else {
             throw new UnsupportedOperationException("The axiom " + axiom + " is not recognized.");
         }
-
-        constraintMap.put(axiom, constraint);
         return constraint;
     }
 
@@ -0,0 +1,304 @@
+package com.dat3m.dartagnan.solver.caat4wmm;
+
+import com.dat3m.dartagnan.program.Thread;
+import com.dat3m.dartagnan.program.event.core.Event;
+import com.dat3m.dartagnan.program.event.core.Init;
+import com.dat3m.dartagnan.solver.caat4wmm.coreReasoning.*;
+import com.dat3m.dartagnan.utils.logic.Conjunction;
+import com.dat3m.dartagnan.utils.logic.DNF;
+import com.dat3m.dartagnan.verification.Context;
+import com.dat3m.dartagnan.verification.VerificationTask;
+import com.dat3m.dartagnan.wmm.Relation;
+import com.dat3m.dartagnan.wmm.analysis.RelationAnalysis;
+import com.dat3m.dartagnan.wmm.utils.Tuple;
+import com.google.common.hash.Hashing;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static com.dat3m.dartagnan.configuration.OptionNames.LEMMA_STORE;
+
+/*
+    Persists the core reasons learned by Refinement, so that later runs on the same program
+    (e.g. with a higher bound or other options) do not need to rediscover them.
+
+    Events are identified by keys that survive reprocessing: the thread, the id right before compilation (cId),
+    the occurrence among the events of the thread sharing that id (e.g. copies of loop iterations),
+    the line in the C program, as well as the type and tags of the event.
+    Init events are identified by the memory location they initialize.
+
+    A core reason is only valid w.r.t. the static knowledge it was derived from (see <CoreReasoner.Premise>),
+    so each lemma is stored together with its premises.
+    A stored lemma gets imported only if all its events exist and all its premises hold in the current run.
+    Since exec-literals of implied events get dropped from core reasons, the imported lemmas require
+    all of their events to be executed.
+
+    The store is only reused if it was created for the same memory model on the same architecture.
+    Otherwise, it gets overwritten.
+    Refinement saves the store when it finishes, also if it was aborted, since each lemma is valid on its own.
+ */
+@Options
+public class LemmaStore {
+
+    private static final Logger logger = LogManager.getLogger(LemmaStore.class);
+
+    private static final String FINGERPRINT = "fingerprint";
+    private static final String LEMMA = "lemma";
+    private static final String END = "end";
+    private static final String EXEC = "exec";
+    private static final String REL = "rel";
+    private static final String ADDR = "addr";
+    private static final String PREMISE = "premise";
+    private static final String MUST = "must";
+    private static final String MAY = "may";
+    private static final String ABSENT = "absent";
+
+    // =========================== Configurables ===========================
+
+    @Option(name = LEMMA_STORE,
+            description = "File in which Refinement stores the lemmas it learns. " +
+                    "Lemmas of previous runs found in this file are reused if they are applicable.",
+            secure = true)
+    private String storePath = "";
+
+    // =====================================================================
+
+    private final VerificationTask task;
+    private final RelationAnalysis ra;
+    private final Map<String, Relation> relations = new HashMap<>();
+    private final Map<Event, String> eventToKey = new HashMap<>();
+    private final Map<String, Event> keyToEvent = new HashMap<>();
+    private String fingerprint;
+    // Textual form of all stored lemmas, including those that are not applicable in this run.
+    private final Set<String> lemmas = new LinkedHashSet<>();
+    private int numImportedLemmas = 0;
+
+    private LemmaStore(VerificationTask task, Context analysisContext) {
+        this.task = task;
+        this.ra = analysisContext.requires(RelationAnalysis.class);
+    }
+
+    public static LemmaStore fromConfig(VerificationTask task, Context analysisContext, Configuration config)
+            throws InvalidConfigurationException {
+        LemmaStore store = new LemmaStore(task, analysisContext);
+        config.inject(store);
+        logger.info("{}: {}", LEMMA_STORE, store.storePath);
+        if (store.isEnabled()) {
+            store.initialize();
+        }
+        return store;
+    }
+
+    public boolean isEnabled() { return !storePath.isEmpty(); }
+
+    // ======================================== Import ==============================================
+
+    // Returns all stored reasons that are applicable to the current task.
+    public DNF<CoreLiteral> load() {
+        File file = new File(storePath);
+        if (!isEnabled() || !file.exists()) {
+            return DNF.FALSE();
+        }
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (lines.isEmpty() || !lines.get(0).equals(FINGERPRINT + "\t" + fingerprint)) {
+            logger.info("Lemma store {} was created for another memory model and will be overwritten.", storePath);
+            return DNF.FALSE();
+        }
+
+        List<Conjunction<CoreLiteral>> reasons = new ArrayList<>();
+        List<String> block = new ArrayList<>();
+        for (String line : lines.subList(1, lines.size())) {
+            if (line.equals(LEMMA)) {
+                block.clear();
+            } else if (line.equals(END)) {
+                lemmas.add(String.join("\n", block));
+                Conjunction<CoreLiteral> reason = toReason(block);
+                if (reason != null) {
+                    reasons.add(reason);
+                }
+            } else {
+                block.add(line);
+            }
+        }
+        numImportedLemmas = reasons.size();
+        logger.info("Imported {} of {} stored lemmas.", numImportedLemmas, lemmas.size());
+        return new DNF<>(reasons);
+    }
+
+    public int getNumImportedLemmas() { return numImportedLemmas; }
+
+    // Returns null if the lemma is not applicable.
+    private Conjunction<CoreLiteral> toReason(List<String> lemma) {
+        List<CoreLiteral> literals = new ArrayList<>();
+        Set<Event> events = new HashSet<>();
+        for (String line : lemma) {
+            String[] fields = line.split("\t");
+            switch (fields[0]) {
+                case EXEC: {
+                    Event e = keyToEvent.get(fields[2]);
+                    if (e == null) {
+                        return null;
+                    }
+                    events.add(e);
+                    literals.add(new ExecLiteral(e, fields[1].equals("-")));
+                    break;
+                }
+                case REL:
+                case ADDR: {
+                    Tuple tuple = toTuple(fields[fields.length - 2], fields[fields.length - 1]);
+                    if (tuple == null) {
+                        return null;
+                    }
+                    events.add(tuple.getFirst());
+                    events.add(tuple.getSecond());
+                    literals.add(fields[0].equals(REL) ? new RelLiteral(fields[1], tuple, fields[2].equals("-"))
+                            : new AddressLiteral(tuple, fields[1].equals("-")));
+                    break;
+                }
+                case PREMISE: {
+                    Relation rel = relations.get(fields[2]);
+                    Tuple tuple = toTuple(fields[3], fields[4]);
+                    if (rel == null || tuple == null) {
+                        return null;
+                    }
+                    RelationAnalysis.Knowledge k = ra.getKnowledge(rel);
+                    boolean holds = fields[1].equals(MUST) ? k.containsMust(tuple)
+                            : fields[1].equals(MAY) ? k.containsMay(tuple)
+                            : !k.containsMay(tuple);
+                    if (!holds) {
+                        return null;
+                    }
+                    events.add(tuple.getFirst());
+                    events.add(tuple.getSecond());
+                    break;
+                }
+                default:
+                    logger.warn("Skipping malformed lemma in store {}: {}", storePath, line);
+                    return null;
+            }
+        }
+        for (Event e : events) {
+            literals.add(new ExecLiteral(e));
+        }
+        return new Conjunction<>(literals);
+    }
+
+    private Tuple toTuple(String key1, String key2) {
+        Event e1 = keyToEvent.get(key1);
+        Event e2 = keyToEvent.get(key2);
+        return e1 == null || e2 == null ? null : new Tuple(e1, e2);
+    }
+
+    // ======================================== Export ==============================================
+
+    // Adds a reason learned during this run. Reasons over events without stable keys are not stored.
+    public void add(Conjunction<CoreLiteral> reason, Set<CoreReasoner.Premise> premises) {
+        if (!isEnabled() || premises == null) {
+            return;
+        }
+        List<String> lines = new ArrayList<>();
+        for (CoreLiteral lit : reason.getLiterals()) {
+            String sign = lit.isNegative() ? "-" : "+";
+            String line;
+            if (lit instanceof ExecLiteral) {
+                line = join(EXEC, sign, eventToKey.get(((ExecLiteral) lit).getData()));
+            } else if (lit instanceof RelLiteral) {
+                Tuple t = ((RelLiteral) lit).getData();
+                line = join(REL, lit.getName(), sign, eventToKey.get(t.getFirst()), eventToKey.get(t.getSecond()));
+            } else if (lit instanceof AddressLiteral) {
+                AddressLiteral addr = (AddressLiteral) lit;
+                line = join(ADDR, sign, eventToKey.get(addr.getFirst()), eventToKey.get(addr.getSecond()));
+            } else {
+                line = null;
+            }
+            if (line == null) {
+                return;
+            }
+            lines.add(line);
+        }
+        for (CoreReasoner.Premise p : premises) {
+            String knowledge = p.isMust() ? MUST : p.isMay() ? MAY : ABSENT;
+            String line = join(PREMISE, knowledge, p.getRelationName(),
+                    eventToKey.get(p.getEdge().getFirst()), eventToKey.get(p.getEdge().getSecond()));
+            if (line == null) {
+                return;
+            }
+            lines.add(line);
+        }
+        // Sorting makes equal lemmas have equal textual forms
+        Collections.sort(lines);
+        lemmas.add(String.join("\n", lines));
+    }
+
+    public void save() {
+        if (!isEnabled()) {
+            return;
+        }
+        StringBuilder content = new StringBuilder();
+        content.append(FINGERPRINT).append("\t").append(fingerprint).append("\n");
+        for (String lemma : lemmas) {
+            content.append(LEMMA).append("\n").append(lemma).append("\n").append(END).append("\n");
+        }
+        try {
+            File file = new File(storePath);
+            if (file.getParentFile() != null) {
+                file.getParentFile().mkdirs();
+            }
+            Files.writeString(file.toPath(), content, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        logger.info("Stored {} lemmas in {}", lemmas.size(), storePath);
+    }
+
+    // ======================================== Internals ==============================================
+
+    private void initialize() {
+        String arch = String.valueOf(task.getProgram().getArch());
+        fingerprint = Hashing.sha256().hashString(arch + "\n" + task.getMemoryModel(), StandardCharsets.UTF_8).toString();
+        for (Relation r : task.getMemoryModel().getRelations()) {
+            relations.put(r.getNameOrTerm(), r);
+        }
+        for (Thread thread : task.getProgram().getThreads()) {
+            Map<Integer, Integer> occurrences = new HashMap<>();
+            for (Event e : thread.getEvents()) {
+                String key;
+                if (e instanceof Init) {
+                    Init init = (Init) e;
+                    key = "init:" + init.getBase() + ":" + init.getOffset();
+                } else if (e.hasCId()) {
+                    int occurrence = occurrences.merge(e.getCId(), 1, Integer::sum) - 1;
+                    key = thread.getId() + ":" + e.getCId() + ":" + occurrence + ":" + e.getCLine() + ":"
+                            + e.getClass().getSimpleName() + ":"
+                            + e.getFilters().stream().sorted().collect(Collectors.joining(","));
+                } else {
+                    continue;
+                }
+                if (keyToEvent.putIfAbsent(key, e) == null) {
+                    eventToKey.put(e, key);
+                }
+            }
+        }
+    }
+
+    // Returns null if some field is missing.
+    private static String join(String... fields) {
+        return Arrays.asList(fields).contains(null) ? null : String.join("\t", fields);
+    }
+}
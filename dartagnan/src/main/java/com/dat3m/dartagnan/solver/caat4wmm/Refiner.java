@@ -12,6 +12,7 @@ import com.dat3m.dartagnan.solver.caat4wmm.coreReasoning.RelLiteral;
 import com.dat3m.dartagnan.utils.equivalence.EquivalenceClass;
 import com.dat3m.dartagnan.utils.logic.Conjunction;
 import com.dat3m.dartagnan.utils.logic.DNF;
+import com.dat3m.dartagnan.utils.logic.SubsumptionIndex;
 import com.dat3m.dartagnan.verification.Context;
 import com.dat3m.dartagnan.wmm.Relation;
 import org.sosy_lab.java_smt.api.BooleanFormula;
@@ -33,6 +34,8 @@ public class Refiner {
     private final ThreadSymmetry symm;
     private final List<Function<Event, Event>> symmPermutations;
     private final SymmetryLearning learningOption;
+    // All reasons refined so far. Reasons subsumed by them are redundant and do not get refined again.
+    private final SubsumptionIndex<CoreLiteral> refinedReasons = new SubsumptionIndex<>();
 
     public Refiner(Context analysisContext) {
         this.learningOption = REFINEMENT_SYMMETRY_LEARNING;
@@ -44,15 +47,18 @@ public class Refiner {
     // This method computes a refinement clause from a set of violations.
     // Furthermore, it computes symmetric violations if symmetry learning is enabled.
     public BooleanFormula refine(DNF<CoreLiteral> coreReasons, EncodingContext context) {
-        //TODO: A specialized algorithm that computes the orbit under permutation may be better,
-        // since most violations involve only few threads and hence the orbit is far smaller than the full
-        // set of permutations.
         HashSet<BooleanFormula> addedFormulas = new HashSet<>(); // To avoid adding duplicates
         BooleanFormulaManager bmgr = context.getBooleanFormulaManager();
         List<BooleanFormula> refinement = new ArrayList<>();
         // For each symmetry permutation, we will create refinement clauses
-        for (Function<Event, Event> perm : symmPermutations) {
-            for (Conjunction<CoreLiteral> reason : coreReasons.getCubes()) {
+        for (Conjunction<CoreLiteral> reason : coreReasons.getCubes()) {
+            if (refinedReasons.isSubsumed(reason)) {
+                continue;
+            }
+            refinedReasons.add(reason);
+            List<Function<Event, Event>> perms = learningOption == SymmetryLearning.FULL ?
+                    computeOrbitPermutations(reason) : symmPermutations;
+            for (Function<Event, Event> perm : perms) {
                 BooleanFormula permutedClause = bmgr.makeFalse();
                 for (CoreLiteral lit : reason.getLiterals()) {
                     BooleanFormula litFormula = permuteAndConvert(lit, perm, context);
@@ -100,9 +106,7 @@ public class Refiner {
                     }
                     break;
                 case FULL:
-                    List<Function<Event, Event>> allPerms = symm.createAllEventPermutations(c);
-                    allPerms.remove(Function.identity()); // We avoid adding multiple identities
-                    perms.addAll(allPerms);
+                    // The permutations depend on the reason (see computeOrbitPermutations)
                     break;
                 default:
                     throw new UnsupportedOperationException("Symmetry learning option: "
@@ -113,6 +117,68 @@ public class Refiner {
         return perms;
     }
 
+    // Computes permutations whose images of <reason> cover its orbit under the thread symmetry.
+    // Only threads that occur in <reason> get permuted: each of them is mapped injectively into its symmetry class.
+    // Thus a reason over k threads of a class with n threads yields n!/(n-k)! permutations instead of n!.
+    private List<Function<Event, Event>> computeOrbitPermutations(Conjunction<CoreLiteral> reason) {
+        Set<Thread> touchedThreads = new LinkedHashSet<>();
+        for (CoreLiteral lit : reason.getLiterals()) {
+            for (Event e : getEvents(lit)) {
+                if (symm.getEquivalenceClass(e.getThread()).size() > 1) {
+                    touchedThreads.add(e.getThread());
+                }
+            }
+        }
+        List<Thread> sources = new ArrayList<>(touchedThreads);
+        List<List<Thread>> targets = new ArrayList<>(sources.size());
+        for (Thread t : sources) {
+            List<Thread> symmThreads = new ArrayList<>(symm.getEquivalenceClass(t));
+            symmThreads.sort(Comparator.comparingInt(Thread::getId));
+            targets.add(symmThreads);
+        }
+
+        List<Function<Event, Event>> perms = new ArrayList<>();
+        computeOrbitPermutations(sources, targets, new Thread[sources.size()], new HashSet<>(), perms);
+        return perms;
+    }
+
+    private void computeOrbitPermutations(List<Thread> sources, List<List<Thread>> targets, Thread[] images,
+                                          Set<Thread> usedImages, List<Function<Event, Event>> perms) {
+        int index = usedImages.size();
+        if (index == sources.size()) {
+            Map<Thread, Thread> mapping = new HashMap<>();
+            for (int i = 0; i < images.length; i++) {
+                if (sources.get(i) != images[i]) {
+                    mapping.put(sources.get(i), images[i]);
+                }
+            }
+            perms.add(mapping.isEmpty() ? Function.identity() : e -> {
+                Thread target = mapping.get(e.getThread());
+                return target == null ? e : symm.map(e, target);
+            });
+            return;
+        }
+        for (Thread image : targets.get(index)) {
+            if (usedImages.add(image)) {
+                images[index] = image;
+                computeOrbitPermutations(sources, targets, images, usedImages, perms);
+                usedImages.remove(image);
+            }
+        }
+    }
+
+    private static List<Event> getEvents(CoreLiteral literal) {
+        if (literal instanceof ExecLiteral) {
+            return List.of(((ExecLiteral) literal).getData());
+        } else if (literal instanceof AddressLiteral) {
+            AddressLiteral loc = (AddressLiteral) literal;
+            return List.of(loc.getFirst(), loc.getSecond());
+        } else if (literal instanceof RelLiteral) {
+            RelLiteral lit = (RelLiteral) literal;
+            return List.of(lit.getData().getFirst(), lit.getData().getSecond());
+        }
+        throw new IllegalArgumentException("CoreLiteral " + literal.toString() + " is not supported");
+    }
 
     // Changes a reasoning <literal> based on a given permutation <perm> and translates the result
     // into a BooleanFormula for Refinement.
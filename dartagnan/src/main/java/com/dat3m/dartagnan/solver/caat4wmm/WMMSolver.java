@@ -3,6 +3,10 @@ package com.dat3m.dartagnan.solver.caat4wmm;
 
 import com.dat3m.dartagnan.encoding.EncodingContext;
 import com.dat3m.dartagnan.solver.caat.CAATSolver;
+import com.dat3m.dartagnan.solver.caat.constraints.AcyclicityConstraint;
+import com.dat3m.dartagnan.solver.caat.constraints.Constraint;
+import com.dat3m.dartagnan.solver.caat.predicates.CAATPredicate;
+import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.derived.CompositionGraph;
 import com.dat3m.dartagnan.solver.caat.reasoning.CAATLiteral;
 import com.dat3m.dartagnan.solver.caat4wmm.coreReasoning.CoreLiteral;
 import com.dat3m.dartagnan.solver.caat4wmm.coreReasoning.CoreReasoner;
@@ -13,12 +17,11 @@ import com.dat3m.dartagnan.verification.VerificationTask;
 import com.dat3m.dartagnan.verification.model.ExecutionModel;
 import com.dat3m.dartagnan.wmm.Relation;
 import com.dat3m.dartagnan.wmm.analysis.RelationAnalysis;
+import com.dat3m.dartagnan.wmm.axiom.Axiom;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.java_smt.api.Model;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
 /*
     This is our domain-specific bridging component that specializes the CAATSolver to the WMM setting.
@@ -29,6 +32,9 @@ public class WMMSolver {
     private final ExecutionModel executionModel;
     private final CAATSolver solver;
     private final CoreReasoner reasoner;
+    private boolean trackPremises = false;
+    private int maxReasons = 0;
+    private long extractTime;
 
     private WMMSolver(VerificationTask task, Context analysisContext, Set<Relation> cutRelations, ExecutionModel m) {
         analysisContext.requires(RelationAnalysis.class);
@@ -50,12 +56,48 @@ public class WMMSolver {
         return executionGraph;
     }
 
+    // If enabled, the results also provide the static knowledge each core reason relies on
+    // (see <CoreReasoner.Premise>).
+    public void setTrackPremises(boolean trackPremises) {
+        this.trackPremises = trackPremises;
+    }
+
+    // If enabled, acyclicity violations only report the cycle with the shortest derivation per SCC.
+    public void setOnlyShortestCycles(boolean value) {
+        for (Constraint constraint : executionGraph.getCAATModel().getConstraints()) {
+            if (constraint instanceof AcyclicityConstraint) {
+                ((AcyclicityConstraint) constraint).setOnlyShortestCycles(value);
+            }
+        }
+    }
+
+    // If enabled, literals that are not needed to derive a violation get removed from its reasons.
+    public void setMinimizeReasons(boolean value) { solver.getReasoner().setMinimizeReasons(value); }
+
+    // Limits the number of core reasons per check to the ones with the fewest literals (0 = unlimited).
+    public void setMaxReasons(int value) { this.maxReasons = value; }
+
+    // See <CAATSolver.setFirstViolationSuffices> and <CAATSolver.setParallelPopulation>.
+    public void setFirstViolationSuffices(boolean value) { solver.setFirstViolationSuffices(value); }
+    public void setParallelPopulation(boolean value) { solver.setParallelPopulation(value); }
+
     public Result check(Model model) {
-        // ============ Extract ExecutionModel ==============
+        initialize(model);
+        return check();
+    }
+
+    // Extracts the execution from <model>.
+    // Afterwards, the model is no longer needed and <check()> can be called, even from another thread.
+    public void initialize(Model model) {
         long curTime = System.currentTimeMillis();
         executionModel.initialize(model);
         executionGraph.initializeFromModel(executionModel);
-        long extractTime = System.currentTimeMillis() - curTime;
+        extractTime = System.currentTimeMillis() - curTime;
+    }
+
+    // Checks the consistency of the execution extracted by the last call to <initialize>.
+    public Result check() {
+        long curTime;
 
         // ============== Run the CAATSolver ==============
         CAATSolver.Result caatResult = solver.check(executionGraph.getCAATModel());
@@ -63,16 +105,46 @@ public class WMMSolver {
         Statistics stats = result.stats;
         stats.modelExtractionTime = extractTime;
         stats.modelSize = executionGraph.getDomain().size();
+        for (CAATPredicate pred : executionGraph.getCAATModel().getPredicates()) {
+            if (pred instanceof CompositionGraph) {
+                stats.numProbedCompositionEdges += ((CompositionGraph) pred).getNumProbedEdges();
+                stats.numProducedCompositionEdges += ((CompositionGraph) pred).getNumProducedEdges();
+            }
+        }
+
+        if (result.getStatus() == CAATSolver.Status.CONSISTENT) {
+            // Only consistent executions can witness violations of the CAT specification
+            result.violatedFlaggedAxioms.addAll(executionGraph.getViolatedFlaggedAxioms());
+        } else if (result.getStatus() == CAATSolver.Status.INCONSISTENT) {
+            Map<Constraint, Axiom> axiomMap = executionGraph.getAxiomConstraintMap().inverse();
+            for (Constraint constraint : caatResult.getViolatedConstraints()) {
+                // Some constraints do not stem from an axiom of the memory model
+                Axiom axiom = axiomMap.get(constraint);
+                if (axiom != null) {
+                    result.violatedAxioms.add(axiom);
+                }
+            }
 
-        if (result.getStatus() == CAATSolver.Status.INCONSISTENT) {
             // ============== Compute Core reasons ==============
             curTime = System.currentTimeMillis();
             List<Conjunction<CoreLiteral>> coreReasons = new ArrayList<>(caatResult.getBaseReasons().getNumberOfCubes());
             for (Conjunction<CAATLiteral> baseReason : caatResult.getBaseReasons().getCubes()) {
-                coreReasons.add(reasoner.toCoreReason(baseReason));
+                if (trackPremises) {
+                    Set<CoreReasoner.Premise> premises = new HashSet<>();
+                    Conjunction<CoreLiteral> coreReason = reasoner.toCoreReason(baseReason, premises);
+                    result.premises.putIfAbsent(coreReason, premises);
+                    coreReasons.add(coreReason);
+                } else {
+                    coreReasons.add(reasoner.toCoreReason(baseReason));
+                }
             }
             stats.numComputedCoreReasons = coreReasons.size();
             result.coreReasons = new DNF<>(coreReasons);
+            if (maxReasons > 0 && result.coreReasons.getNumberOfCubes() > maxReasons) {
+                List<Conjunction<CoreLiteral>> bestReasons = new ArrayList<>(result.coreReasons.getCubes());
+                bestReasons.sort(Comparator.comparingInt(Conjunction::getSize));
+                result.coreReasons = new DNF<>(bestReasons.subList(0, maxReasons));
+            }
             stats.numComputedReducedCoreReasons = result.coreReasons.getNumberOfCubes();
             stats.coreReasonComputationTime = System.currentTimeMillis() - curTime;
         }
@@ -86,10 +158,20 @@ public class WMMSolver {
     public static class Result {
         private CAATSolver.Status status;
         private DNF<CoreLiteral> coreReasons;
+        private final Set<Axiom> violatedAxioms = new HashSet<>();
+        private final Set<Axiom> violatedFlaggedAxioms = new HashSet<>();
+        private final Map<Conjunction<CoreLiteral>, Set<CoreReasoner.Premise>> premises = new HashMap<>();
         private Statistics stats;
 
         public CAATSolver.Status getStatus() { return status; }
         public DNF<CoreLiteral> getCoreReasons() { return coreReasons; }
+        public Set<Axiom> getViolatedAxioms() { return violatedAxioms; }
+        // Only available for consistent executions
+        public Set<Axiom> getViolatedFlaggedAxioms() { return violatedFlaggedAxioms; }
+        // Only available if premise tracking is enabled
+        public Set<CoreReasoner.Premise> getPremises(Conjunction<CoreLiteral> coreReason) {
+            return premises.get(coreReason);
+        }
         public Statistics getStatistics() { return stats; }
 
         Result() {
@@ -121,6 +203,8 @@ public class WMMSolver {
         int modelSize;
         int numComputedCoreReasons;
         int numComputedReducedCoreReasons;
+        long numProbedCompositionEdges;
+        long numProducedCompositionEdges;
 
         public long getModelExtractionTime() { return modelExtractionTime; }
         public long getPopulationTime() { return caatStats.getPopulationTime(); }
@@ -132,6 +216,9 @@ public class WMMSolver {
         public int getNumComputedReducedBaseReasons() { return caatStats.getNumComputedReducedReasons(); }
         public int getNumComputedCoreReasons() { return numComputedCoreReasons; }
         public int getNumComputedReducedCoreReasons() { return numComputedReducedCoreReasons; }
+        // Edges visited/added while joining the operands of compositions (see <CompositionGraph>)
+        public long getNumProbedCompositionEdges() { return numProbedCompositionEdges; }
+        public long getNumProducedCompositionEdges() { return numProducedCompositionEdges; }
 
         public String toString() {
             StringBuilder str = new StringBuilder();
@@ -145,6 +232,8 @@ public class WMMSolver {
                     .append("/").append(getNumComputedCoreReasons()).append("\n");
             str.append("#Computed reduced reasons (base/core): ").append(getNumComputedReducedBaseReasons())
                     .append("/").append(getNumComputedReducedCoreReasons()).append("\n");
+            str.append("#Composition edges (probed/produced): ").append(getNumProbedCompositionEdges())
+                    .append("/").append(getNumProducedCompositionEdges()).append("\n");
             return str.toString();
         }
     }
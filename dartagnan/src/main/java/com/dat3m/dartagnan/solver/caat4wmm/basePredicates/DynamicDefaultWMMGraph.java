@@ -1,6 +1,7 @@
 package com.dat3m.dartagnan.solver.caat4wmm.basePredicates;
 
 import com.dat3m.dartagnan.encoding.EncodingContext;
+import com.dat3m.dartagnan.solver.caat.domain.Domain;
 import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.Edge;
 import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.RelationGraph;
 import com.dat3m.dartagnan.verification.model.EventData;
@@ -9,6 +10,7 @@ import com.dat3m.dartagnan.wmm.analysis.RelationAnalysis;
 import com.dat3m.dartagnan.wmm.utils.Tuple;
 import org.sosy_lab.java_smt.api.Model;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -17,6 +19,7 @@ import java.util.Optional;
 // A default implementation for any encoded relation, e.g. base relations or non-base but cut relations.
 public class DynamicDefaultWMMGraph extends MaterializedWMMGraph {
     private final String name;
+    private final List<Edge> modelEdges = new ArrayList<>();
 
     public DynamicDefaultWMMGraph(String n) {
         name = n;
@@ -28,9 +31,12 @@ public class DynamicDefaultWMMGraph extends MaterializedWMMGraph {
     }
 
     @Override
-    public void repopulate() {
-        // Careful: The wrapped model <getModel> might get closed/disposed while ExecutionModel as a whole is
-        // still in use. The caller should make sure that the underlying model is still alive right now.
+    public void initializeToDomain(Domain<?> domain) {
+        super.initializeToDomain(domain);
+        // The edges are read from the model right away, because the wrapped model <getModel> might get
+        // closed/disposed before the graph gets populated (e.g. if the execution gets checked on another thread).
+        // The caller should make sure that the underlying model is still alive right now.
+        modelEdges.clear();
         Model m = model.getModel();
         EncodingContext ctx = model.getContext();
         Relation relation = ctx.getTask().getMemoryModel().getRelation(name);
@@ -40,19 +46,24 @@ public class DynamicDefaultWMMGraph extends MaterializedWMMGraph {
         if (k.getMaySet().size() < domain.size() * domain.size()) {
             k.getMaySet()
                     .stream().map(t -> this.getEdgeFromTuple(t, m, edge)).filter(Objects::nonNull)
-                    .forEach(simpleGraph::add);
+                    .forEach(modelEdges::add);
         } else {
             for (EventData e1 : model.getEventList()) {
                 for (EventData e2 : model.getEventList()) {
                     Edge e = getEdgeFromEventData(e1, e2, m, edge);
                     if (e != null) {
-                        simpleGraph.add(e);
+                        modelEdges.add(e);
                     }
                 }
             }
         }
     }
 
+    @Override
+    public void repopulate() {
+        modelEdges.forEach(simpleGraph::add);
+    }
+
     private Edge getEdgeFromEventData(EventData e1, EventData e2, Model m, EncodingContext.EdgeEncoder edge) {
         return m.evaluate(edge.encode(e1.getEvent(), e2.getEvent())) == Boolean.TRUE
                 ? new Edge(e1.getId(), e2.getId()) : null;
@@ -18,10 +18,7 @@ import com.dat3m.dartagnan.wmm.analysis.RelationAnalysis;
 import com.dat3m.dartagnan.wmm.definition.Fences;
 import com.dat3m.dartagnan.wmm.utils.Tuple;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 import static com.dat3m.dartagnan.wmm.relation.RelationNameRepository.*;
 
@@ -32,6 +29,10 @@ public class CoreReasoner {
     private final ExecutionAnalysis exec;
     private final RelationAnalysis ra;
     private final Map<String, Relation> termMap = new HashMap<>();
+    // Base literals keep reappearing in the reasons of later iterations, so their translations get reused.
+    private final Map<String, RelationTranslations> translationCache = new HashMap<>();
+    private final Map<Event, ExecLiteral> posExecLiterals = new HashMap<>();
+    private final Map<Event, ExecLiteral> negExecLiterals = new HashMap<>();
 
     public CoreReasoner(VerificationTask task, Context analysisContext, ExecutionGraph executionGraph) {
         this.executionGraph = executionGraph;
@@ -44,6 +45,13 @@ public class CoreReasoner {
 
 
     public Conjunction<CoreLiteral> toCoreReason(Conjunction<CAATLiteral> baseReason) {
+        return toCoreReason(baseReason, null);
+    }
+
+    // Same as above, but additionally collects into <premises> the static knowledge the core reason relies on.
+    // Statically present/absent edges do not show up as literals, so the core reason is only
+    // valid in contexts where this knowledge holds as well.
+    public Conjunction<CoreLiteral> toCoreReason(Conjunction<CAATLiteral> baseReason, Collection<Premise> premises) {
 
         EventDomain domain = executionGraph.getDomain();
 
@@ -52,44 +60,22 @@ public class CoreReasoner {
             if (lit instanceof ElementLiteral) {
                 Event e = domain.getObjectById(((ElementLiteral) lit).getElement().getId()).getEvent();
                 // We only have static tags, so all of them reduce to execution literals
-                coreReason.add(new ExecLiteral(e, lit.isNegative()));
+                coreReason.add(getExecLiteral(e, lit.isNegative()));
             } else {
 
                 EdgeLiteral edgeLit = (EdgeLiteral) lit;
                 Edge edge = edgeLit.getEdge();
+                RelationTranslations translations = getTranslations(lit.getName());
                 Event e1 = domain.getObjectById(edge.getFirst()).getEvent();
                 Event e2 = domain.getObjectById(edge.getSecond()).getEvent();
-                Tuple tuple = new Tuple(e1, e2);
-                Relation rel = termMap.get(lit.getName());
-
-                if (lit.isPositive() && ra.getKnowledge(rel).containsMust(tuple)) {
-                    // Statically present edges
-                    addExecReason(tuple, coreReason);
-                } else if (lit.isNegative() && !ra.getKnowledge(rel).containsMay(tuple)) {
-                    // Statically absent edges
-                } else {
-                    String name = rel.getNameOrTerm();
-                    if (name.equals(RF) || name.equals(CO)
-                            || executionGraph.getCutRelations().contains(rel)) {
-                        coreReason.add(new RelLiteral(name, tuple, lit.isNegative()));
-                    } else if (name.equals(LOC)) {
-                        coreReason.add(new AddressLiteral(tuple, lit.isNegative()));
-                    } else if (rel.getDefinition() instanceof Fences) {
-                        // This is a special case since "fencerel(F) = po;[F];po".
-                        // We should do this transformation directly on the Wmm to avoid this special reasoning
-                        if (lit.isNegative()) {
-                            throw new UnsupportedOperationException(String.format("FenceRel %s is not allowed on the rhs of differences.", rel));
-                        }
-                        addFenceReason(rel, edge, coreReason);
-                    } else {
-                        //TODO: Right now, we assume many relations like Data, Ctrl and Addr to be
-                        // static.
-                        if (lit.isNegative()) {
-                            // TODO: Support negated literals
-                            throw new UnsupportedOperationException(String.format("Negated literals of type %s are not supported.", rel));
-                        }
-                        addExecReason(tuple, coreReason);
-                    }
+                EdgeTranslation translation = translations.get(e1, e2, lit.isNegative());
+                if (translation.isFenceReason()) {
+                    addFenceReason(translations.relation, edge, coreReason, premises);
+                    continue;
+                }
+                coreReason.addAll(translation.literals);
+                if (premises != null && translation.premise != null) {
+                    premises.add(translation.premise);
                 }
             }
         }
@@ -98,6 +84,97 @@ public class CoreReasoner {
         return new Conjunction<>(coreReason);
     }
 
+    // ======================================== Translation ==============================================
+
+    // Translates an edge literal of <rel>.
+    // This only depends on static knowledge (and not on the current execution), except for the reasons of fences.
+    private EdgeTranslation translate(Relation rel, Event e1, Event e2, boolean isNegative) {
+        Tuple tuple = new Tuple(e1, e2);
+        String name = rel.getNameOrTerm();
+        RelationAnalysis.Knowledge k = ra.getKnowledge(rel);
+        List<CoreLiteral> literals = new ArrayList<>(2);
+        // The static knowledge the translation relies on
+        Premise premise = new Premise(name, tuple, k.containsMust(tuple), k.containsMay(tuple));
+
+        if (!isNegative && premise.isMust()) {
+            // Statically present edges
+            addExecReason(tuple, literals);
+        } else if (isNegative && !premise.isMay()) {
+            // Statically absent edges
+        } else {
+            if (name.equals(RF) || name.equals(CO)
+                    || executionGraph.getCutRelations().contains(rel)) {
+                literals.add(new RelLiteral(name, tuple, isNegative));
+                premise = null;
+            } else if (name.equals(LOC)) {
+                literals.add(new AddressLiteral(tuple, isNegative));
+                premise = null;
+            } else if (rel.getDefinition() instanceof Fences) {
+                // This is a special case since "fencerel(F) = po;[F];po".
+                // We should do this transformation directly on the Wmm to avoid this special reasoning
+                if (isNegative) {
+                    throw new UnsupportedOperationException(String.format("FenceRel %s is not allowed on the rhs of differences.", rel));
+                }
+                // The fence in-between depends on the execution
+                literals = null;
+                premise = null;
+            } else {
+                //TODO: Right now, we assume many relations like Data, Ctrl and Addr to be
+                // static.
+                if (isNegative) {
+                    // TODO: Support negated literals
+                    throw new UnsupportedOperationException(String.format("Negated literals of type %s are not supported.", rel));
+                }
+                addExecReason(tuple, literals);
+            }
+        }
+        return new EdgeTranslation(literals, premise);
+    }
+
+    private RelationTranslations getTranslations(String name) {
+        return translationCache.computeIfAbsent(name, n -> new RelationTranslations(termMap.get(n)));
+    }
+
+    private ExecLiteral getExecLiteral(Event e, boolean isNegative) {
+        return (isNegative ? negExecLiterals : posExecLiterals).computeIfAbsent(e, ev -> new ExecLiteral(ev, isNegative));
+    }
+
+    // The translations of the edge literals of a single relation, indexed by the global ids of their events.
+    private final class RelationTranslations {
+        private final Relation relation;
+        private final Map<Long, EdgeTranslation> positive = new HashMap<>();
+        private final Map<Long, EdgeTranslation> negative = new HashMap<>();
+
+        private RelationTranslations(Relation relation) {
+            this.relation = relation;
+        }
+
+        private EdgeTranslation get(Event e1, Event e2, boolean isNegative) {
+            long key = ((long) e1.getGlobalId() << 32) | (e2.getGlobalId() & 0xFFFFFFFFL);
+            Map<Long, EdgeTranslation> translations = isNegative ? negative : positive;
+            EdgeTranslation translation = translations.get(key);
+            if (translation == null) {
+                translation = translate(relation, e1, e2, isNegative);
+                translations.put(key, translation);
+            }
+            return translation;
+        }
+    }
+
+    // The core literals and the premise (if any) an edge literal translates to.
+    // Literals of fences are missing, because they depend on the execution (see <addFenceReason>).
+    private static final class EdgeTranslation {
+        private final List<CoreLiteral> literals;
+        private final Premise premise;
+
+        private EdgeTranslation(List<CoreLiteral> literals, Premise premise) {
+            this.literals = literals;
+            this.premise = premise;
+        }
+
+        private boolean isFenceReason() { return literals == null; }
+    }
+
     private void minimize(List<CoreLiteral> reason) {
         //TODO: Make sure that his is correct for exclusive events
         // Their execution variable can only be removed if it is contained in some
@@ -127,28 +204,78 @@ public class CoreReasoner {
         }
 
         if (exec.isImplied(e1, e2)) {
-            coreReasons.add(new ExecLiteral(e1));
+            coreReasons.add(getExecLiteral(e1, false));
         } else if (exec.isImplied(e2, e1)) {
-            coreReasons.add(new ExecLiteral(e2));
+            coreReasons.add(getExecLiteral(e2, false));
         } else {
-            coreReasons.add(new ExecLiteral(e1));
-            coreReasons.add(new ExecLiteral(e2));
+            coreReasons.add(getExecLiteral(e1, false));
+            coreReasons.add(getExecLiteral(e2, false));
         }
     }
 
-    private void addFenceReason(Relation rel, Edge edge, List<CoreLiteral> coreReasons) {
+    private void addFenceReason(Relation rel, Edge edge, List<CoreLiteral> coreReasons, Collection<Premise> premises) {
         FenceGraph fenceGraph = (FenceGraph) executionGraph.getRelationGraph(rel);
         EventDomain domain = executionGraph.getDomain();
         EventData e1 = domain.getObjectById(edge.getFirst());
         EventData e2 = domain.getObjectById(edge.getSecond());
         EventData f = fenceGraph.getNextFence(e1);
 
-        coreReasons.add(new ExecLiteral(f.getEvent()));
+        coreReasons.add(getExecLiteral(f.getEvent(), false));
         if (!exec.isImplied(f.getEvent(), e1.getEvent())) {
-            coreReasons.add(new ExecLiteral(e1.getEvent()));
+            coreReasons.add(getExecLiteral(e1.getEvent(), false));
         }
         if (!exec.isImplied(f.getEvent(), e2.getEvent())) {
-            coreReasons.add(new ExecLiteral(e2.getEvent()));
+            coreReasons.add(getExecLiteral(e2.getEvent(), false));
+        }
+        if (premises != null) {
+            // The fence needs to be in-between both events
+            premises.add(new Premise(PO, new Tuple(e1.getEvent(), f.getEvent()), true, true));
+            premises.add(new Premise(PO, new Tuple(f.getEvent(), e2.getEvent()), true, true));
+        }
+    }
+
+    // ======================================== Premises ==============================================
+
+    // Static knowledge about an edge of some relation: it is either statically present (must),
+    // statically absent (not may), or assumed to be present whenever both its events execute (may, but not must).
+    public static final class Premise {
+        private final String relationName;
+        private final Tuple edge;
+        private final boolean must;
+        private final boolean may;
+
+        public Premise(String relationName, Tuple edge, boolean must, boolean may) {
+            this.relationName = relationName;
+            this.edge = edge;
+            this.must = must;
+            this.may = may;
+        }
+
+        public String getRelationName() { return relationName; }
+        public Tuple getEdge() { return edge; }
+        public boolean isMust() { return must; }
+        public boolean isMay() { return may; }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(relationName, edge, must, may);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            } else if (!(obj instanceof Premise)) {
+                return false;
+            }
+            Premise other = (Premise) obj;
+            return relationName.equals(other.relationName) && edge.equals(other.edge)
+                    && must == other.must && may == other.may;
+        }
+
+        @Override
+        public String toString() {
+            return (must ? "must " : may ? "may " : "absent ") + relationName + edge;
         }
     }
 }
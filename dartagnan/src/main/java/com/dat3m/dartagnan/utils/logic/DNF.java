@@ -86,23 +86,20 @@ public class DNF<T extends Literal<T>> implements PartialOrder<DNF<T>> {
     }
 
     // Keeps the DNF minimal (without self-subsumption or any other advanced techniques)
+    // Cubes are visited by increasing size, so a cube can only be dominated by the cubes visited before it.
     private void reduce() {
-        for (Iterator<Conjunction<T>> it = reasons.iterator(); it.hasNext(); ) {
-            Conjunction<T> cube = it.next();
-            if (cube.isFalse()) {
-                it.remove();
-                continue;
-            } // We could also shortcut when finding a true cube
-
-            boolean isDominated = false;
-            for (Conjunction<T> cube2 : reasons) {
-                if (cube.compareToPartial(cube2) == OrderResult.GT) {
-                    isDominated = true;
-                    break;
-                }
-            }
-            if (isDominated) {
-                it.remove();
+        reasons.removeIf(Conjunction::isFalse);
+        if (reasons.size() < 2) {
+            return;
+        }
+        List<Conjunction<T>> cubes = new ArrayList<>(reasons);
+        cubes.sort(Comparator.comparingInt(Conjunction::getSize));
+        SubsumptionIndex<T> minimalCubes = new SubsumptionIndex<>();
+        for (Conjunction<T> cube : cubes) {
+            if (minimalCubes.isSubsumed(cube)) {
+                reasons.remove(cube);
+            } else {
+                minimalCubes.add(cube);
             }
         }
     }
@@ -0,0 +1,55 @@
+package com.dat3m.dartagnan.utils.logic;
+
+import com.google.common.base.Preconditions;
+
+import java.util.*;
+
+// A growing set of cubes that can efficiently decide whether a cube is subsumed by (i.e. is a superset of)
+// one of its cubes.
+// Each literal points to the cubes containing it, so a query only visits the cubes that share literals
+// with the queried cube, rather than comparing it to all cubes.
+public class SubsumptionIndex<T extends Literal<T>> {
+
+    private final Map<T, List<Conjunction<T>>> occurrences = new HashMap<>();
+    private final Set<Conjunction<T>> cubes = new HashSet<>();
+    private boolean containsTrue = false;
+
+    // This set should never be modified
+    public Set<Conjunction<T>> getCubes() {
+        return Collections.unmodifiableSet(cubes);
+    }
+
+    public int size() {
+        return cubes.size();
+    }
+
+    public void add(Conjunction<T> cube) {
+        Preconditions.checkArgument(!cube.isFalse(), "Cannot index the false cube.");
+        if (!cubes.add(cube)) {
+            return;
+        }
+        if (cube.isTrue()) {
+            containsTrue = true;
+        }
+        for (T lit : cube.getLiterals()) {
+            occurrences.computeIfAbsent(lit, k -> new ArrayList<>()).add(cube);
+        }
+    }
+
+    // Returns true if some cube of this index contains only literals of <cube> (this includes <cube> itself).
+    public boolean isSubsumed(Conjunction<T> cube) {
+        if (containsTrue || cubes.contains(cube)) {
+            return true;
+        }
+        // Counts for each cube how many of its literals occur in <cube>
+        Map<Conjunction<T>, Integer> hits = new IdentityHashMap<>();
+        for (T lit : cube.getLiterals()) {
+            for (Conjunction<T> other : occurrences.getOrDefault(lit, List.of())) {
+                if (hits.merge(other, 1, Integer::sum) == other.getSize()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -54,16 +54,29 @@ public class AssumeSolver extends ModelChecker {
         WmmEncoder wmmEncoder = WmmEncoder.withContext(context);
         SymmetryEncoder symmetryEncoder = SymmetryEncoder.withContext(context);
 
-        logger.info("Starting encoding using " + ctx.getVersion());
-        prover.addConstraint(programEncoder.encodeFullProgram());
-        prover.addConstraint(wmmEncoder.encodeFullMemoryModel());
-        // For validation this contains information.
-        // For verification graph.encode() just returns ctx.mkTrue()
-        prover.addConstraint(task.getWitness().encode(context));
-        prover.addConstraint(symmetryEncoder.encodeFullSymmetryBreaking());
-
         BooleanFormulaManager bmgr = ctx.getFormulaManager().getBooleanFormulaManager();
         BooleanFormula assumptionLiteral = bmgr.makeVariable("DAT3M_spec_assumption");
+
+        logger.info("Starting encoding using " + ctx.getVersion());
+        ProverSink proverSink = ProverSink.fromConfig(context.getBooleanFormulaManager(), config, prover);
+        try (SMTLib2Exporter exporter = SMTLib2Exporter.fromConfig(ctx.getFormulaManager(), config)) {
+            ConstraintSink sink = exporter.attachTo(proverSink);
+            programEncoder.encodeFullProgram(sink);
+            wmmEncoder.encodeFullMemoryModel(sink);
+            // For validation this contains information.
+            // For verification graph.encode() just returns ctx.mkTrue()
+            sink.add(task.getWitness().encode(context));
+            symmetryEncoder.encodeFullSymmetryBreaking(sink);
+            proverSink.flush();
+            if (exporter.isEnabled()) {
+                exporter.exportAssumedPropertyCheck(propertyEncoder, task.getProperty(), assumptionLiteral);
+                if (exporter.isExportOnly()) {
+                    logger.info("Verification stopped after exporting the query");
+                    return;
+                }
+            }
+        }
+
         BooleanFormula propertyEncoding = propertyEncoder.encodeProperties(task.getProperty());
         BooleanFormula assumedSpec = bmgr.implication(assumptionLiteral, propertyEncoding);
         prover.addConstraint(assumedSpec);
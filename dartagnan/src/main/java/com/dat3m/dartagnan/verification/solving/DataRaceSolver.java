@@ -59,9 +59,11 @@ public class DataRaceSolver extends ModelChecker {
 		SymmetryEncoder symmetryEncoder = SymmetryEncoder.withContext(context);
 
         logger.info("Starting encoding using " + ctx.getVersion());
-		prover.addConstraint(programEncoder.encodeFullProgram());
-		prover.addConstraint(wmmEncoder.encodeFullMemoryModel());
-		prover.addConstraint(symmetryEncoder.encodeFullSymmetryBreaking());
+		ProverSink sink = ProverSink.fromConfig(context.getBooleanFormulaManager(), config, prover);
+		programEncoder.encodeFullProgram(sink);
+		wmmEncoder.encodeFullMemoryModel(sink);
+		symmetryEncoder.encodeFullSymmetryBreaking(sink);
+		sink.flush();
 		prover.push();
 
 		prover.addConstraint(propertyEncoder.encodeProperties(EnumSet.of(Property.DATARACEFREEDOM)));
@@ -54,12 +54,24 @@ public class IncrementalSolver extends ModelChecker {
         SymmetryEncoder symmetryEncoder = SymmetryEncoder.withContext(context);
 
         logger.info("Starting encoding using " + ctx.getVersion());
-        prover.addConstraint(programEncoder.encodeFullProgram());
-        prover.addConstraint(wmmEncoder.encodeFullMemoryModel());
-        // For validation this contains information.
-        // For verification graph.encode() just returns ctx.mkTrue()
-        prover.addConstraint(task.getWitness().encode(context));
-        prover.addConstraint(symmetryEncoder.encodeFullSymmetryBreaking());
+        ProverSink proverSink = ProverSink.fromConfig(context.getBooleanFormulaManager(), config, prover);
+        try (SMTLib2Exporter exporter = SMTLib2Exporter.fromConfig(ctx.getFormulaManager(), config)) {
+            ConstraintSink sink = exporter.attachTo(proverSink);
+            programEncoder.encodeFullProgram(sink);
+            wmmEncoder.encodeFullMemoryModel(sink);
+            // For validation this contains information.
+            // For verification graph.encode() just returns ctx.mkTrue()
+            sink.add(task.getWitness().encode(context));
+            symmetryEncoder.encodeFullSymmetryBreaking(sink);
+            proverSink.flush();
+            if (exporter.isEnabled()) {
+                exporter.exportScopedPropertyCheck(propertyEncoder, task.getProperty());
+                if (exporter.isExportOnly()) {
+                    logger.info("Verification stopped after exporting the query");
+                    return;
+                }
+            }
+        }
         logger.info("Starting push()");
         prover.push();
         prover.addConstraint(propertyEncoder.encodeProperties(task.getProperty()));
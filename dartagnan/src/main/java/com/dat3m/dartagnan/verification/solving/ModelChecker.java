@@ -11,6 +11,7 @@ import com.dat3m.dartagnan.program.analysis.alias.AliasAnalysis;
 import com.dat3m.dartagnan.program.event.core.Event;
 import com.dat3m.dartagnan.program.event.core.Local;
 import com.dat3m.dartagnan.program.processing.ProcessingManager;
+import com.dat3m.dartagnan.program.processing.UnreadInitElimination;
 import com.dat3m.dartagnan.program.specification.AbstractAssert;
 import com.dat3m.dartagnan.program.specification.AssertCompositeAnd;
 import com.dat3m.dartagnan.program.specification.AssertInline;
@@ -93,10 +94,13 @@ public abstract class ModelChecker {
      */
     public static void performStaticProgramAnalyses(VerificationTask task, Context analysisContext, Configuration config) throws InvalidConfigurationException {
         Program program = task.getProgram();
+        analysisContext.register(AliasAnalysis.class, AliasAnalysis.fromConfig(program, config));
+        // Removing unread Init events needs the alias analysis and must happen before any other analysis
+        UnreadInitElimination.fromConfig(analysisContext, config).run(program);
         analysisContext.register(BranchEquivalence.class, BranchEquivalence.fromConfig(program, config));
         analysisContext.register(ExecutionAnalysis.class, ExecutionAnalysis.fromConfig(program, analysisContext, config));
         analysisContext.register(Dependency.class, Dependency.fromConfig(program, analysisContext, config));
-        analysisContext.register(AliasAnalysis.class, AliasAnalysis.fromConfig(program, config));
+        analysisContext.register(BitWidthAnalysis.class, BitWidthAnalysis.fromConfig(program, analysisContext, config));
         analysisContext.register(ThreadSymmetry.class, ThreadSymmetry.fromConfig(program, config));
         for(Thread thread : program.getThreads()) {
             for(Event e : thread.getEvents()) {
@@ -144,28 +148,34 @@ public abstract class ModelChecker {
         final SyntacticContextAnalysis synContext = newInstance(program);
         for(Axiom ax : wmm.getAxioms()) {
             if(ax.isFlagged() && FALSE.equals(model.evaluate(CAT_SPEC.getSMTVariable(ax, ctx)))) {
-                StringBuilder violatingPairs = new StringBuilder("Flag " + Optional.ofNullable(ax.getName()).orElse(ax.getRelation().getNameOrTerm())).append("\n");
-                for(Tuple tuple : encoder.getTuples(ax.getRelation(), model)) {
-                    final String callSeparator = " -> ";
-                    final String callStackFirst = makeContextString(
-                            synContext.getContextInfo(tuple.getFirst()).getContextOfType(CallContext.class),
-                            callSeparator);
-                    final String callStackSecond = makeContextString(
-                            synContext.getContextInfo(tuple.getSecond()).getContextOfType(CallContext.class),
-                            callSeparator);
-
-                    violatingPairs
-                        .append("\tE").append(tuple.getFirst().getGlobalId())
-                        .append(" / E").append(tuple.getSecond().getGlobalId())
-                        .append("\t").append(callStackFirst).append(callStackFirst.isEmpty() ? "" : callSeparator)
-                        .append(getSourceLocationString(tuple.getFirst()))
-                        .append(" / ").append(callStackSecond).append(callStackSecond.isEmpty() ? "" : callSeparator)
-                        .append(getSourceLocationString(tuple.getSecond()))
-                        .append("\n");
-                }
-                flaggedPairsOutput += violatingPairs.toString();
+                saveFlaggedPairsOutput(ax, encoder.getTuples(ax.getRelation(), model), synContext);
             }
         }
     }
 
+    // Used by solvers that do not encode the flagged axioms (see RefinementSolver)
+    // and thus have to provide the tuples of the violated axiom themselves.
+    protected void saveFlaggedPairsOutput(Axiom ax, Iterable<Tuple> tuples, SyntacticContextAnalysis synContext) {
+        StringBuilder violatingPairs = new StringBuilder("Flag " + Optional.ofNullable(ax.getName()).orElse(ax.getRelation().getNameOrTerm())).append("\n");
+        for(Tuple tuple : tuples) {
+            final String callSeparator = " -> ";
+            final String callStackFirst = makeContextString(
+                    synContext.getContextInfo(tuple.getFirst()).getContextOfType(CallContext.class),
+                    callSeparator);
+            final String callStackSecond = makeContextString(
+                    synContext.getContextInfo(tuple.getSecond()).getContextOfType(CallContext.class),
+                    callSeparator);
+
+            violatingPairs
+                .append("\tE").append(tuple.getFirst().getGlobalId())
+                .append(" / E").append(tuple.getSecond().getGlobalId())
+                .append("\t").append(callStackFirst).append(callStackFirst.isEmpty() ? "" : callSeparator)
+                .append(getSourceLocationString(tuple.getFirst()))
+                .append(" / ").append(callStackSecond).append(callStackSecond.isEmpty() ? "" : callSeparator)
+                .append(getSourceLocationString(tuple.getSecond()))
+                .append("\n");
+        }
+        flaggedPairsOutput += violatingPairs.toString();
+    }
+
 }
@@ -8,10 +8,15 @@ import com.dat3m.dartagnan.program.Thread;
 import com.dat3m.dartagnan.program.analysis.BranchEquivalence;
 import com.dat3m.dartagnan.program.analysis.SyntacticContextAnalysis;
 import com.dat3m.dartagnan.program.analysis.ThreadSymmetry;
+import com.dat3m.dartagnan.program.analysis.alias.AliasAnalysis;
+import com.dat3m.dartagnan.program.event.Tag;
 import com.dat3m.dartagnan.program.event.core.Event;
 import com.dat3m.dartagnan.program.event.core.MemEvent;
 import com.dat3m.dartagnan.program.filter.FilterAbstract;
 import com.dat3m.dartagnan.solver.caat.CAATSolver;
+import com.dat3m.dartagnan.solver.caat4wmm.EventDomain;
+import com.dat3m.dartagnan.solver.caat4wmm.ExecutionGraph;
+import com.dat3m.dartagnan.solver.caat4wmm.LemmaStore;
 import com.dat3m.dartagnan.solver.caat4wmm.Refiner;
 import com.dat3m.dartagnan.solver.caat4wmm.WMMSolver;
 import com.dat3m.dartagnan.solver.caat4wmm.coreReasoning.CoreLiteral;
@@ -29,10 +34,15 @@ import com.dat3m.dartagnan.wmm.Relation;
 import com.dat3m.dartagnan.wmm.Wmm;
 import com.dat3m.dartagnan.wmm.analysis.RelationAnalysis;
 import com.dat3m.dartagnan.wmm.axiom.Acyclic;
+import com.dat3m.dartagnan.wmm.axiom.Axiom;
 import com.dat3m.dartagnan.wmm.axiom.Empty;
 import com.dat3m.dartagnan.wmm.axiom.ForceEncodeAxiom;
 import com.dat3m.dartagnan.wmm.definition.*;
+import com.dat3m.dartagnan.wmm.utils.Tuple;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.sosy_lab.common.configuration.Configuration;
@@ -43,17 +53,32 @@ import org.sosy_lab.java_smt.api.*;
 
 import java.text.DecimalFormat;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.BiPredicate;
 import java.util.stream.Collectors;
 
 import static com.dat3m.dartagnan.GlobalSettings.REFINEMENT_GENERATE_GRAPHVIZ_DEBUG_FILES;
 import static com.dat3m.dartagnan.configuration.OptionNames.BASELINE;
 import static com.dat3m.dartagnan.configuration.OptionNames.COVERAGE;
+import static com.dat3m.dartagnan.configuration.OptionNames.FLAG_PROMOTION_THRESHOLD;
+import static com.dat3m.dartagnan.configuration.OptionNames.MODELS_PER_ITERATION;
+import static com.dat3m.dartagnan.configuration.OptionNames.PARALLEL_POPULATION;
+import static com.dat3m.dartagnan.configuration.OptionNames.PROMOTION_THRESHOLD;
+import static com.dat3m.dartagnan.configuration.OptionNames.REASONING_FIRST_VIOLATION;
+import static com.dat3m.dartagnan.configuration.OptionNames.REASONING_MAX_REASONS;
+import static com.dat3m.dartagnan.configuration.OptionNames.REASONING_MINIMIZATION;
+import static com.dat3m.dartagnan.configuration.OptionNames.REASONING_SHORTEST_CYCLES;
+import static com.dat3m.dartagnan.configuration.Property.CAT_SPEC;
 import static com.dat3m.dartagnan.program.analysis.SyntacticContextAnalysis.*;
+import static com.dat3m.dartagnan.solver.caat.CAATSolver.Status.CONSISTENT;
 import static com.dat3m.dartagnan.solver.caat.CAATSolver.Status.INCONCLUSIVE;
 import static com.dat3m.dartagnan.solver.caat.CAATSolver.Status.INCONSISTENT;
 import static com.dat3m.dartagnan.utils.Result.*;
 import static com.dat3m.dartagnan.utils.visualization.ExecutionGraphVisualizer.generateGraphvizFile;
+import static com.dat3m.dartagnan.witness.WitnessGraph.HB;
 import static com.dat3m.dartagnan.wmm.relation.RelationNameRepository.*;
 
 ;
@@ -77,6 +102,34 @@ public class RefinementSolver extends ModelChecker {
     private final ProverEnvironment prover;
     private final VerificationTask task;
 
+    // ------ State shared by the refinement of the property and the bound check ------
+    private Context analysisContext;
+    // Each model checked per iteration gets its own solver, so that they can be checked in parallel.
+    private List<WMMSolver> solvers;
+    private ExecutorService executor;
+    private Refiner refiner;
+    private LemmaStore lemmaStore;
+    // The flags of the CAT specification are left to the SMT solver and checked on the consistent executions
+    // found during Refinement. Their violations are witnesses (rather than reasons for refinement),
+    // while wrongly raised flags get excluded for the execution that raised them.
+    private List<Axiom> flaggedAxioms;
+    // Axioms that were violated too often get promoted, i.e., they get eagerly encoded
+    // w.r.t. the target model and need no more refinement.
+    private final Map<Axiom, Integer> violationCounts = new HashMap<>();
+    // Likewise, flagged axioms get promoted once their flags were wrongly raised too often.
+    private final Map<Axiom, Integer> wrongFlagCounts = new HashMap<>();
+    private EncodingContext targetContext;
+    private WmmEncoder targetEncoder;
+
+    // ------ Just for statistics ------
+    private final List<WMMSolver.Statistics> statList = new ArrayList<>();
+    private final Set<Event> coveredEvents = new HashSet<>(); // For "coverage" report
+    private int iterationCount = 0;
+    private long totalNativeSolvingTime = 0;
+    private long totalCaatTime = 0;
+    private long totalRefiningTime = 0;
+    private long totalBoundCheckTime = 0;
+
     // =========================== Configurables ===========================
 
     @Option(name=BASELINE,
@@ -91,6 +144,50 @@ public class RefinementSolver extends ModelChecker {
             toUppercase=true)
     private boolean printCovReport = false;
 
+    @Option(name=PROMOTION_THRESHOLD,
+            description="Eagerly encodes an axiom of the target model once it was violated in this many iterations " +
+                    "(0 disables the promotion of axioms).",
+            secure=true)
+    private int promotionThreshold = 0;
+
+    @Option(name=FLAG_PROMOTION_THRESHOLD,
+            description="Eagerly encodes a flagged axiom of the CAT specification once its flag was wrongly raised " +
+                    "in this many iterations (0 disables the promotion of flagged axioms).",
+            secure=true)
+    private int flagPromotionThreshold = 4;
+
+    @Option(name=MODELS_PER_ITERATION,
+            description="Number of models with different rf/co choices that get checked (in parallel) " +
+                    "in each iteration. All their inconsistencies are refined at once.",
+            secure=true)
+    private int modelsPerIteration = 1;
+
+    @Option(name=REASONING_SHORTEST_CYCLES,
+            description="Reports only the cycle with the shortest derivation per SCC of an acyclicity violation.",
+            secure=true)
+    private boolean onlyShortestCycles = false;
+
+    @Option(name=REASONING_MINIMIZATION,
+            description="Minimizes inconsistency reasons by removing literals that are not needed to derive the violation.",
+            secure=true)
+    private boolean minimizeReasons = false;
+
+    @Option(name=REASONING_MAX_REASONS,
+            description="Maximal number of reasons (the ones with the fewest literals) used per check (0 = unlimited).",
+            secure=true)
+    private int maxReasons = 0;
+
+    @Option(name=REASONING_FIRST_VIOLATION,
+            description="Stops checking an execution at the first violated axiom (checking the axioms that were " +
+                    "violated most often and are cheapest first). Only the reasons of that axiom get computed.",
+            secure=true)
+    private boolean firstViolationSuffices = false;
+
+    @Option(name=PARALLEL_POPULATION,
+            description="Populates the independent parts of the execution graph and checks the axioms concurrently.",
+            secure=true)
+    private boolean parallelPopulation = false;
+
     // ======================================================================
 
     private RefinementSolver(SolverContext c, ProverEnvironment p, VerificationTask t) {
@@ -99,15 +196,28 @@ public class RefinementSolver extends ModelChecker {
         task = t;
     }
 
-    //TODO: We do not yet use Witness information. The problem is that WitnessGraph.encode() generates
-    // constraints on hb, which is not encoded in Refinement.
-    //TODO (2): Add possibility for Refinement to handle CAT-properties (it ignores them for now).
     public static RefinementSolver run(SolverContext ctx, ProverEnvironment prover, VerificationTask task)
             throws InterruptedException, SolverException, InvalidConfigurationException {
         RefinementSolver solver = new RefinementSolver(ctx, prover, task);
         task.getConfig().inject(solver);
         logger.info("{}: {}", BASELINE, solver.baselines);
-        solver.run();
+        logger.info("{}: {}", PROMOTION_THRESHOLD, solver.promotionThreshold);
+        logger.info("{}: {}", FLAG_PROMOTION_THRESHOLD, solver.flagPromotionThreshold);
+        logger.info("{}: {}", MODELS_PER_ITERATION, solver.modelsPerIteration);
+        logger.info("{}: {}", REASONING_SHORTEST_CYCLES, solver.onlyShortestCycles);
+        logger.info("{}: {}", REASONING_MINIMIZATION, solver.minimizeReasons);
+        logger.info("{}: {}", REASONING_MAX_REASONS, solver.maxReasons);
+        logger.info("{}: {}", REASONING_FIRST_VIOLATION, solver.firstViolationSuffices);
+        logger.info("{}: {}", PARALLEL_POPULATION, solver.parallelPopulation);
+        if (solver.modelsPerIteration < 1) {
+            throw new InvalidConfigurationException(MODELS_PER_ITERATION + " must be positive.");
+        }
+        try {
+            solver.run();
+        } finally {
+            // Each lemma is valid on its own, so the lemmas learned by an aborted run get stored as well
+            solver.shutdown();
+        }
         return solver;
     }
 
@@ -116,7 +226,7 @@ public class RefinementSolver extends ModelChecker {
         Program program = task.getProgram();
         Wmm memoryModel = task.getMemoryModel();
         Wmm baselineModel = createDefaultWmm();
-        Context analysisContext = Context.create();
+        analysisContext = Context.create();
         Configuration config = task.getConfig();
         VerificationTask baselineTask = VerificationTask.builder()
                 .withConfig(task.getConfig()).build(program, baselineModel, task.getProperty());
@@ -153,32 +263,131 @@ public class RefinementSolver extends ModelChecker {
         WmmEncoder baselineEncoder = WmmEncoder.withContext(context);
 
         BooleanFormulaManager bmgr = ctx.getFormulaManager().getBooleanFormulaManager();
-        WMMSolver solver = WMMSolver.withContext(context, cutRelations, task, analysisContext);
-        Refiner refiner = new Refiner(analysisContext);
-        CAATSolver.Status status = INCONSISTENT;
+        solvers = new ArrayList<>(modelsPerIteration);
+        for (int i = 0; i < modelsPerIteration; i++) {
+            WMMSolver solver = WMMSolver.withContext(context, cutRelations, task, analysisContext);
+            solver.setOnlyShortestCycles(onlyShortestCycles);
+            solver.setMinimizeReasons(minimizeReasons);
+            solver.setMaxReasons(maxReasons);
+            solver.setFirstViolationSuffices(firstViolationSuffices);
+            solver.setParallelPopulation(parallelPopulation);
+            solvers.add(solver);
+        }
+        executor = modelsPerIteration == 1 ? null : Executors.newFixedThreadPool(modelsPerIteration,
+                new ThreadFactoryBuilder().setNameFormat("caat-check-%d").setDaemon(true).build());
+        refiner = new Refiner(analysisContext);
+        lemmaStore = LemmaStore.fromConfig(task, analysisContext, config);
+        solvers.forEach(s -> s.setTrackPremises(lemmaStore.isEnabled()));
         Property.Type propertyType = Property.getCombinedType(task.getProperty(), task);
+        flaggedAxioms = !task.getProperty().contains(CAT_SPEC) ? List.of() :
+                memoryModel.getAxioms().stream().filter(Axiom::isFlagged).collect(Collectors.toList());
 
         logger.info("Starting encoding using " + ctx.getVersion());
-        prover.addConstraint(programEncoder.encodeFullProgram());
-        prover.addConstraint(baselineEncoder.encodeFullMemoryModel());
-        prover.addConstraint(symmetryEncoder.encodeFullSymmetryBreaking());
+        ProverSink sink = ProverSink.fromConfig(bmgr, config, prover);
+        programEncoder.encodeFullProgram(sink);
+        baselineEncoder.encodeFullMemoryModel(sink);
+        sink.add(task.getWitness().encodeValues(context));
+        symmetryEncoder.encodeFullSymmetryBreaking(sink);
+        if (memoryModel.containsRelation(HB) && task.getWitness().getHbOrderedEvents(program).size() > 1) {
+            // The hb-order of a witness cannot be encoded w.r.t. the baseline model, so we encode hb w.r.t.
+            // the target model. As in the eager encoding, the order only constrains encoded pairs of hb.
+            getTargetEncoder().encodeRelations(List.of(memoryModel.getRelation(HB)), sink);
+            sink.add(task.getWitness().encodeHbOrder(targetContext));
+        }
+        sink.flush();
+        // Lemmas of previous runs do not depend on the property, so they are added outside the scope
+        prover.addConstraint(refiner.refine(lemmaStore.load(), context));
+
+        // Property and bound check are guarded by assumption literals, so that the learned refinements
+        // and the state of the solver carry over from the property check to the bound check.
+        BooleanFormula propertyAssumption = bmgr.makeVariable("DAT3M_spec_assumption");
+        BooleanFormula boundAssumption = bmgr.makeVariable("DAT3M_bound_assumption");
+        List<BooleanFormula> propertyEncoding = new ArrayList<>();
+        propertyEncoder.encodeProperties(task.getProperty(), flaggedAxioms, propertyEncoding::add);
+        prover.addConstraint(bmgr.implication(propertyAssumption, bmgr.and(propertyEncoding)));
+        prover.addConstraint(bmgr.implication(boundAssumption, propertyEncoder.encodeBoundEventExec()));
 
-        prover.push();
-        prover.addConstraint(propertyEncoder.encodeProperties(task.getProperty()));
+        logger.info("Refinement procedure started.");
+        CAATSolver.Status status = refine(propertyAssumption, true);
+
+        if (logger.isInfoEnabled()) {
+            String message;
+            switch (status) {
+                case INCONCLUSIVE:
+                    message = "CAAT Solver was inconclusive (bug?).";
+                    break;
+                case CONSISTENT:
+                    message = propertyType == Property.Type.SAFETY ? "Specification violation found."
+                            : "Specification witness found.";
+                    break;
+                case INCONSISTENT:
+                    message = propertyType == Property.Type.SAFETY ? "Bounded specification proven."
+                            : "Bounded specification falsified.";
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown result type returned by CAAT Solver.");
+            }
+            logger.info(message);
+        }
 
-        // ------ Just for statistics ------
-        List<WMMSolver.Statistics> statList = new ArrayList<>();
-        Set<Event> coveredEvents = new HashSet<>(); // For "coverage" report
-        int iterationCount = 0;
+        if (status == INCONCLUSIVE) {
+            // CAATSolver got no result (should not be able to happen), so we cannot proceed
+            // further.
+            res = UNKNOWN;
+            return;
+        }
+
+        if (status == INCONSISTENT) {
+            // ------- CHECK BOUNDS -------
+            // A second refinement is needed to make sure that the bound is reachable by a consistent execution.
+            logger.info("Checking reachability of the bound.");
+            CAATSolver.Status boundStatus = refine(boundAssumption, false);
+            res = boundStatus == INCONSISTENT ? PASS : UNKNOWN;
+        } else {
+            // Checking other models (see <modelsPerIteration>) may have discarded the model of the violation,
+            // so we solve again with the consistent execution fixed (see <refine>)
+            Preconditions.checkState(!prover.isUnsatWithAssumptions(List.of(propertyAssumption)));
+            res = FAIL;
+        }
+
+        if (logger.isInfoEnabled()) {
+            logger.info(generateSummary(statList, iterationCount, totalNativeSolvingTime,
+                    totalCaatTime, totalRefiningTime, totalBoundCheckTime));
+        }
+
+        if (logger.isDebugEnabled()) {
+            StringBuilder smtStatistics = new StringBuilder("\n ===== SMT Statistics (after final iteration) ===== \n");
+            for (String key : prover.getStatistics().keySet()) {
+                smtStatistics.append(String.format("\t%s -> %s\n", key, prover.getStatistics().get(key)));
+            }
+            logger.debug(smtStatistics.toString());
+        }
+
+        if (printCovReport) {
+            System.out.println(generateCoverageReport(coveredEvents, program, analysisContext));
+        }
+
+        // For Safety specs, we have SAT=FAIL, but for reachability specs, we have
+        // SAT=PASS
+        res = propertyType == Property.Type.SAFETY ? res : res.invert();
+        logger.info("Verification finished with result " + res);
+    }
+
+    // ======================= Helper Methods ======================
+
+    // Refines the baseline model until there is no model left under <assumption> (the result is INCONSISTENT)
+    // or until a model with a consistent execution was found.
+    // If <checkProperty> is set, the violations of the CAT specification claimed by the model get checked
+    // and reported for consistent executions, which is not necessary for the bound check.
+    private CAATSolver.Status refine(BooleanFormula assumption, boolean checkProperty)
+            throws InterruptedException, SolverException, InvalidConfigurationException {
+        BooleanFormulaManager bmgr = context.getBooleanFormulaManager();
+        List<BooleanFormula> assumptions = List.of(assumption);
+        CAATSolver.Status status = INCONSISTENT;
         long lastTime = System.currentTimeMillis();
         long curTime;
-        long totalNativeSolvingTime = 0;
-        long totalCaatTime = 0;
-        long totalRefiningTime = 0;
-        // ---------------------------------
-        List<BooleanFormula> globalRefinement = new ArrayList<>();
-        logger.info("Refinement procedure started.");
-        while (!prover.isUnsat()) {
+        long nativeSolvingTime = 0;
+        while (!prover.isUnsatWithAssumptions(assumptions)) {
             if (iterationCount == 0 && logger.isDebugEnabled()) {
                 StringBuilder smtStatistics = new StringBuilder(
                         "\n ===== SMT Statistics (after first iteration) ===== \n");
@@ -189,37 +398,112 @@ public class RefinementSolver extends ModelChecker {
             }
             iterationCount++;
             curTime = System.currentTimeMillis();
-            totalNativeSolvingTime += (curTime - lastTime);
+            nativeSolvingTime += (curTime - lastTime);
 
             logger.debug("Solver iteration: \n" +
                     " ===== Iteration: {} =====\n" +
                     "Solving time(ms): {}", iterationCount, curTime - lastTime);
 
             curTime = System.currentTimeMillis();
-            WMMSolver.Result solverResult;
-            try (Model model = prover.getModel()) {
-                solverResult = solver.check(model);
+            List<WMMSolver> checkedSolvers;
+            // The flagged axioms each model claims to be violated
+            List<Set<Axiom>> claimedViolations = new ArrayList<>();
+            try {
+                checkedSolvers = extractExecutions(assumptions, claimedViolations);
             } catch (SolverException e) {
                 logger.error(e);
                 throw e;
             }
+            List<WMMSolver.Result> solverResults = check(checkedSolvers, executor);
+
+            // A single consistent execution suffices to violate the specification
+            status = INCONSISTENT;
+            WMMSolver consistentSolver = null;
+            // The flagged axioms violated by the execution of <consistentSolver> (if the property gets checked)
+            Set<Axiom> consistentFlags = Set.of();
+            List<Conjunction<CoreLiteral>> cubes = new ArrayList<>();
+            Set<Axiom> violatedAxioms = new HashSet<>();
+            List<BooleanFormula> flagLemmas = new ArrayList<>();
+            Set<Axiom> wronglyFlaggedAxioms = new HashSet<>();
+            for (int i = 0; i < checkedSolvers.size(); i++) {
+                WMMSolver.Result solverResult = solverResults.get(i);
+                WMMSolver.Statistics stats = solverResult.getStatistics();
+                statList.add(stats);
+                coveredEvents.addAll(Lists.transform(checkedSolvers.get(i).getExecution().getEventList(), EventData::getEvent));
+                logger.debug("Refinement iteration:\n{}", stats);
+
+                if (checkProperty && solverResult.getStatus() == CONSISTENT && !flaggedAxioms.isEmpty()) {
+                    Set<Axiom> violatedFlags = solverResult.getViolatedFlaggedAxioms();
+                    Set<Axiom> claimedFlags = claimedViolations.get(i);
+                    if (violatedFlags.isEmpty() && !claimedFlags.isEmpty()) {
+                        // The model only satisfies the property by raising flags that the execution does not violate.
+                        // Flags only depend on the execution, so the exclusion is not guarded by <assumption>.
+                        flagLemmas.add(bmgr.implication(encodeExecution(checkedSolvers.get(i).getExecution(), context),
+                                encodeFlags(flaggedAxioms, violatedFlags, context)));
+                        wronglyFlaggedAxioms.addAll(claimedFlags);
+                        continue;
+                    }
+                    if (consistentSolver == null) {
+                        consistentFlags = violatedFlags;
+                        for (Axiom axiom : violatedFlags) {
+                            saveFlaggedPairsOutput(axiom, getTuples(checkedSolvers.get(i).getExecutionGraph(), axiom),
+                                    SyntacticContextAnalysis.newInstance(task.getProgram()));
+                        }
+                    }
+                }
+                if (solverResult.getStatus() == CONSISTENT && consistentSolver == null) {
+                    consistentSolver = checkedSolvers.get(i);
+                }
+                if (solverResult.getStatus() != INCONSISTENT) {
+                    status = status == CONSISTENT ? status : solverResult.getStatus();
+                    continue;
+                }
+                for (Conjunction<CoreLiteral> reason : solverResult.getCoreReasons().getCubes()) {
+                    cubes.add(reason);
+                    lemmaStore.add(reason, solverResult.getPremises(reason));
+                }
+                violatedAxioms.addAll(solverResult.getViolatedAxioms());
+            }
 
-            WMMSolver.Statistics stats = solverResult.getStatistics();
-            statList.add(stats);
-            coveredEvents.addAll(Lists.transform(solver.getExecution().getEventList(), EventData::getEvent));
-            logger.debug("Refinement iteration:\n{}", stats);
-
-            status = solverResult.getStatus();
             if (status == INCONSISTENT) {
                 long refineTime = System.currentTimeMillis();
-                DNF<CoreLiteral> reasons = solverResult.getCoreReasons();
-                BooleanFormula refinement = refiner.refine(reasons, context);
-                prover.addConstraint(refinement);
-                globalRefinement.add(refinement); // Track overall refinement progress
+                DNF<CoreLiteral> reasons = new DNF<>(cubes);
+                // Refinements hold for all executions, so they are not guarded by <assumption>
+                prover.addConstraint(refiner.refine(reasons, context));
+                prover.addConstraint(bmgr.and(flagLemmas));
+
+                if (promotionThreshold > 0) {
+                    List<Axiom> promoted = new ArrayList<>();
+                    for (Axiom axiom : violatedAxioms) {
+                        if (violationCounts.merge(axiom, 1, Integer::sum) == promotionThreshold) {
+                            promoted.add(axiom);
+                        }
+                    }
+                    if (!promoted.isEmpty()) {
+                        logger.info("Promoting axioms after {} iterations: {}", iterationCount, promoted);
+                        List<BooleanFormula> enc = new ArrayList<>();
+                        getTargetEncoder().encodeAxioms(promoted, enc::add);
+                        prover.addConstraint(bmgr.and(enc));
+                    }
+                }
+                if (flagPromotionThreshold > 0) {
+                    List<Axiom> promoted = new ArrayList<>();
+                    for (Axiom axiom : wronglyFlaggedAxioms) {
+                        if (wrongFlagCounts.merge(axiom, 1, Integer::sum) == flagPromotionThreshold) {
+                            promoted.add(axiom);
+                        }
+                    }
+                    if (!promoted.isEmpty()) {
+                        logger.info("Promoting flagged axioms after {} iterations: {}", iterationCount, promoted);
+                        List<BooleanFormula> enc = new ArrayList<>();
+                        encodeFlaggedAxioms(promoted, enc::add);
+                        prover.addConstraint(bmgr.and(enc));
+                    }
+                }
                 totalRefiningTime += (System.currentTimeMillis() - refineTime);
 
                 if (REFINEMENT_GENERATE_GRAPHVIZ_DEBUG_FILES) {
-                    generateGraphvizFiles(task, solver.getExecution(), iterationCount, reasons);
+                    generateGraphvizFiles(task, solvers.get(0).getExecution(), iterationCount, reasons);
                 }
                 if (logger.isTraceEnabled()) {
                     // Some statistics
@@ -231,6 +515,15 @@ public class RefinementSolver extends ModelChecker {
                 }
             } else {
                 // No inconsistencies found, we can't refine
+                if (status == CONSISTENT) {
+                    // The consistent execution may stem from any of the checked models and <extractExecutions>
+                    // discarded the blocking clauses, so we fix the model to that execution (and to its actual flags)
+                    BooleanFormula execution = encodeExecution(consistentSolver.getExecution(), context);
+                    if (checkProperty) {
+                        execution = bmgr.and(execution, encodeFlags(flaggedAxioms, consistentFlags, context));
+                    }
+                    prover.addConstraint(bmgr.implication(assumption, execution));
+                }
                 break;
             }
             totalCaatTime += (System.currentTimeMillis() - curTime);
@@ -238,85 +531,173 @@ public class RefinementSolver extends ModelChecker {
         }
         iterationCount++;
         curTime = System.currentTimeMillis();
-        totalNativeSolvingTime += (curTime - lastTime);
+        nativeSolvingTime += (curTime - lastTime);
+        if (checkProperty) {
+            totalNativeSolvingTime += nativeSolvingTime;
+        } else {
+            totalBoundCheckTime += nativeSolvingTime;
+        }
 
         logger.debug("Final solver iteration:\n" +
                 " ===== Final Iteration: {} =====\n" +
                 "Native Solving/Proof time(ms): {}", iterationCount, curTime - lastTime);
+        return status;
+    }
 
-        if (logger.isInfoEnabled()) {
-            String message;
-            switch (status) {
-                case INCONCLUSIVE:
-                    message = "CAAT Solver was inconclusive (bug?).";
-                    break;
-                case CONSISTENT:
-                    message = propertyType == Property.Type.SAFETY ? "Specification violation found."
-                            : "Specification witness found.";
-                    break;
-                case INCONSISTENT:
-                    message = propertyType == Property.Type.SAFETY ? "Bounded specification proven."
-                            : "Bounded specification falsified.";
-                    break;
-                default:
-                    throw new IllegalStateException("Unknown result type returned by CAAT Solver.");
-            }
-            logger.info(message);
+    // Relations are encoded by name, so the variables of the target model
+    // coincide with the ones of the baseline model.
+    private WmmEncoder getTargetEncoder() throws InvalidConfigurationException {
+        if (targetEncoder == null) {
+            checkSharedRelations(task.getMemoryModel(), context.getTask().getMemoryModel());
+            targetContext = EncodingContext.of(task, analysisContext, ctx.getFormulaManager());
+            targetEncoder = WmmEncoder.withContext(targetContext);
         }
+        return targetEncoder;
+    }
 
-        if (status == INCONCLUSIVE) {
-            // CAATSolver got no result (should not be able to happen), so we cannot proceed
-            // further.
-            res = UNKNOWN;
-            return;
+    // Encodes the relations of the flagged <axioms> w.r.t. the target model
+    // and ties the flag of each axiom to its encoding.
+    private void encodeFlaggedAxioms(List<Axiom> axioms, ConstraintSink enc) throws InvalidConfigurationException {
+        getTargetEncoder().encodeAxioms(axioms, enc);
+        BooleanFormulaManager bmgr = targetContext.getBooleanFormulaManager();
+        // CAUTION: The variable of a flagged axiom is false if it is violated (see PropertyEncoder).
+        for (Axiom axiom : axioms) {
+            enc.add(bmgr.equivalence(bmgr.not(CAT_SPEC.getSMTVariable(axiom, targetContext)),
+                    bmgr.and(axiom.consistent(targetContext))));
         }
+    }
 
-        long boundCheckTime = 0;
-        if (prover.isUnsat()) {
-            // ------- CHECK BOUNDS -------
-            lastTime = System.currentTimeMillis();
-            prover.pop();
-            // Add bound check
-            prover.addConstraint(propertyEncoder.encodeBoundEventExec());
-            // Add back the constraints found during Refinement
-            // TODO: We actually need to perform a second refinement to check for bound reachability
-            // This is needed for the seqlock.c benchmarks!
-            prover.addConstraint(bmgr.and(globalRefinement));
-            res = !prover.isUnsat() ? UNKNOWN : PASS;
-            boundCheckTime = System.currentTimeMillis() - lastTime;
-        } else {
-            res = FAIL;
+    private void shutdown() {
+        if (lemmaStore != null) {
+            lemmaStore.save();
+        }
+        if (executor != null) {
+            executor.shutdown();
         }
+    }
 
-        if (logger.isInfoEnabled()) {
-            logger.info(generateSummary(statList, iterationCount, totalNativeSolvingTime,
-                    totalCaatTime, totalRefiningTime, boundCheckTime));
+    // Extracts the execution of the current model into the first solver.
+    // Each further solver receives an execution that differs from the previous ones in its rf/co choices,
+    // as long as such an execution exists.
+    // Returns the solvers that received an execution.
+    // For each such execution, <claimedViolations> receives the <flaggedAxioms> which are violated according to the model.
+    private List<WMMSolver> extractExecutions(List<BooleanFormula> assumptions, List<Set<Axiom>> claimedViolations)
+            throws SolverException, InterruptedException {
+        BooleanFormulaManager bmgr = context.getBooleanFormulaManager();
+        try (Model model = prover.getModel()) {
+            solvers.get(0).initialize(model);
+            claimedViolations.add(getClaimedViolations(model, flaggedAxioms, context));
         }
+        if (solvers.size() == 1) {
+            return solvers;
+        }
+        List<WMMSolver> initialized = new ArrayList<>(solvers.size());
+        initialized.add(solvers.get(0));
+        prover.push();
+        for (WMMSolver solver : solvers.subList(1, solvers.size())) {
+            prover.addConstraint(bmgr.not(encodeChoices(initialized.get(initialized.size() - 1).getExecution(), context)));
+            if (prover.isUnsatWithAssumptions(assumptions)) {
+                break;
+            }
+            try (Model model = prover.getModel()) {
+                solver.initialize(model);
+                claimedViolations.add(getClaimedViolations(model, flaggedAxioms, context));
+            }
+            initialized.add(solver);
+        }
+        prover.pop();
+        return initialized;
+    }
 
-        if (logger.isDebugEnabled()) {
-            StringBuilder smtStatistics = new StringBuilder("\n ===== SMT Statistics (after final iteration) ===== \n");
-            for (String key : prover.getStatistics().keySet()) {
-                smtStatistics.append(String.format("\t%s -> %s\n", key, prover.getStatistics().get(key)));
+    // Encodes the rf-edges and the coherence order of <execution>.
+    private static BooleanFormula encodeChoices(ExecutionModel execution, EncodingContext context) {
+        Wmm memoryModel = context.getTask().getMemoryModel();
+        EncodingContext.EdgeEncoder rf = context.edge(memoryModel.getRelation(RF));
+        EncodingContext.EdgeEncoder co = context.edge(memoryModel.getRelation(CO));
+        List<BooleanFormula> choices = new ArrayList<>();
+        execution.getReadWriteMap().forEach((read, write) -> choices.add(rf.encode(write.getEvent(), read.getEvent())));
+        for (List<EventData> writes : execution.getCoherenceMap().values()) {
+            for (int i = 1; i < writes.size(); i++) {
+                choices.add(co.encode(writes.get(i - 1).getEvent(), writes.get(i).getEvent()));
             }
-            logger.debug(smtStatistics.toString());
         }
+        return context.getBooleanFormulaManager().and(choices);
+    }
 
-        if (printCovReport) {
-            System.out.println(generateCoverageReport(coveredEvents, program, analysisContext));
+    // Raises exactly the flags of the <violated> axioms among <flaggedAxioms>.
+    private static BooleanFormula encodeFlags(List<Axiom> flaggedAxioms, Set<Axiom> violated, EncodingContext context) {
+        BooleanFormulaManager bmgr = context.getBooleanFormulaManager();
+        return bmgr.and(Lists.transform(flaggedAxioms, ax -> violated.contains(ax) ?
+                bmgr.not(CAT_SPEC.getSMTVariable(ax, context)) : CAT_SPEC.getSMTVariable(ax, context)));
+    }
+
+    private static Set<Axiom> getClaimedViolations(Model model, List<Axiom> flaggedAxioms, EncodingContext context) {
+        return flaggedAxioms.stream()
+                .filter(ax -> Boolean.FALSE.equals(model.evaluate(CAT_SPEC.getSMTVariable(ax, context))))
+                .collect(Collectors.toSet());
+    }
+
+    // Encodes the execution graph of <execution>, i.e., the executed (visible) events,
+    // the rf/co choices, and which of the memory events access the same address.
+    private static BooleanFormula encodeExecution(ExecutionModel execution, EncodingContext context) {
+        BooleanFormulaManager bmgr = context.getBooleanFormulaManager();
+        AliasAnalysis alias = context.getAnalysisContext().requires(AliasAnalysis.class);
+        List<BooleanFormula> enc = new ArrayList<>();
+        for (Event e : execution.getProgram().getEvents()) {
+            if (e.is(Tag.VISIBLE)) {
+                enc.add(execution.eventExists(e) ? context.execution(e) : bmgr.not(context.execution(e)));
+            }
         }
+        enc.add(encodeChoices(execution, context));
+        List<EventData> memoryEvents = execution.getEventList().stream()
+                .filter(EventData::isMemoryEvent).collect(Collectors.toList());
+        for (int i = 0; i < memoryEvents.size(); i++) {
+            EventData first = memoryEvents.get(i);
+            MemEvent e1 = (MemEvent) first.getEvent();
+            for (EventData second : memoryEvents.subList(i + 1, memoryEvents.size())) {
+                MemEvent e2 = (MemEvent) second.getEvent();
+                if (alias.mayAlias(e1, e2) && !alias.mustAlias(e1, e2)) {
+                    BooleanFormula sameAddress = context.sameAddress(e1, e2);
+                    enc.add(first.getAccessedAddress().equals(second.getAccessedAddress()) ? sameAddress : bmgr.not(sameAddress));
+                }
+            }
+        }
+        return bmgr.and(enc);
+    }
 
-        // For Safety specs, we have SAT=FAIL, but for reachability specs, we have
-        // SAT=PASS
-        res = propertyType == Property.Type.SAFETY ? res : res.invert();
-        logger.info("Verification finished with result " + res);
+    private static List<Tuple> getTuples(ExecutionGraph executionGraph, Axiom axiom) {
+        EventDomain domain = executionGraph.getDomain();
+        return executionGraph.getRelationGraph(axiom.getRelation()).edgeStream()
+                .map(e -> new Tuple(domain.getObjectById(e.getFirst()).getEvent(), domain.getObjectById(e.getSecond()).getEvent()))
+                .collect(Collectors.toList());
+    }
+
+    // Checks the extracted executions of all <solvers> in parallel.
+    private static List<WMMSolver.Result> check(List<WMMSolver> solvers, ExecutorService executor)
+            throws InterruptedException {
+        if (solvers.size() == 1) {
+            return List.of(solvers.get(0).check());
+        }
+        List<Future<WMMSolver.Result>> futures = new ArrayList<>(solvers.size());
+        for (WMMSolver solver : solvers) {
+            futures.add(executor.submit(() -> solver.check()));
+        }
+        List<WMMSolver.Result> results = new ArrayList<>(solvers.size());
+        try {
+            for (Future<WMMSolver.Result> future : futures) {
+                results.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new IllegalStateException(e.getCause());
+        }
+        return results;
     }
-    // ======================= Helper Methods ======================
 
     // This method cuts off negated relations that are dependencies of some
-    // consistency axiom. It ignores dependencies of flagged axioms, as those get
-    // eagarly encoded and can be completely ignored for Refinement.
+    // consistency axiom. It ignores dependencies of flagged axioms: those are only evaluated
+    // on consistent executions and never need to be explained by reasons, so their differences need no cutting.
     private static Set<Relation> cutRelationDifferences(Wmm targetWmm, Wmm baselineWmm) {
-        // TODO: Add support to move flagged axioms to the baselineWmm
         Set<Relation> cutRelations = new HashSet<>();
         Set<Relation> cutCandidates = new HashSet<>();
         int cutCounter = 0;
@@ -344,6 +725,24 @@ public class RefinementSolver extends ModelChecker {
         return cutRelations;
     }
 
+    // Promoted axioms are encoded w.r.t. the target model, while the refinement works on the baseline model.
+    // Both encodings share the edge variables of relations with the same name (or term).
+    // This is only sound if such relations have the same definition in both models,
+    // which holds for the predefined relations, the copies of cut relations and the unnamed baseline relations.
+    private static void checkSharedRelations(Wmm targetWmm, Wmm baselineWmm) {
+        Map<String, Relation> targetRelations = new HashMap<>();
+        for (Relation rel : targetWmm.getRelations()) {
+            targetRelations.putIfAbsent(rel.getNameOrTerm(), rel);
+        }
+        for (Relation baselineRelation : baselineWmm.getRelations()) {
+            String name = baselineRelation.getNameOrTerm();
+            Relation targetRelation = targetRelations.get(name);
+            Preconditions.checkState(targetRelation == null
+                    || targetRelation.getDefinition().getTerm().equals(baselineRelation.getDefinition().getTerm()),
+                    "Relation %s is defined differently in the target and in the baseline model.", name);
+        }
+    }
+
     private static void collectDependencies(Relation root, Set<Relation> collected) {
         if (collected.add(root)) {
             root.getDependencies().forEach(dep -> collectDependencies(dep, collected));
@@ -401,6 +800,8 @@ public class RefinementSolver extends ModelChecker {
         long totalReasonComputationTime = 0;
         long totalNumReasons = 0;
         long totalNumReducedReasons = 0;
+        long totalNumProbedEdges = 0;
+        long totalNumProducedEdges = 0;
         long totalModelSize = 0;
         long minModelSize = Long.MAX_VALUE;
         long maxModelSize = Long.MIN_VALUE;
@@ -412,6 +813,8 @@ public class RefinementSolver extends ModelChecker {
             totalReasonComputationTime += stats.getBaseReasonComputationTime() + stats.getCoreReasonComputationTime();
             totalNumReasons += stats.getNumComputedCoreReasons();
             totalNumReducedReasons += stats.getNumComputedReducedCoreReasons();
+            totalNumProbedEdges += stats.getNumProbedCompositionEdges();
+            totalNumProducedEdges += stats.getNumProducedCompositionEdges();
 
             totalModelSize += stats.getModelSize();
             minModelSize = Math.min(stats.getModelSize(), minModelSize);
@@ -430,7 +833,9 @@ public class RefinementSolver extends ModelChecker {
                 .append("   -- Reason computation time(ms): ").append(totalReasonComputationTime).append("\n")
                 .append("   -- Refining time(ms): ").append(totalRefiningTime).append("\n")
                 .append("   -- #Computed core reasons: ").append(totalNumReasons).append("\n")
-                .append("   -- #Computed core reduced reasons: ").append(totalNumReducedReasons).append("\n");
+                .append("   -- #Computed core reduced reasons: ").append(totalNumReducedReasons).append("\n")
+                .append("   -- #Composition edges (probed/produced): ").append(totalNumProbedEdges)
+                .append("/").append(totalNumProducedEdges).append("\n");
         if (statList.size() > 0) {
             message.append("   -- Min model size (#events): ").append(minModelSize).append("\n")
                     .append("   -- Average model size (#events): ").append(totalModelSize / statList.size())
@@ -9,7 +9,6 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
-import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.ProverEnvironment;
 import org.sosy_lab.java_smt.api.SolverContext;
 import org.sosy_lab.java_smt.api.SolverException;
@@ -56,23 +55,26 @@ public class TwoSolvers extends ModelChecker {
         SymmetryEncoder symmetryEncoder = SymmetryEncoder.withContext(context);
 
         logger.info("Starting encoding using " + ctx.getVersion());
-        BooleanFormula encodeProg = programEncoder.encodeFullProgram();
-        prover1.addConstraint(encodeProg);
-        prover2.addConstraint(encodeProg);
-        
-        BooleanFormula encodeWmm = wmmEncoder.encodeFullMemoryModel();
-		prover1.addConstraint(encodeWmm);
-        prover2.addConstraint(encodeWmm);
-       	
-        // For validation this contains information.
-        // For verification graph.encode() just returns ctx.mkTrue()
-        BooleanFormula encodeWitness = task.getWitness().encode(context);
-		prover1.addConstraint(encodeWitness);
-        prover2.addConstraint(encodeWitness);
-
-        BooleanFormula encodeSymm = symmetryEncoder.encodeFullSymmetryBreaking();
-        prover1.addConstraint(encodeSymm);
-        prover2.addConstraint(encodeSymm);
+        // Both provers receive the same chunks, so the shared encoding is only built once.
+        ProverSink proverSink = ProverSink.fromConfig(context.getBooleanFormulaManager(), config, prover1, prover2);
+        try (SMTLib2Exporter exporter = SMTLib2Exporter.fromConfig(ctx.getFormulaManager(), config)) {
+            ConstraintSink sink = exporter.attachTo(proverSink);
+            programEncoder.encodeFullProgram(sink);
+            wmmEncoder.encodeFullMemoryModel(sink);
+            // For validation this contains information.
+            // For verification graph.encode() just returns ctx.mkTrue()
+            sink.add(task.getWitness().encode(context));
+            symmetryEncoder.encodeFullSymmetryBreaking(sink);
+            proverSink.flush();
+            if (exporter.isEnabled()) {
+                // Both provers together behave like a single prover that checks the bound after popping the property.
+                exporter.exportScopedPropertyCheck(propertyEncoder, task.getProperty());
+                if (exporter.isExportOnly()) {
+                    logger.info("Verification stopped after exporting the query");
+                    return;
+                }
+            }
+        }
 
         prover1.addConstraint(propertyEncoder.encodeProperties(task.getProperty()));
 
@@ -23,6 +23,9 @@ import static com.dat3m.dartagnan.witness.GraphAttributes.PROGRAMFILE;
 
 public class WitnessGraph extends ElemWithAttributes {
 
+	// The name of the relation that orders the events of the witness
+	public static final String HB = "hb";
+
 	private final SortedSet<Node> nodes = new TreeSet<>();
 	// The order in which we add / traverse edges is important, thus a List
 	private final List<Edge> edges = new ArrayList<>();
@@ -74,23 +77,46 @@ public class WitnessGraph extends ElemWithAttributes {
 	}
 	
 	public BooleanFormula encode(EncodingContext context) {
-		Program program = context.getTask().getProgram();
+		return context.getBooleanFormulaManager().and(encodeHbOrder(context), encodeValues(context));
+	}
+
+	// Encodes the hb-order of the witness (see <getHbOrderedEvents>).
+	// The edge variables of hb belong to the memory model of <context>.
+	public BooleanFormula encodeHbOrder(EncodingContext context) {
 		BooleanFormulaManager bmgr = context.getBooleanFormulaManager();
-		IntegerFormulaManager imgr = context.getFormulaManager().getIntegerFormulaManager();
 		List<BooleanFormula> enc = new ArrayList<>();
-		List<Event> previous = new ArrayList<>();
+		List<List<Event>> order = getHbOrderedEvents(context.getTask().getProgram());
+		for(int i = 1; i < order.size(); i++) {
+			enc.add(bmgr.or(Lists.cartesianProduct(order.get(i - 1), order.get(i)).stream()
+					.map(p -> context.edgeVariable(HB, p.get(0), p.get(1)))
+					.toArray(BooleanFormula[]::new)));
+		}
+		return bmgr.and(enc);
+	}
+
+	// Groups the memory events of <program> by the lines the witness passes through (in the order of the witness).
+	// The witness requires that some event of each group happens before (hb) some event of the next group.
+	public List<List<Event>> getHbOrderedEvents(Program program) {
+		List<List<Event>> order = new ArrayList<>();
 		for(Edge edge : edges.stream().filter(Edge::hasCline).collect(Collectors.toList())) {
 			List<Event> events = program.getEvents(MemEvent.class).stream()
 					.filter(e -> e.getCLine() == edge.getCline())
 					.collect(Collectors.toList());
-			if(!previous.isEmpty() && !events.isEmpty()) {
-				enc.add(bmgr.or(Lists.cartesianProduct(previous, events).stream()
-						.map(p -> context.edgeVariable("hb", p.get(0), p.get(1)))
-						.toArray(BooleanFormula[]::new)));
-			}
 			if(!events.isEmpty()) {
-				previous = events;				
+				order.add(events);
 			}
+		}
+		return order;
+	}
+
+	// Encodes the values the witness claims to be loaded and stored.
+	// Unlike the hb-order, these constraints do not depend on the memory model.
+	public BooleanFormula encodeValues(EncodingContext context) {
+		Program program = context.getTask().getProgram();
+		BooleanFormulaManager bmgr = context.getBooleanFormulaManager();
+		IntegerFormulaManager imgr = context.getFormulaManager().getIntegerFormulaManager();
+		List<BooleanFormula> enc = new ArrayList<>();
+		for(Edge edge : edges.stream().filter(Edge::hasCline).collect(Collectors.toList())) {
 			// FIXME: The reliance on "globalId" for matching is very fragile (see comment in WitnessBuilder)
 			if(edge.hasAttributed(EVENTID.toString()) && edge.hasAttributed(LOADEDVALUE.toString())) {
 				int id = Integer.parseInt(edge.getAttributed(EVENTID.toString()));
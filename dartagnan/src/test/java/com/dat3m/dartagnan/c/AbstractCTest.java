@@ -55,6 +55,10 @@ public abstract class AbstractCTest {
         return Provider.fromSupplier(() -> Property.getDefault());
     }
 
+    protected Provider<Configuration> getConfigurationProvider() {
+        return Provider.fromSupplier(() -> Configuration.defaultConfiguration());
+    }
+
     // =============================================================
 
 
@@ -69,7 +73,8 @@ public abstract class AbstractCTest {
     protected final Provider<Program> programProvider = Providers.createProgramFromPath(filePathProvider);
     protected final Provider<Wmm> wmmProvider = getWmmProvider();
     protected final Provider<EnumSet<Property>> propertyProvider = getPropertyProvider();
-    protected final Provider<VerificationTask> taskProvider = Providers.createTask(programProvider, wmmProvider, propertyProvider, targetProvider, boundProvider, () -> Configuration.defaultConfiguration());
+    protected final Provider<Configuration> configurationProvider = getConfigurationProvider();
+    protected final Provider<VerificationTask> taskProvider = Providers.createTask(programProvider, wmmProvider, propertyProvider, targetProvider, boundProvider, configurationProvider);
     protected final Provider<SolverContext> contextProvider = Providers.createSolverContextFromManager(shutdownManagerProvider);
     protected final Provider<ProverEnvironment> proverProvider = Providers.createProverWithFixedOptions(contextProvider, SolverContext.ProverOptions.GENERATE_MODELS);
 
@@ -86,6 +91,7 @@ public abstract class AbstractCTest {
             .around(programProvider)
             .around(wmmProvider)
             .around(propertyProvider)
+            .around(configurationProvider)
             .around(taskProvider)
             .around(csvLogger)
             .around(timeout)
@@ -0,0 +1,42 @@
+package com.dat3m.dartagnan.c;
+
+import com.dat3m.dartagnan.configuration.Arch;
+import com.dat3m.dartagnan.utils.Result;
+import com.dat3m.dartagnan.utils.rules.Provider;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.sosy_lab.common.configuration.Configuration;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.dat3m.dartagnan.configuration.OptionNames.REASONING_FIRST_VIOLATION;
+
+// Runs the IMM lock suite with Refinement learning only the reasons of the first violated axiom.
+// The ticket_awnsb_mutex programs need far more iterations this way and exceed the timeout.
+@RunWith(Parameterized.class)
+public class IMMLocksFirstViolationTest extends IMMLocksTest {
+
+    public IMMLocksFirstViolationTest(String name, Arch target, Result expected) {
+        super(name, target, expected);
+    }
+
+    @Override
+    protected Provider<Configuration> getConfigurationProvider() {
+        return Provider.fromSupplier(() -> Configuration.builder()
+                .setOption(REASONING_FIRST_VIOLATION, "true")
+                .build());
+    }
+
+    @Parameterized.Parameters(name = "{index}: {0}, target={1}")
+    public static Iterable<Object[]> data() throws IOException {
+        List<Object[]> data = new ArrayList<>();
+        for (Object[] test : IMMLocksTest.data()) {
+            if (!((String) test[0]).startsWith("ticket_awnsb_mutex")) {
+                data.add(test);
+            }
+        }
+        return data;
+    }
+}
@@ -0,0 +1,46 @@
+package com.dat3m.dartagnan.c;
+
+import com.dat3m.dartagnan.configuration.Arch;
+import com.dat3m.dartagnan.utils.Result;
+import com.dat3m.dartagnan.utils.rules.Provider;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.sosy_lab.common.configuration.Configuration;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.dat3m.dartagnan.configuration.OptionNames.MODELS_PER_ITERATION;
+
+// Runs the IMM lock suite with Refinement checking several models per iteration
+@RunWith(Parameterized.class)
+public class IMMLocksModelsPerIterationTest extends IMMLocksTest {
+
+    private static final int[] MODELS = {2, 4};
+
+    private final int models;
+
+    public IMMLocksModelsPerIterationTest(String name, Arch target, Result expected, int models) {
+        super(name, target, expected);
+        this.models = models;
+    }
+
+    @Override
+    protected Provider<Configuration> getConfigurationProvider() {
+        return Provider.fromSupplier(() -> Configuration.builder()
+                .setOption(MODELS_PER_ITERATION, String.valueOf(models))
+                .build());
+    }
+
+    @Parameterized.Parameters(name = "{index}: {0}, target={1}, models={3}")
+    public static Iterable<Object[]> data() throws IOException {
+        List<Object[]> data = new ArrayList<>();
+        for (Object[] test : IMMLocksTest.data()) {
+            for (int models : MODELS) {
+                data.add(new Object[]{test[0], test[1], test[2], models});
+            }
+        }
+        return data;
+    }
+}
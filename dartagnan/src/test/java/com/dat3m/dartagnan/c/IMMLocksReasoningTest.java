@@ -0,0 +1,54 @@
+package com.dat3m.dartagnan.c;
+
+import com.dat3m.dartagnan.configuration.Arch;
+import com.dat3m.dartagnan.utils.Result;
+import com.dat3m.dartagnan.utils.rules.Provider;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.sosy_lab.common.configuration.Configuration;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.dat3m.dartagnan.configuration.OptionNames.REASONING_MAX_REASONS;
+import static com.dat3m.dartagnan.configuration.OptionNames.REASONING_MINIMIZATION;
+import static com.dat3m.dartagnan.configuration.OptionNames.REASONING_SHORTEST_CYCLES;
+
+// Runs the IMM lock suite with Refinement using each of the options that change the learned reasons
+@RunWith(Parameterized.class)
+public class IMMLocksReasoningTest extends IMMLocksTest {
+
+    private static final String[][] OPTIONS = {
+            {REASONING_SHORTEST_CYCLES, "true"},
+            {REASONING_MINIMIZATION, "true"},
+            {REASONING_MAX_REASONS, "4"},
+    };
+
+    private final String option;
+    private final String value;
+
+    public IMMLocksReasoningTest(String name, Arch target, Result expected, String option, String value) {
+        super(name, target, expected);
+        this.option = option;
+        this.value = value;
+    }
+
+    @Override
+    protected Provider<Configuration> getConfigurationProvider() {
+        return Provider.fromSupplier(() -> Configuration.builder()
+                .setOption(option, value)
+                .build());
+    }
+
+    @Parameterized.Parameters(name = "{index}: {0}, target={1}, {3}={4}")
+    public static Iterable<Object[]> data() throws IOException {
+        List<Object[]> data = new ArrayList<>();
+        for (Object[] test : IMMLocksTest.data()) {
+            for (String[] option : OPTIONS) {
+                data.add(new Object[]{test[0], test[1], test[2], option[0], option[1]});
+            }
+        }
+        return data;
+    }
+}
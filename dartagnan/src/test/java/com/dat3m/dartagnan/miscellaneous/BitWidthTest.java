@@ -0,0 +1,120 @@
+package com.dat3m.dartagnan.miscellaneous;
+
+import com.dat3m.dartagnan.GlobalSettings;
+import com.dat3m.dartagnan.configuration.Property;
+import com.dat3m.dartagnan.parsers.cat.ParserCat;
+import com.dat3m.dartagnan.parsers.program.ProgramParser;
+import com.dat3m.dartagnan.program.Register;
+import com.dat3m.dartagnan.program.Thread;
+import com.dat3m.dartagnan.program.analysis.BitWidthAnalysis;
+import com.dat3m.dartagnan.utils.Result;
+import com.dat3m.dartagnan.utils.TestHelper;
+import com.dat3m.dartagnan.verification.Context;
+import com.dat3m.dartagnan.verification.VerificationTask;
+import com.dat3m.dartagnan.verification.solving.IncrementalSolver;
+import com.dat3m.dartagnan.wmm.Wmm;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+
+import java.io.File;
+import java.util.Arrays;
+
+import static com.dat3m.dartagnan.configuration.Arch.LKMM;
+import static com.dat3m.dartagnan.configuration.OptionNames.ARCH_PRECISION;
+import static com.dat3m.dartagnan.configuration.OptionNames.BIT_WIDTH_INFERENCE;
+import static com.dat3m.dartagnan.utils.ResourceHelper.CAT_RESOURCE_PATH;
+import static com.dat3m.dartagnan.utils.ResourceHelper.TEST_RESOURCE_PATH;
+import static com.dat3m.dartagnan.utils.Result.FAIL;
+import static com.dat3m.dartagnan.utils.Result.PASS;
+import static com.dat3m.dartagnan.verification.solving.ModelChecker.performStaticProgramAnalyses;
+import static com.dat3m.dartagnan.verification.solving.ModelChecker.preprocessProgram;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+// Checks that encoding registers and memory with narrower bit-vectors does not change any verdict.
+// The programs rely on 32-bit wrap-around and negative values, which narrowing must not cut off.
+@RunWith(Parameterized.class)
+public class BitWidthTest {
+
+    private static final int PRECISION = 32;
+
+    @Parameterized.Parameters(name = "{index}: {0}")
+    public static Iterable<Object[]> data() {
+        return Arrays.asList(new Object[][]{
+                {"C-add-wraps", PASS},
+                {"C-add-chain-wraps", PASS},
+                {"C-add-no-wrap", FAIL},
+                {"C-negative-store", PASS},
+                {"C-negative-sub", PASS},
+                {"C-xor-negative", PASS},
+        });
+    }
+
+    private final String name;
+    private final Result expected;
+
+    public BitWidthTest(String name, Result expected) {
+        this.name = name;
+        this.expected = expected;
+    }
+
+    @BeforeClass
+    public static void setPrecision() throws InvalidConfigurationException {
+        GlobalSettings.configure(Configuration.builder().setOption(ARCH_PRECISION, String.valueOf(PRECISION)).build());
+    }
+
+    @AfterClass
+    public static void resetPrecision() throws InvalidConfigurationException {
+        GlobalSettings.configure(Configuration.builder().setOption(ARCH_PRECISION, "-1").build());
+    }
+
+    @Test
+    public void fullWidth() throws Exception {
+        assertEquals(expected, run(false));
+    }
+
+    @Test
+    public void inferredWidth() throws Exception {
+        assertEquals(expected, run(true));
+    }
+
+    @Test
+    public void narrowsSmallValues() throws Exception {
+        assumeTrue(name.equals("C-add-no-wrap"));
+        // The loaded value is at most 255 and the incremented one at most 256
+        VerificationTask task = createTask(true);
+        Context context = Context.create();
+        preprocessProgram(task, task.getConfig());
+        performStaticProgramAnalyses(task, context, task.getConfig());
+        BitWidthAnalysis widths = context.requires(BitWidthAnalysis.class);
+        Thread thread = task.getProgram().getThreads().stream().filter(t -> t.getRegister("r1") != null).findFirst().orElseThrow();
+        Register r0 = thread.getRegister("r0");
+        Register r1 = thread.getRegister("r1");
+        assertEquals(8, widths.getWidth(r0));
+        assertEquals(9, widths.getWidth(r1));
+    }
+
+    private Result run(boolean inferWidths) throws Exception {
+        try (SolverContext ctx = TestHelper.createContext();
+             ProverEnvironment prover = ctx.newProverEnvironment(SolverContext.ProverOptions.GENERATE_MODELS)) {
+            return IncrementalSolver.run(ctx, prover, createTask(inferWidths)).getResult();
+        }
+    }
+
+    private VerificationTask createTask(boolean inferWidths) throws Exception {
+        Wmm wmm = new ParserCat().parse(new File(CAT_RESOURCE_PATH + "cat/linux-kernel.cat"));
+        return VerificationTask.builder()
+                .withConfig(Configuration.builder().setOption(BIT_WIDTH_INFERENCE, String.valueOf(inferWidths)).build())
+                .withTarget(LKMM)
+                .withBound(1)
+                .build(new ProgramParser().parse(new File(TEST_RESOURCE_PATH + "bitwidth/" + name + ".litmus")),
+                        wmm, Property.getDefault());
+    }
+}
@@ -0,0 +1,115 @@
+package com.dat3m.dartagnan.miscellaneous;
+
+import com.dat3m.dartagnan.configuration.Arch;
+import com.dat3m.dartagnan.configuration.Property;
+import com.dat3m.dartagnan.parsers.cat.ParserCat;
+import com.dat3m.dartagnan.parsers.program.ProgramParser;
+import com.dat3m.dartagnan.program.Thread;
+import com.dat3m.dartagnan.program.event.core.Event;
+import com.dat3m.dartagnan.program.event.core.Init;
+import com.dat3m.dartagnan.utils.Result;
+import com.dat3m.dartagnan.utils.TestHelper;
+import com.dat3m.dartagnan.verification.Context;
+import com.dat3m.dartagnan.verification.VerificationTask;
+import com.dat3m.dartagnan.verification.solving.IncrementalSolver;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.dat3m.dartagnan.configuration.Arch.ARM8;
+import static com.dat3m.dartagnan.configuration.Arch.TSO;
+import static com.dat3m.dartagnan.configuration.OptionNames.LAZY_INIT_EVENTS;
+import static com.dat3m.dartagnan.utils.ResourceHelper.CAT_RESOURCE_PATH;
+import static com.dat3m.dartagnan.utils.ResourceHelper.TEST_RESOURCE_PATH;
+import static com.dat3m.dartagnan.utils.Result.*;
+import static com.dat3m.dartagnan.verification.solving.ModelChecker.performStaticProgramAnalyses;
+import static com.dat3m.dartagnan.verification.solving.ModelChecker.preprocessProgram;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// Checks that removing Init events no load may read from does not change any verdict,
+// and that all other events keep their ids.
+@RunWith(Parameterized.class)
+public class LazyInitEventsTest {
+
+    @Parameterized.Parameters(name = "{index}: {0}, target={1}")
+    public static Iterable<Object[]> data() {
+        return Arrays.asList(new Object[][]{
+                {"miscellaneous/idd_dynamic", ARM8, 1, FAIL},
+                {"miscellaneous/propagatableSideEffects", ARM8, 3, FAIL},
+                {"miscellaneous/SB-RMW", TSO, 1, PASS},
+                {"locks/spinlock", TSO, 2, PASS},
+                {"locks/ttas", TSO, 2, UNKNOWN},
+        });
+    }
+
+    private final String name;
+    private final Arch target;
+    private final int bound;
+    private final Result expected;
+
+    public LazyInitEventsTest(String name, Arch target, int bound, Result expected) {
+        this.name = name;
+        this.target = target;
+        this.bound = bound;
+        this.expected = expected;
+    }
+
+    @Test
+    public void allInitEvents() throws Exception {
+        assertEquals(expected, run(false));
+    }
+
+    @Test
+    public void lazyInitEvents() throws Exception {
+        assertEquals(expected, run(true));
+    }
+
+    @Test
+    public void keepsEventIds() throws Exception {
+        List<String> all = analyzedEvents(false);
+        List<String> lazy = analyzedEvents(true);
+        assertTrue(lazy.size() < all.size());
+        assertTrue(all.containsAll(lazy));
+    }
+
+    private Result run(boolean lazy) throws Exception {
+        try (SolverContext ctx = TestHelper.createContext();
+             ProverEnvironment prover = ctx.newProverEnvironment(SolverContext.ProverOptions.GENERATE_MODELS)) {
+            return IncrementalSolver.run(ctx, prover, createTask(lazy)).getResult();
+        }
+    }
+
+    // Describes each event of the analyzed program by its thread, its id and, for Init events, the initialized field
+    private List<String> analyzedEvents(boolean lazy) throws Exception {
+        VerificationTask task = createTask(lazy);
+        preprocessProgram(task, task.getConfig());
+        performStaticProgramAnalyses(task, Context.create(), task.getConfig());
+        return task.getProgram().getThreads().stream()
+                .flatMap(t -> t.getEvents().stream().map(e -> describe(t, e)))
+                .collect(Collectors.toList());
+    }
+
+    private static String describe(Thread thread, Event e) {
+        String field = e instanceof Init ? " " + ((Init) e).getBase() + "[" + ((Init) e).getOffset() + "]" : "";
+        return thread.getId() + ":" + e.getGlobalId() + field;
+    }
+
+    private VerificationTask createTask(boolean lazy) throws Exception {
+        String cat = target == TSO ? "cat/tso.cat" : "cat/aarch64.cat";
+        return VerificationTask.builder()
+                .withConfig(Configuration.builder().setOption(LAZY_INIT_EVENTS, String.valueOf(lazy)).build())
+                .withTarget(target)
+                .withBound(bound)
+                .build(new ProgramParser().parse(new File(TEST_RESOURCE_PATH + name + ".bpl")),
+                        new ParserCat().parse(new File(CAT_RESOURCE_PATH + cat)), Property.getDefault());
+    }
+}
@@ -0,0 +1,153 @@
+package com.dat3m.dartagnan.miscellaneous;
+
+import com.dat3m.dartagnan.configuration.Arch;
+import com.dat3m.dartagnan.configuration.Property;
+import com.dat3m.dartagnan.encoding.EncodingContext;
+import com.dat3m.dartagnan.encoding.ProgramEncoder;
+import com.dat3m.dartagnan.encoding.WmmEncoder;
+import com.dat3m.dartagnan.parsers.cat.ParserCat;
+import com.dat3m.dartagnan.parsers.program.ProgramParser;
+import com.dat3m.dartagnan.solver.caat4wmm.LemmaStore;
+import com.dat3m.dartagnan.solver.caat4wmm.Refiner;
+import com.dat3m.dartagnan.solver.caat4wmm.coreReasoning.CoreLiteral;
+import com.dat3m.dartagnan.utils.Result;
+import com.dat3m.dartagnan.utils.TestHelper;
+import com.dat3m.dartagnan.utils.logic.Conjunction;
+import com.dat3m.dartagnan.utils.logic.DNF;
+import com.dat3m.dartagnan.verification.Context;
+import com.dat3m.dartagnan.verification.VerificationTask;
+import com.dat3m.dartagnan.verification.solving.RefinementSolver;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+
+import java.io.File;
+
+import static com.dat3m.dartagnan.configuration.Arch.IMM;
+import static com.dat3m.dartagnan.configuration.Arch.LKMM;
+import static com.dat3m.dartagnan.configuration.OptionNames.LEMMA_STORE;
+import static com.dat3m.dartagnan.utils.ResourceHelper.CAT_RESOURCE_PATH;
+import static com.dat3m.dartagnan.utils.ResourceHelper.TEST_RESOURCE_PATH;
+import static com.dat3m.dartagnan.utils.Result.*;
+import static com.dat3m.dartagnan.verification.solving.ModelChecker.*;
+import static org.junit.Assert.*;
+
+// Stores the lemmas of one program and reuses them for a changed program.
+// Each lemma that gets applied to the changed program must be implied by its eager encoding,
+// i.e. it must not exclude any consistent execution.
+public class LemmaStoreTest {
+
+    private static final String LKMM_CAT = "cat/linux-kernel.cat";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File store;
+
+    @Test
+    public void sameProgram() throws Exception {
+        assertTrue(reuse("lemmas/C-MP.litmus", "lemmas/C-MP.litmus", FAIL) > 0);
+    }
+
+    @Test
+    public void swappedThreads() throws Exception {
+        reuse("lemmas/C-MP.litmus", "lemmas/C-MP-swapped-threads.litmus", FAIL);
+    }
+
+    // The events keep their ids, but access other addresses
+    @Test
+    public void reorderedEvents() throws Exception {
+        reuse("lemmas/C-MP.litmus", "lemmas/C-MP-reordered.litmus", PASS);
+    }
+
+    @Test
+    public void insertedEvents() throws Exception {
+        reuse("lemmas/C-MP.litmus", "lemmas/C-MP-inserted.litmus", FAIL);
+    }
+
+    @Test
+    public void removedEvents() throws Exception {
+        reuse("lemmas/C-MP.litmus", "lemmas/C-MP-relaxed.litmus", PASS);
+    }
+
+    // The memory events keep their ids, but the fences got replaced
+    @Test
+    public void replacedEvents() throws Exception {
+        reuse("lemmas/C-MP.litmus", "lemmas/C-MP-no-fences.litmus", PASS);
+    }
+
+    @Test
+    public void otherMemoryModel() throws Exception {
+        store = folder.newFile("store.txt");
+        assertEquals(FAIL, refine(createTask("lemmas/C-MP.litmus", LKMM_CAT, LKMM, 1)));
+        assertEquals(0, checkApplicableLemmas(createTask("lemmas/C-MP.litmus", "cat/sc.cat", LKMM, 1)));
+        assertEquals(FAIL, refine(createTask("lemmas/C-MP.litmus", "cat/sc.cat", LKMM, 1)));
+    }
+
+    @Test
+    public void higherBound() throws Exception {
+        store = folder.newFile("store.txt");
+        assertEquals(UNKNOWN, refine(createTask("locks/ttas.bpl", "cat/imm.cat", IMM, 1)));
+        assertTrue(checkApplicableLemmas(createTask("locks/ttas.bpl", "cat/imm.cat", IMM, 2)) > 0);
+        assertEquals(UNKNOWN, refine(createTask("locks/ttas.bpl", "cat/imm.cat", IMM, 2)));
+    }
+
+    // Stores the lemmas of <source> and reuses them to verify <target>.
+    // Returns the number of lemmas applicable to <target>.
+    private int reuse(String source, String target, Result expected) throws Exception {
+        store = folder.newFile("store.txt");
+        refine(createTask(source, LKMM_CAT, LKMM, 1));
+        int numApplicable = checkApplicableLemmas(createTask(target, LKMM_CAT, LKMM, 1));
+        assertEquals(expected, refine(createTask(target, LKMM_CAT, LKMM, 1)));
+        return numApplicable;
+    }
+
+    private Result refine(VerificationTask task) throws Exception {
+        try (SolverContext ctx = TestHelper.createContext();
+             ProverEnvironment prover = ctx.newProverEnvironment(SolverContext.ProverOptions.GENERATE_MODELS)) {
+            return RefinementSolver.run(ctx, prover, task).getResult();
+        }
+    }
+
+    // Checks that each stored lemma applicable to <task> contradicts the eager encoding of <task>.
+    // Returns the number of applicable lemmas.
+    private int checkApplicableLemmas(VerificationTask task) throws Exception {
+        Configuration config = task.getConfig();
+        Context analysisContext = Context.create();
+        task.getMemoryModel().configureAll(config);
+        preprocessProgram(task, config);
+        preprocessMemoryModel(task);
+        performStaticProgramAnalyses(task, analysisContext, config);
+        performStaticWmmAnalyses(task, analysisContext, config);
+        DNF<CoreLiteral> lemmas = LemmaStore.fromConfig(task, analysisContext, config).load();
+
+        try (SolverContext ctx = TestHelper.createContext();
+             ProverEnvironment prover = ctx.newProverEnvironment()) {
+            EncodingContext context = EncodingContext.of(task, analysisContext, ctx.getFormulaManager());
+            BooleanFormulaManager bmgr = context.getBooleanFormulaManager();
+            prover.addConstraint(ProgramEncoder.withContext(context).encodeFullProgram());
+            prover.addConstraint(WmmEncoder.withContext(context).encodeFullMemoryModel());
+            for (Conjunction<CoreLiteral> lemma : lemmas.getCubes()) {
+                prover.push();
+                // The refinement of a lemma excludes its reason (and the symmetric ones)
+                prover.addConstraint(bmgr.not(new Refiner(analysisContext).refine(new DNF<>(lemma), context)));
+                assertTrue("Wrongly applied lemma " + lemma, prover.isUnsat());
+                prover.pop();
+            }
+        }
+        return lemmas.getNumberOfCubes();
+    }
+
+    private VerificationTask createTask(String path, String cat, Arch target, int bound) throws Exception {
+        return VerificationTask.builder()
+                .withConfig(Configuration.builder().setOption(LEMMA_STORE, store.getPath()).build())
+                .withTarget(target)
+                .withBound(bound)
+                .build(new ProgramParser().parse(new File(TEST_RESOURCE_PATH + path)),
+                        new ParserCat().parse(new File(CAT_RESOURCE_PATH + cat)), Property.getDefault());
+    }
+}
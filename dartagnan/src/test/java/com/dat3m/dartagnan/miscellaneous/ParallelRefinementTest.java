@@ -0,0 +1,107 @@
+package com.dat3m.dartagnan.miscellaneous;
+
+import com.dat3m.dartagnan.configuration.Property;
+import com.dat3m.dartagnan.parsers.cat.ParserCat;
+import com.dat3m.dartagnan.parsers.program.ProgramParser;
+import com.dat3m.dartagnan.utils.Result;
+import com.dat3m.dartagnan.utils.TestHelper;
+import com.dat3m.dartagnan.verification.VerificationTask;
+import com.dat3m.dartagnan.verification.solving.RefinementSolver;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.dat3m.dartagnan.configuration.Arch.IMM;
+import static com.dat3m.dartagnan.configuration.OptionNames.PARALLEL_POPULATION;
+import static com.dat3m.dartagnan.utils.ResourceHelper.CAT_RESOURCE_PATH;
+import static com.dat3m.dartagnan.utils.ResourceHelper.TEST_RESOURCE_PATH;
+import static com.dat3m.dartagnan.utils.Result.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// Runs many Refinement instances (and thus many WMMSolvers) at the same time in one JVM.
+// Each run has its own task, solver context and CAAT engine, so the results must not depend on the other runs.
+public class ParallelRefinementTest {
+
+    private static final int COPIES = 4;
+    private static final int THREADS = 8;
+
+    private static final Object[][] PROGRAMS = {
+            {"ttas", UNKNOWN},
+            {"ttas-acq2rx", FAIL},
+            {"ticketlock", PASS},
+            {"spinlock-rel2rx", FAIL},
+    };
+
+    @Test(timeout = 600000)
+    public void parallelRuns() throws Exception {
+        runInParallel(Configuration.defaultConfiguration(), readImm());
+    }
+
+    // Additionally, each CAAT check populates and checks its axioms concurrently
+    @Test(timeout = 600000)
+    public void parallelRunsWithParallelPopulation() throws Exception {
+        runInParallel(Configuration.builder().setOption(PARALLEL_POPULATION, "true").build(), readImm());
+    }
+
+    // Two axioms constrain <ar>, so their concurrent checks must not both populate it.
+    // The added axiom is implied by the acyclicity of <ar> and does not change any verdict.
+    @Test(timeout = 600000)
+    public void parallelPopulationWithTwoAxiomsOnOneRelation() throws Exception {
+        runInParallel(Configuration.builder().setOption(PARALLEL_POPULATION, "true").build(),
+                readImm() + "\nirreflexive ar as ar-irreflexive\n");
+    }
+
+    private static String readImm() throws IOException {
+        return Files.readString(Path.of(CAT_RESOURCE_PATH + "cat/imm.cat"));
+    }
+
+    private void runInParallel(Configuration config, String cat) throws Exception {
+        // Parsing happens sequentially, only the verification runs in parallel
+        List<VerificationTask> tasks = new ArrayList<>();
+        List<Result> expected = new ArrayList<>();
+        for (int i = 0; i < COPIES; i++) {
+            for (Object[] program : PROGRAMS) {
+                tasks.add(VerificationTask.builder()
+                        .withConfig(config)
+                        .withTarget(IMM)
+                        .withBound(1)
+                        .build(new ProgramParser().parse(new File(TEST_RESOURCE_PATH + "locks/" + program[0] + ".bpl")),
+                                new ParserCat().parse(cat),
+                                Property.getDefault()));
+                expected.add((Result) program[1]);
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Result>> results = new ArrayList<>();
+            for (VerificationTask task : tasks) {
+                results.add(executor.submit(() -> {
+                    try (SolverContext ctx = TestHelper.createContext();
+                         ProverEnvironment prover = ctx.newProverEnvironment(SolverContext.ProverOptions.GENERATE_MODELS)) {
+                        return RefinementSolver.run(ctx, prover, task).getResult();
+                    }
+                }));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(expected.get(i), results.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        }
+    }
+}
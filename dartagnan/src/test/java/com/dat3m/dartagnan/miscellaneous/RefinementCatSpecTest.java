@@ -0,0 +1,105 @@
+package com.dat3m.dartagnan.miscellaneous;
+
+import com.dat3m.dartagnan.configuration.Property;
+import com.dat3m.dartagnan.parsers.cat.ParserCat;
+import com.dat3m.dartagnan.parsers.program.ProgramParser;
+import com.dat3m.dartagnan.utils.ResourceHelper;
+import com.dat3m.dartagnan.utils.Result;
+import com.dat3m.dartagnan.utils.TestHelper;
+import com.dat3m.dartagnan.verification.VerificationTask;
+import com.dat3m.dartagnan.verification.solving.RefinementSolver;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.dat3m.dartagnan.configuration.Arch.LKMM;
+import static com.dat3m.dartagnan.configuration.OptionNames.FLAG_PROMOTION_THRESHOLD;
+import static com.dat3m.dartagnan.configuration.OptionNames.INITIALIZE_REGISTERS;
+import static com.dat3m.dartagnan.utils.ResourceHelper.CAT_RESOURCE_PATH;
+import static com.dat3m.dartagnan.utils.ResourceHelper.LITMUS_RESOURCE_PATH;
+import static org.junit.Assert.assertEquals;
+
+// Checks the data races of the Linux kernel model (a CAT specification given by flagged axioms) with Refinement.
+// The race-free tests with many threads have a lot of executions, which must not get enumerated one by one
+// (by default, the flagged axioms get promoted instead).
+@RunWith(Parameterized.class)
+public class RefinementCatSpecTest {
+
+    private static final String[] DIRECTORIES = {"manual/atomic", "manual/plain"};
+    private static final String[] FILES = {
+            "auto/C-LB-GRR+OB-O+OB-O+OB-O+OB-OB",
+            "auto/C-LB-GRR+OB-O+OB-O+OB-OB",
+            "auto/C-LB-Lww+R-A+R-A+R-A",
+            "auto/C-LB-Lrw+R-Oc+R-Oc+R-Oc",
+    };
+
+    @Parameterized.Parameters(name = "{index}: {0}")
+    public static Iterable<Object[]> data() throws IOException {
+        Map<String, Result> expected = ResourceHelper.getExpectedResults("LKMM", "-DR");
+        List<String> files = new ArrayList<>();
+        for (String directory : DIRECTORIES) {
+            try (Stream<Path> paths = Files.walk(Paths.get(LITMUS_RESOURCE_PATH + "litmus/LKMM/" + directory))) {
+                files.addAll(paths.map(Path::toString).filter(f -> f.endsWith(".litmus")).sorted().collect(Collectors.toList()));
+            }
+        }
+        for (String file : FILES) {
+            files.add(LITMUS_RESOURCE_PATH + "litmus/LKMM/" + file + ".litmus");
+        }
+        List<Object[]> data = new ArrayList<>();
+        for (String file : files) {
+            Result result = expected.get(file.substring(LITMUS_RESOURCE_PATH.length()));
+            if (result != null) {
+                data.add(new Object[]{file, result});
+            }
+        }
+        return data;
+    }
+
+    private final String path;
+    private final Result expected;
+
+    public RefinementCatSpecTest(String path, Result expected) {
+        this.path = path;
+        this.expected = expected;
+    }
+
+    @Test(timeout = 60000)
+    public void dataRaces() throws Exception {
+        assertEquals(expected, run(Configuration.defaultConfiguration()));
+    }
+
+    // The flags are only checked on the found executions
+    @Test(timeout = 60000)
+    public void dataRacesWithoutFlagPromotion() throws Exception {
+        assertEquals(expected, run(Configuration.builder().setOption(FLAG_PROMOTION_THRESHOLD, "0").build()));
+    }
+
+    private Result run(Configuration config) throws Exception {
+        VerificationTask task = VerificationTask.builder()
+                .withConfig(Configuration.builder().copyFrom(config).setOption(INITIALIZE_REGISTERS, "true").build())
+                .withTarget(LKMM)
+                .withBound(1)
+                .build(new ProgramParser().parse(new File(path)),
+                        new ParserCat().parse(new File(CAT_RESOURCE_PATH + "cat/linux-kernel.cat")),
+                        EnumSet.of(Property.CAT_SPEC));
+        try (SolverContext ctx = TestHelper.createContext();
+             ProverEnvironment prover = ctx.newProverEnvironment(SolverContext.ProverOptions.GENERATE_MODELS)) {
+            return RefinementSolver.run(ctx, prover, task).getResult();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.dat3m.dartagnan.miscellaneous;
+
+import com.dat3m.dartagnan.configuration.Property;
+import com.dat3m.dartagnan.parsers.cat.ParserCat;
+import com.dat3m.dartagnan.parsers.program.ProgramParser;
+import com.dat3m.dartagnan.utils.TestHelper;
+import com.dat3m.dartagnan.verification.VerificationTask;
+import com.dat3m.dartagnan.verification.model.EventData;
+import com.dat3m.dartagnan.verification.model.ExecutionModel;
+import com.dat3m.dartagnan.verification.solving.RefinementSolver;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+
+import java.io.File;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static com.dat3m.dartagnan.configuration.Arch.TSO;
+import static com.dat3m.dartagnan.configuration.OptionNames.MODELS_PER_ITERATION;
+import static com.dat3m.dartagnan.utils.ResourceHelper.CAT_RESOURCE_PATH;
+import static com.dat3m.dartagnan.utils.ResourceHelper.LITMUS_RESOURCE_PATH;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+// Checks that the model Refinement leaves in the prover (which gets reported and turned into witnesses)
+// is the consistent execution it found, even if that execution stems from another model than the first one.
+@RunWith(Parameterized.class)
+public class RefinementModelTest {
+
+    private static final int MODELS_PER_ITERATION_VALUE = 4;
+
+    @Parameterized.Parameters(name = "{index}: {0}")
+    public static Iterable<Object[]> data() {
+        File[] files = new File(LITMUS_RESOURCE_PATH + "litmus/X86/").listFiles((dir, name) -> name.endsWith(".litmus"));
+        return Arrays.stream(files).map(File::getName).sorted().limit(80)
+                .map(name -> new Object[]{name}).collect(Collectors.toList());
+    }
+
+    private final String name;
+
+    public RefinementModelTest(String name) {
+        this.name = name;
+    }
+
+    @Test
+    public void reportedModelIsConsistent() throws Exception {
+        VerificationTask task = VerificationTask.builder()
+                .withConfig(Configuration.builder().setOption(MODELS_PER_ITERATION, String.valueOf(MODELS_PER_ITERATION_VALUE)).build())
+                .withTarget(TSO)
+                .withBound(1)
+                .build(new ProgramParser().parse(new File(LITMUS_RESOURCE_PATH + "litmus/X86/" + name)),
+                        new ParserCat().parse(new File(CAT_RESOURCE_PATH + "cat/sc.cat")),
+                        Property.getDefault());
+        try (SolverContext ctx = TestHelper.createContext();
+             ProverEnvironment prover = ctx.newProverEnvironment(SolverContext.ProverOptions.GENERATE_MODELS)) {
+            RefinementSolver solver = RefinementSolver.run(ctx, prover, task);
+            assumeTrue(solver.hasModel());
+            ExecutionModel execution = ExecutionModel.withContext(solver.getEncodingContext());
+            execution.initialize(prover.getModel());
+            assertTrue("The reported execution is not sequentially consistent", isSequentiallyConsistent(execution));
+        }
+    }
+
+    // Checks the acyclicity of po | rf | co | fr over the memory events of <execution>
+    private static boolean isSequentiallyConsistent(ExecutionModel execution) {
+        Map<EventData, Set<EventData>> edges = new HashMap<>();
+        for (List<EventData> events : execution.getThreadEventsMap().values()) {
+            List<EventData> memoryEvents = events.stream().filter(EventData::isMemoryEvent).collect(Collectors.toList());
+            for (int i = 1; i < memoryEvents.size(); i++) {
+                addEdge(edges, memoryEvents.get(i - 1), memoryEvents.get(i));
+            }
+        }
+        for (Map.Entry<EventData, EventData> rf : execution.getReadWriteMap().entrySet()) {
+            addEdge(edges, rf.getValue(), rf.getKey());
+        }
+        for (List<EventData> co : execution.getCoherenceMap().values()) {
+            for (int i = 1; i < co.size(); i++) {
+                addEdge(edges, co.get(i - 1), co.get(i));
+            }
+            for (Map.Entry<EventData, EventData> rf : execution.getReadWriteMap().entrySet()) {
+                int index = co.indexOf(rf.getValue());
+                if (index >= 0 && index + 1 < co.size()) {
+                    addEdge(edges, rf.getKey(), co.get(index + 1));
+                }
+            }
+        }
+        Set<EventData> visited = new HashSet<>();
+        Set<EventData> onStack = new HashSet<>();
+        for (EventData e : edges.keySet()) {
+            if (hasCycle(e, edges, visited, onStack)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void addEdge(Map<EventData, Set<EventData>> edges, EventData from, EventData to) {
+        edges.computeIfAbsent(from, k -> new HashSet<>()).add(to);
+    }
+
+    private static boolean hasCycle(EventData e, Map<EventData, Set<EventData>> edges, Set<EventData> visited, Set<EventData> onStack) {
+        if (onStack.contains(e)) {
+            return true;
+        }
+        if (!visited.add(e)) {
+            return false;
+        }
+        onStack.add(e);
+        for (EventData next : edges.getOrDefault(e, Set.of())) {
+            if (hasCycle(next, edges, visited, onStack)) {
+                return true;
+            }
+        }
+        onStack.remove(e);
+        return false;
+    }
+}
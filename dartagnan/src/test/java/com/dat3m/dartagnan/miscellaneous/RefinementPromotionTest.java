@@ -0,0 +1,92 @@
+package com.dat3m.dartagnan.miscellaneous;
+
+import com.dat3m.dartagnan.configuration.Property;
+import com.dat3m.dartagnan.parsers.cat.ParserCat;
+import com.dat3m.dartagnan.parsers.program.ProgramParser;
+import com.dat3m.dartagnan.utils.ResourceHelper;
+import com.dat3m.dartagnan.utils.Result;
+import com.dat3m.dartagnan.utils.TestHelper;
+import com.dat3m.dartagnan.verification.VerificationTask;
+import com.dat3m.dartagnan.verification.solving.RefinementSolver;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.dat3m.dartagnan.configuration.Arch.LKMM;
+import static com.dat3m.dartagnan.configuration.OptionNames.PROMOTION_THRESHOLD;
+import static com.dat3m.dartagnan.utils.ResourceHelper.CAT_RESOURCE_PATH;
+import static com.dat3m.dartagnan.utils.ResourceHelper.LITMUS_RESOURCE_PATH;
+import static org.junit.Assert.assertEquals;
+
+// Checks that encoding axioms eagerly in the middle of a Refinement run does not change any verdict.
+// The Linux kernel model has relation differences, so the eager encoding of the promoted axioms
+// shares the variables of cut relations with the baseline encoding.
+@RunWith(Parameterized.class)
+public class RefinementPromotionTest {
+
+    private static final String[] DIRECTORIES = {"atomic", "deps", "memory_barriers"};
+
+    @Parameterized.Parameters(name = "{index}: {0}")
+    public static Iterable<Object[]> data() throws IOException {
+        Map<String, Result> expected = ResourceHelper.getExpectedResults("LKMM", "");
+        List<Object[]> data = new ArrayList<>();
+        for (String directory : DIRECTORIES) {
+            try (Stream<Path> files = Files.walk(Paths.get(LITMUS_RESOURCE_PATH + "litmus/LKMM/manual/" + directory))) {
+                for (String file : files.map(Path::toString).filter(f -> f.endsWith(".litmus")).sorted().collect(Collectors.toList())) {
+                    Result result = expected.get(file.substring(LITMUS_RESOURCE_PATH.length()));
+                    if (result != null) {
+                        data.add(new Object[]{file, result});
+                    }
+                }
+            }
+        }
+        return data;
+    }
+
+    private final String path;
+    private final Result expected;
+
+    public RefinementPromotionTest(String path, Result expected) {
+        this.path = path;
+        this.expected = expected;
+    }
+
+    // Promotes every axiom as soon as it gets violated
+    @Test
+    public void immediatePromotion() throws Exception {
+        assertEquals(expected, run(1));
+    }
+
+    @Test
+    public void delayedPromotion() throws Exception {
+        assertEquals(expected, run(3));
+    }
+
+    private Result run(int threshold) throws Exception {
+        VerificationTask task = VerificationTask.builder()
+                .withConfig(Configuration.builder().setOption(PROMOTION_THRESHOLD, String.valueOf(threshold)).build())
+                .withTarget(LKMM)
+                .withBound(1)
+                .build(new ProgramParser().parse(new File(path)),
+                        new ParserCat().parse(new File(CAT_RESOURCE_PATH + "cat/linux-kernel.cat")),
+                        Property.getDefault());
+        try (SolverContext ctx = TestHelper.createContext();
+             ProverEnvironment prover = ctx.newProverEnvironment(SolverContext.ProverOptions.GENERATE_MODELS)) {
+            return RefinementSolver.run(ctx, prover, task).getResult();
+        }
+    }
+}
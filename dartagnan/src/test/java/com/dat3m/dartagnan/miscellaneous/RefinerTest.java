@@ -0,0 +1,80 @@
+package com.dat3m.dartagnan.miscellaneous;
+
+import com.dat3m.dartagnan.configuration.Property;
+import com.dat3m.dartagnan.encoding.EncodingContext;
+import com.dat3m.dartagnan.parsers.cat.ParserCat;
+import com.dat3m.dartagnan.parsers.program.ProgramParser;
+import com.dat3m.dartagnan.program.event.core.Event;
+import com.dat3m.dartagnan.program.event.core.MemEvent;
+import com.dat3m.dartagnan.solver.caat4wmm.Refiner;
+import com.dat3m.dartagnan.solver.caat4wmm.coreReasoning.CoreLiteral;
+import com.dat3m.dartagnan.solver.caat4wmm.coreReasoning.ExecLiteral;
+import com.dat3m.dartagnan.utils.TestHelper;
+import com.dat3m.dartagnan.utils.logic.Conjunction;
+import com.dat3m.dartagnan.utils.logic.DNF;
+import com.dat3m.dartagnan.verification.Context;
+import com.dat3m.dartagnan.verification.VerificationTask;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.SolverContext;
+
+import java.io.File;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.dat3m.dartagnan.configuration.Arch.LKMM;
+import static com.dat3m.dartagnan.program.event.Tag.INIT;
+import static com.dat3m.dartagnan.utils.ResourceHelper.CAT_RESOURCE_PATH;
+import static com.dat3m.dartagnan.utils.ResourceHelper.TEST_RESOURCE_PATH;
+import static com.dat3m.dartagnan.verification.solving.ModelChecker.*;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+// Checks that the Refiner skips reasons that are subsumed by the reasons it refined before
+public class RefinerTest {
+
+    @Test
+    public void skipsRefinedReasons() throws Exception {
+        VerificationTask task = VerificationTask.builder()
+                .withTarget(LKMM)
+                .withBound(1)
+                .build(new ProgramParser().parse(new File(TEST_RESOURCE_PATH + "lemmas/C-MP.litmus")),
+                        new ParserCat().parse(new File(CAT_RESOURCE_PATH + "cat/linux-kernel.cat")),
+                        Property.getDefault());
+        Configuration config = task.getConfig();
+        Context analysisContext = Context.create();
+        task.getMemoryModel().configureAll(config);
+        preprocessProgram(task, config);
+        preprocessMemoryModel(task);
+        performStaticProgramAnalyses(task, analysisContext, config);
+        performStaticWmmAnalyses(task, analysisContext, config);
+        List<Event> events = task.getProgram().getEvents(MemEvent.class).stream()
+                .filter(e -> !e.is(INIT)).collect(Collectors.toList());
+        CoreLiteral a = new ExecLiteral(events.get(0));
+        CoreLiteral b = new ExecLiteral(events.get(1));
+        CoreLiteral c = new ExecLiteral(events.get(2));
+        CoreLiteral d = new ExecLiteral(events.get(3));
+
+        try (SolverContext ctx = TestHelper.createContext()) {
+            EncodingContext context = EncodingContext.of(task, analysisContext, ctx.getFormulaManager());
+            BooleanFormulaManager bmgr = context.getBooleanFormulaManager();
+            Refiner refiner = new Refiner(analysisContext);
+            assertFalse(bmgr.isTrue(refine(refiner, context, new Conjunction<>(a, b))));
+            // Equal and subsumed reasons
+            assertTrue(bmgr.isTrue(refine(refiner, context, new Conjunction<>(b, a))));
+            assertTrue(bmgr.isTrue(refine(refiner, context, new Conjunction<>(a, b, c))));
+            // Disjoint and overlapping reasons
+            assertFalse(bmgr.isTrue(refine(refiner, context, new Conjunction<>(c, d))));
+            assertFalse(bmgr.isTrue(refine(refiner, context, new Conjunction<>(a, d))));
+            assertTrue(bmgr.isTrue(refine(refiner, context, new Conjunction<>(a, c, d))));
+            // A new refiner has not refined anything yet
+            assertFalse(bmgr.isTrue(refine(new Refiner(analysisContext), context, new Conjunction<>(a, b, c))));
+        }
+    }
+
+    private static BooleanFormula refine(Refiner refiner, EncodingContext context, Conjunction<CoreLiteral> reason) {
+        return refiner.refine(new DNF<>(reason), context);
+    }
+}
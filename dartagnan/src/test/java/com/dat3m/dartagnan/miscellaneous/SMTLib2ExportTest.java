@@ -0,0 +1,146 @@
+package com.dat3m.dartagnan.miscellaneous;
+
+import com.dat3m.dartagnan.configuration.Property;
+import com.dat3m.dartagnan.encoding.SMTLib2Exporter;
+import com.dat3m.dartagnan.parsers.cat.ParserCat;
+import com.dat3m.dartagnan.parsers.program.ProgramParser;
+import com.dat3m.dartagnan.utils.Result;
+import com.dat3m.dartagnan.utils.TestHelper;
+import com.dat3m.dartagnan.verification.VerificationTask;
+import com.dat3m.dartagnan.verification.solving.IncrementalSolver;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.dat3m.dartagnan.configuration.Arch.TSO;
+import static com.dat3m.dartagnan.configuration.OptionNames.SMTLIB2_EXPORT_ONLY;
+import static com.dat3m.dartagnan.configuration.OptionNames.SMTLIB2_EXPORT_PATH;
+import static com.dat3m.dartagnan.utils.ResourceHelper.CAT_RESOURCE_PATH;
+import static com.dat3m.dartagnan.utils.ResourceHelper.LITMUS_RESOURCE_PATH;
+import static org.junit.Assert.*;
+
+public class SMTLib2ExportTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void reachableCondition() throws Exception {
+        // SB can reach its condition under TSO
+        assertFalse(checkExportedPropertyQuery("SB"));
+    }
+
+    @Test
+    public void unreachableCondition() throws Exception {
+        // The fences forbid the condition of SB
+        assertTrue(checkExportedPropertyQuery("SB+mfences"));
+    }
+
+    @Test
+    public void incompleteQueryIsDeleted() throws Exception {
+        File file = new File(folder.getRoot(), "incomplete.smt2");
+        Configuration config = Configuration.builder().setOption(SMTLIB2_EXPORT_PATH, file.getPath()).build();
+        try (SolverContext ctx = TestHelper.createContext()) {
+            BooleanFormulaManager bmgr = ctx.getFormulaManager().getBooleanFormulaManager();
+            try (SMTLib2Exporter exporter = SMTLib2Exporter.fromConfig(ctx.getFormulaManager(), config)) {
+                exporter.add(bmgr.makeVariable("x"));
+                assertTrue(file.exists());
+            }
+        }
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void declarationsAfterPop() throws Exception {
+        File file = new File(folder.getRoot(), "scopes.smt2");
+        Configuration config = Configuration.builder().setOption(SMTLIB2_EXPORT_PATH, file.getPath()).build();
+        try (SolverContext ctx = TestHelper.createContext()) {
+            BooleanFormulaManager bmgr = ctx.getFormulaManager().getBooleanFormulaManager();
+            try (SMTLib2Exporter exporter = SMTLib2Exporter.fromConfig(ctx.getFormulaManager(), config)) {
+                exporter.add(bmgr.makeVariable("outer"));
+                exporter.push();
+                exporter.add(bmgr.and(bmgr.makeVariable("outer"), bmgr.makeVariable("inner")));
+                exporter.add(bmgr.makeVariable("inner"));
+                exporter.checkSat();
+                exporter.pop();
+                // The declaration of <inner> was popped together with its scope
+                exporter.add(bmgr.or(bmgr.makeVariable("outer"), bmgr.makeVariable("inner")));
+                exporter.checkSat();
+                exporter.finish();
+            }
+        }
+        List<String> lines = Files.readAllLines(file.toPath());
+        assertEquals(1, lines.stream().filter(l -> l.startsWith("(declare-fun outer ")).count());
+        List<Integer> innerDeclarations = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            if (lines.get(i).startsWith("(declare-fun inner ")) {
+                innerDeclarations.add(i);
+            }
+        }
+        int pop = lines.indexOf("(pop 1)");
+        assertEquals(2, innerDeclarations.size());
+        assertTrue(innerDeclarations.get(0) > lines.indexOf("(push 1)") && innerDeclarations.get(0) < pop);
+        assertTrue(innerDeclarations.get(1) > pop);
+    }
+
+    // Exports the query of <name> and parses everything up to the first (check-sat) back in,
+    // i.e. the encoding together with the property check.
+    // Returns true if the property check is unsatisfiable.
+    private boolean checkExportedPropertyQuery(String name) throws Exception {
+        File file = new File(folder.getRoot(), name + ".smt2");
+        Configuration config = Configuration.builder()
+                .setOption(SMTLIB2_EXPORT_PATH, file.getPath())
+                .setOption(SMTLIB2_EXPORT_ONLY, "true")
+                .build();
+        VerificationTask task = VerificationTask.builder()
+                .withConfig(config)
+                .withTarget(TSO)
+                .withBound(1)
+                .build(new ProgramParser().parse(new File(LITMUS_RESOURCE_PATH + "litmus/X86/" + name + ".litmus")),
+                        new ParserCat().parse(new File(CAT_RESOURCE_PATH + "cat/tso.cat")),
+                        Property.getDefault());
+
+        try (SolverContext ctx = TestHelper.createContext();
+             ProverEnvironment prover = ctx.newProverEnvironment()) {
+            IncrementalSolver solver = IncrementalSolver.run(ctx, prover, task);
+            // Nothing gets solved if we only export
+            assertEquals(Result.UNKNOWN, solver.getResult());
+        }
+
+        List<String> lines = Files.readAllLines(file.toPath());
+        assertEquals("(exit)", lines.get(lines.size() - 1));
+        // Commands start at the beginning of a line, their continuation lines are indented
+        List<String> commands = new ArrayList<>();
+        for (String line : lines) {
+            if (line.startsWith("(")) {
+                commands.add(line);
+            } else if (!line.startsWith(";") && !commands.isEmpty()) {
+                commands.set(commands.size() - 1, commands.get(commands.size() - 1) + "\n" + line);
+            }
+        }
+        commands = commands.subList(0, commands.indexOf("(check-sat)"));
+        String declarations = commands.stream()
+                .filter(c -> c.startsWith("(declare") || c.startsWith("(define"))
+                .collect(Collectors.joining("\n"));
+        try (SolverContext ctx = TestHelper.createContext();
+             ProverEnvironment prover = ctx.newProverEnvironment()) {
+            // The formula manager parses only a single assertion at a time
+            for (String command : commands) {
+                if (command.startsWith("(assert")) {
+                    prover.addConstraint(ctx.getFormulaManager().parse(declarations + "\n" + command));
+                }
+            }
+            return prover.isUnsat();
+        }
+    }
+}
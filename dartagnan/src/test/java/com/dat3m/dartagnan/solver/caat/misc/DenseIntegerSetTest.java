@@ -0,0 +1,182 @@
+package com.dat3m.dartagnan.solver.caat.misc;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class DenseIntegerSetTest {
+
+    @Test
+    public void addRemoveIterate() {
+        DenseIntegerSet set = new DenseIntegerSet(10);
+        // Out of order and across several words
+        for (int e : new int[]{1000, 64, 3, 63, 200, 0, 64}) {
+            set.add(e);
+        }
+        assertEquals(List.of(0, 3, 63, 64, 200, 1000), toList(set));
+        assertEquals(6, set.size());
+
+        // Removing 64 and 200 empties their words
+        assertTrue(set.remove(64));
+        assertTrue(set.remove(200));
+        assertFalse(set.remove(200));
+        assertFalse(set.remove(5000));
+        assertFalse(set.contains(64));
+        assertEquals(List.of(0, 3, 63, 1000), toList(set));
+        assertEquals(4, set.size());
+
+        // Words that became empty can be used again
+        assertTrue(set.add(130));
+        assertTrue(set.add(64));
+        assertEquals(List.of(0, 3, 63, 64, 130, 1000), toList(set));
+        assertEquals(set.size(), set.intStream().count());
+    }
+
+    @Test
+    public void clear() {
+        DenseIntegerSet set = new DenseIntegerSet();
+        set.addAll(List.of(5, 70, 700));
+        set.remove(70);
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(5));
+        assertFalse(set.contains(700));
+        assertFalse(set.iterator().hasNext());
+
+        set.addAll(List.of(700, 6));
+        assertEquals(List.of(6, 700), toList(set));
+    }
+
+    @Test
+    public void bulkOperationsAcrossCapacities() {
+        DenseIntegerSet small = new DenseIntegerSet(10);
+        small.addAll(List.of(1, 5, 9));
+        DenseIntegerSet large = new DenseIntegerSet(1000);
+        large.addAll(List.of(5, 64, 999));
+
+        DenseIntegerSet or = copy(small);
+        assertTrue(or.or(large));
+        assertEquals(List.of(1, 5, 9, 64, 999), toList(or));
+        assertEquals(5, or.size());
+        assertFalse(or.or(small));
+
+        DenseIntegerSet and = copy(large);
+        assertTrue(and.and(small));
+        assertEquals(List.of(5), toList(and));
+        assertEquals(1, and.size());
+        assertFalse(and.and(large));
+
+        DenseIntegerSet andNot = copy(large);
+        assertTrue(andNot.andNot(small));
+        assertEquals(List.of(64, 999), toList(andNot));
+        assertFalse(andNot.andNot(small));
+
+        // The small set has no words for the elements of the large one
+        DenseIntegerSet smallAnd = copy(small);
+        assertTrue(smallAnd.and(large));
+        assertEquals(List.of(5), toList(smallAnd));
+        DenseIntegerSet smallAndNot = copy(small);
+        assertTrue(smallAndNot.removeAll(large));
+        assertEquals(List.of(1, 9), toList(smallAndNot));
+        DenseIntegerSet largeAnd = copy(large);
+        largeAnd.retainAll(new DenseIntegerSet(0));
+        assertTrue(largeAnd.isEmpty());
+    }
+
+    @Test
+    public void retainAllAndRemoveAllWithOtherCollections() {
+        DenseIntegerSet set = new DenseIntegerSet();
+        set.addAll(List.of(1, 2, 64, 65, 300));
+
+        assertTrue(set.retainAll(new HashSet<>(List.of(2, 64, 300, 400))));
+        assertEquals(List.of(2, 64, 300), toList(set));
+        assertFalse(set.retainAll(List.of(2, 64, 300)));
+
+        assertTrue(set.removeAll(List.of(64, 7)));
+        assertEquals(List.of(2, 300), toList(set));
+        assertFalse(set.removeAll(Set.of(64)));
+        assertEquals(2, set.size());
+        assertTrue(set.containsAll(List.of(2, 300)));
+        assertFalse(set.containsAll(List.of(2, 64)));
+    }
+
+    // Compares random operations with a TreeSet
+    @Test
+    public void randomOperations() {
+        Random random = new Random(0);
+        DenseIntegerSet set = new DenseIntegerSet(16);
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int step = 0; step < 5000; step++) {
+            int bound = random.nextBoolean() ? 100 : 2000;
+            switch (random.nextInt(8)) {
+                case 0:
+                case 1: {
+                    int e = random.nextInt(bound);
+                    assertEquals(expected.add(e), set.add(e));
+                    break;
+                }
+                case 2: {
+                    int e = random.nextInt(bound);
+                    assertEquals(expected.remove(e), set.remove(e));
+                    break;
+                }
+                case 3: {
+                    Set<Integer> other = randomSet(random, bound);
+                    DenseIntegerSet dense = new DenseIntegerSet(random.nextInt(bound));
+                    dense.addAll(other);
+                    assertEquals(expected.addAll(other), set.or(dense));
+                    break;
+                }
+                case 4: {
+                    Set<Integer> other = randomSet(random, bound);
+                    other.addAll(expected.stream().filter(e -> random.nextInt(4) != 0).collect(Collectors.toList()));
+                    DenseIntegerSet dense = new DenseIntegerSet(random.nextInt(bound));
+                    dense.addAll(other);
+                    assertEquals(expected.retainAll(other), random.nextBoolean() ? set.and(dense) : set.retainAll(other));
+                    break;
+                }
+                case 5: {
+                    Set<Integer> other = randomSet(random, bound);
+                    DenseIntegerSet dense = new DenseIntegerSet(random.nextInt(bound));
+                    dense.addAll(other);
+                    assertEquals(expected.removeAll(other), random.nextBoolean() ? set.andNot(dense) : set.removeAll(other));
+                    break;
+                }
+                case 6:
+                    if (random.nextInt(20) == 0) {
+                        expected.clear();
+                        set.clear();
+                    }
+                    break;
+                default:
+                    assertEquals(new ArrayList<>(expected), toList(set));
+            }
+            assertEquals(expected.size(), set.size());
+        }
+        assertEquals(new ArrayList<>(expected), toList(set));
+    }
+
+    private static Set<Integer> randomSet(Random random, int bound) {
+        Set<Integer> set = new HashSet<>();
+        int size = random.nextInt(20);
+        for (int i = 0; i < size; i++) {
+            set.add(random.nextInt(bound));
+        }
+        return set;
+    }
+
+    private static DenseIntegerSet copy(DenseIntegerSet set) {
+        DenseIntegerSet copy = new DenseIntegerSet();
+        copy.or(set);
+        return copy;
+    }
+
+    private static List<Integer> toList(DenseIntegerSet set) {
+        List<Integer> list = new ArrayList<>();
+        set.intIterator().forEachRemaining((int e) -> list.add(e));
+        return list;
+    }
+}
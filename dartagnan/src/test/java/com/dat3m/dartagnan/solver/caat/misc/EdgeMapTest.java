@@ -0,0 +1,161 @@
+package com.dat3m.dartagnan.solver.caat.misc;
+
+import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.Edge;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class EdgeMapTest {
+
+    @Test
+    public void collisions() {
+        EdgeMap map = new EdgeMap();
+        // Five pairs with the same home slot and two pairs with the next one, so that their probe sequences overlap
+        List<Edge> edges = new ArrayList<>();
+        edges.addAll(findPairs(map, 0, 5));
+        edges.addAll(findPairs(map, 1, 2));
+        for (Edge e : edges) {
+            assertNull(map.putIfAbsent(e));
+        }
+        for (Edge e : edges) {
+            assertSame(e, map.get(e.getFirst(), e.getSecond()));
+            assertSame(e, map.putIfAbsent(new Edge(e.getFirst(), e.getSecond())));
+        }
+        assertEquals(edges.size(), map.size());
+
+        // Removing from the middle of the probe sequence must move back the later entries
+        for (int i : new int[]{1, 5, 0}) {
+            Edge e = edges.get(i);
+            assertSame(e, map.remove(e.getFirst(), e.getSecond()));
+            assertNull(map.remove(e.getFirst(), e.getSecond()));
+        }
+        for (int i = 0; i < edges.size(); i++) {
+            Edge e = edges.get(i);
+            assertEquals(i != 0 && i != 1 && i != 5, map.contains(e.getFirst(), e.getSecond()));
+        }
+        assertEquals(edges.size() - 3, map.size());
+
+        // Reinsertion
+        for (int i : new int[]{5, 1, 0}) {
+            Edge e = edges.get(i);
+            assertNull(map.putIfAbsent(e));
+        }
+        for (Edge e : edges) {
+            assertSame(e, map.get(e.getFirst(), e.getSecond()));
+        }
+        assertEquals(edges.size(), map.size());
+    }
+
+    @Test
+    public void resize() {
+        EdgeMap map = new EdgeMap();
+        for (int i = 0; i < 100; i++) {
+            for (int j = 0; j < 100; j++) {
+                assertNull(map.putIfAbsent(new Edge(i, j)));
+            }
+        }
+        assertEquals(10000, map.size());
+        for (int i = 0; i < 100; i++) {
+            for (int j = 0; j < 100; j++) {
+                Edge e = map.get(i, j);
+                assertEquals(i, e.getFirst());
+                assertEquals(j, e.getSecond());
+            }
+        }
+        assertNull(map.get(100, 0));
+        assertNull(map.get(0, -1));
+    }
+
+    @Test
+    public void clearAndReuse() {
+        EdgeMap map = new EdgeMap();
+        for (int i = 0; i < 500; i++) {
+            map.putIfAbsent(new Edge(i, i + 1));
+        }
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertFalse(map.contains(0, 1));
+        assertNull(map.remove(7, 8));
+
+        Edge e = new Edge(7, 8);
+        assertNull(map.putIfAbsent(e));
+        assertSame(e, map.get(7, 8));
+        assertFalse(map.contains(6, 7));
+        assertEquals(1, map.size());
+        map.clear();
+        map.clear();
+        assertNull(map.get(7, 8));
+    }
+
+    @Test
+    public void generationWrapAround() {
+        EdgeMap map = new EdgeMap(Integer.MAX_VALUE - 2);
+        for (int round = 0; round < 5; round++) {
+            // The pairs of the previous round, which occupy the same slots, must be gone
+            assertTrue(map.isEmpty());
+            for (int i = 0; i < 50; i++) {
+                assertFalse(map.contains(i, round - 1));
+                assertNull(map.putIfAbsent(new Edge(i, round)));
+            }
+            for (int i = 0; i < 50; i++) {
+                assertEquals(round, map.get(i, round).getSecond());
+            }
+            assertEquals(50, map.size());
+            map.remove(0, round);
+            map.clear();
+        }
+        // Pairs that stayed in the map until the wrap-around must not reappear
+        for (int round = 0; round < 5; round++) {
+            assertFalse(map.contains(1, round));
+        }
+    }
+
+    // Compares random operations with a HashMap
+    @Test
+    public void randomOperations() {
+        Random random = new Random(0);
+        EdgeMap map = new EdgeMap();
+        Map<List<Integer>, Edge> expected = new HashMap<>();
+        for (int step = 0; step < 50000; step++) {
+            int bound = random.nextBoolean() ? 10 : 60;
+            int id1 = random.nextInt(bound);
+            int id2 = random.nextInt(bound);
+            List<Integer> key = List.of(id1, id2);
+            switch (random.nextInt(5)) {
+                case 0:
+                case 1: {
+                    Edge e = new Edge(id1, id2);
+                    assertSame(expected.putIfAbsent(key, e), map.putIfAbsent(e));
+                    break;
+                }
+                case 2:
+                case 3:
+                    assertSame(expected.remove(key), map.remove(id1, id2));
+                    break;
+                default:
+                    if (random.nextInt(500) == 0) {
+                        expected.clear();
+                        map.clear();
+                    } else {
+                        assertSame(expected.get(key), map.get(id1, id2));
+                    }
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (Map.Entry<List<Integer>, Edge> entry : expected.entrySet()) {
+            assertSame(entry.getValue(), map.get(entry.getKey().get(0), entry.getKey().get(1)));
+        }
+    }
+
+    private static List<Edge> findPairs(EdgeMap map, int homeSlot, int count) {
+        List<Edge> pairs = new ArrayList<>();
+        for (int id = 0; pairs.size() < count; id++) {
+            if (map.homeSlot(id, 0) == homeSlot) {
+                pairs.add(new Edge(id, 0));
+            }
+        }
+        return pairs;
+    }
+}
@@ -0,0 +1,42 @@
+package com.dat3m.dartagnan.solver.caat.predicates;
+
+import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.base.SimpleGraph;
+import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.derived.CompositionGraph;
+import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.derived.TransitiveGraph;
+import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.derived.UnionGraph;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+public class PredicateHierarchyTest {
+
+    private final SimpleGraph a = new SimpleGraph();
+    private final SimpleGraph b = new SimpleGraph();
+    private final SimpleGraph c = new SimpleGraph();
+    private final UnionGraph ab = new UnionGraph(a, b);
+    private final TransitiveGraph abPlus = new TransitiveGraph(ab);
+    private final CompositionGraph bc = new CompositionGraph(b, c);
+    private final PredicateHierarchy hierarchy = new PredicateHierarchy(Set.of(abPlus, bc));
+
+    @Test
+    public void disjointPredicates() {
+        assertEquals(Set.of(), hierarchy.getSharedDependencies(List.of(ab, c)));
+        assertEquals(Set.of(), hierarchy.getSharedDependencies(List.of(abPlus)));
+    }
+
+    @Test
+    public void commonDependencies() {
+        assertEquals(Set.of(b), hierarchy.getSharedDependencies(List.of(abPlus, bc)));
+        assertEquals(Set.of(ab, a, b), hierarchy.getSharedDependencies(List.of(abPlus, ab)));
+    }
+
+    // Two constraints on the same predicate must not populate it concurrently
+    @Test
+    public void repeatedPredicate() {
+        assertEquals(Set.of(abPlus, ab, a, b), hierarchy.getSharedDependencies(List.of(abPlus, abPlus)));
+        assertEquals(Set.of(abPlus, ab, a, b), hierarchy.getSharedDependencies(List.of(abPlus, bc, abPlus)));
+    }
+}
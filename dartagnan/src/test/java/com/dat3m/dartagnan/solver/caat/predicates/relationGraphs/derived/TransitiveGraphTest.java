@@ -0,0 +1,125 @@
+package com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.derived;
+
+import com.dat3m.dartagnan.solver.caat.domain.Domain;
+import com.dat3m.dartagnan.solver.caat.domain.GenericDomain;
+import com.dat3m.dartagnan.solver.caat.misc.PathAlgorithm;
+import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.Edge;
+import com.dat3m.dartagnan.solver.caat.predicates.relationGraphs.base.SimpleGraph;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+// Compares the bulk closure of <TransitiveGraph.repopulate> with the closure built edge by edge on random graphs.
+// The derivation lengths are checked w.r.t. the Reasoner: it explains an edge of derivation length <d>
+// by a path of inner edges whose derivation lengths are smaller than <d>.
+@RunWith(Parameterized.class)
+public class TransitiveGraphTest {
+
+    private static final int MAX_DERIVATION_LENGTH = 3;
+
+    @Parameterized.Parameters(name = "{index}: nodes={0}, edges={1}, seed={2}")
+    public static Iterable<Object[]> data() {
+        List<Object[]> data = new ArrayList<>();
+        int[][] sizes = {{1, 1}, {5, 4}, {8, 16}, {12, 12}, {12, 30}, {20, 25}, {20, 80}, {40, 60}};
+        for (int[] size : sizes) {
+            for (long seed = 0; seed < 5; seed++) {
+                data.add(new Object[]{size[0], size[1], seed});
+            }
+        }
+        return data;
+    }
+
+    private final int numNodes;
+    private final int numEdges;
+    private final long seed;
+
+    public TransitiveGraphTest(int numNodes, int numEdges, long seed) {
+        this.numNodes = numNodes;
+        this.numEdges = numEdges;
+        this.seed = seed;
+    }
+
+    @Test
+    public void bulkClosureMatchesIncrementalClosure() {
+        Domain<Integer> domain = new GenericDomain<>(IntStream.range(0, numNodes).boxed().collect(Collectors.toList()));
+        List<Edge> edges = createRandomEdges();
+
+        SimpleGraph inner = new SimpleGraph();
+        inner.initializeToDomain(domain);
+        inner.addAll(edges);
+        TransitiveGraph bulk = new TransitiveGraph(inner);
+        bulk.initializeToDomain(domain);
+        bulk.repopulate();
+
+        SimpleGraph incrementalInner = new SimpleGraph();
+        incrementalInner.initializeToDomain(domain);
+        TransitiveGraph incremental = new TransitiveGraph(incrementalInner);
+        incremental.initializeToDomain(domain);
+        for (Edge e : edges) {
+            incrementalInner.add(e);
+            incremental.forwardPropagate(incrementalInner, List.of(e));
+        }
+
+        assertEquals(computeClosure(edges), toPairs(bulk));
+        assertEquals(toPairs(bulk), toPairs(incremental));
+
+        PathAlgorithm pathAlgorithm = new PathAlgorithm();
+        pathAlgorithm.ensureCapacity(numNodes);
+        for (Edge e : bulk.edges()) {
+            int length = e.getDerivationLength();
+            assertFalse("No path for " + e, pathAlgorithm.findShortestPath(inner, e.getFirst(), e.getSecond(), length - 1).isEmpty());
+            // The bulk closure assigns the smallest such derivation length
+            assertTrue("Path for " + e, length == 1
+                    || pathAlgorithm.findShortestPath(inner, e.getFirst(), e.getSecond(), length - 2).isEmpty());
+            assertTrue(length <= incremental.getById(e.getFirst(), e.getSecond()).getDerivationLength());
+        }
+        for (Edge e : incremental.edges()) {
+            assertFalse("No path for " + e, pathAlgorithm.findShortestPath(incrementalInner, e.getFirst(), e.getSecond(),
+                    e.getDerivationLength() - 1).isEmpty());
+        }
+    }
+
+    private List<Edge> createRandomEdges() {
+        Random random = new Random(seed);
+        Set<Edge> edges = new LinkedHashSet<>();
+        while (edges.size() < Math.min(numEdges, numNodes * numNodes)) {
+            edges.add(new Edge(random.nextInt(numNodes), random.nextInt(numNodes), 0,
+                    random.nextInt(MAX_DERIVATION_LENGTH + 1)));
+        }
+        return new ArrayList<>(edges);
+    }
+
+    // Computes the transitive closure by a search from each node
+    private Set<List<Integer>> computeClosure(List<Edge> edges) {
+        Set<List<Integer>> closure = new HashSet<>();
+        for (int start = 0; start < numNodes; start++) {
+            Deque<Integer> queue = new ArrayDeque<>(List.of(start));
+            Set<Integer> visited = new HashSet<>();
+            while (!queue.isEmpty()) {
+                int node = queue.pop();
+                for (Edge e : edges) {
+                    if (e.getFirst() == node && visited.add(e.getSecond())) {
+                        closure.add(List.of(start, e.getSecond()));
+                        queue.push(e.getSecond());
+                    }
+                }
+            }
+        }
+        return closure;
+    }
+
+    private static Set<List<Integer>> toPairs(TransitiveGraph graph) {
+        Set<List<Integer>> pairs = new HashSet<>();
+        for (Edge e : graph.edges()) {
+            pairs.add(List.of(e.getFirst(), e.getSecond()));
+        }
+        assertEquals(graph.size(), pairs.size());
+        return pairs;
+    }
+}
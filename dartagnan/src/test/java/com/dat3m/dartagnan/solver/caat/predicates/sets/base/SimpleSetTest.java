@@ -0,0 +1,91 @@
+package com.dat3m.dartagnan.solver.caat.predicates.sets.base;
+
+import com.dat3m.dartagnan.solver.caat.domain.Domain;
+import com.dat3m.dartagnan.solver.caat.domain.GenericDomain;
+import com.dat3m.dartagnan.solver.caat.predicates.sets.Element;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class SimpleSetTest {
+
+    @Test
+    public void addAndIterate() {
+        SimpleSet set = createSet(100);
+        assertTrue(set.add(new Element(70, 1, 0)));
+        assertTrue(set.add(new Element(3, 2, 0)));
+        assertFalse(set.add(new Element(70, 3, 0)));
+        assertEquals(2, set.size());
+        // The first added element is kept
+        assertEquals(1, set.getById(70).getTime());
+        assertNull(set.getById(4));
+        assertTrue(set.contains(new Element(3)));
+        assertEquals(List.of(3, 70), ids(set));
+        assertEquals(List.of(3, 70), set.elementStream().map(Element::getId).collect(Collectors.toList()));
+        // Elements beyond the domain are accepted as well
+        assertTrue(set.add(new Element(500)));
+        assertEquals(List.of(3, 70, 500), ids(set));
+    }
+
+    @Test
+    public void removeByIterator() {
+        SimpleSet set = createSet(10);
+        set.addAll(List.of(new Element(1), new Element(2), new Element(5)));
+        Iterator<Element> iter = set.elementIterator();
+        iter.next();
+        iter.next();
+        iter.remove();
+        assertThrows(IllegalStateException.class, iter::remove);
+        assertEquals(List.of(1, 5), ids(set));
+        assertNull(set.getById(2));
+        assertFalse(set.setView().contains(new Element(2)));
+    }
+
+    @Test
+    public void backtrack() {
+        SimpleSet set = createSet(200);
+        for (int id = 0; id < 200; id += 10) {
+            set.add(new Element(id, id / 10, 0));
+        }
+        set.backtrackTo(9);
+        assertEquals(IntStream.range(0, 10).map(i -> 10 * i).boxed().collect(Collectors.toList()), ids(set));
+        assertNull(set.getById(150));
+        assertTrue(set.add(new Element(150, 10, 0)));
+        assertEquals(11, set.size());
+    }
+
+    @Test
+    public void clearAndReuse() {
+        SimpleSet set = createSet(10);
+        set.addAll(List.of(new Element(1), new Element(8)));
+        set.initializeToDomain(createDomain(300));
+        assertEquals(0, set.size());
+        assertNull(set.getById(8));
+        assertFalse(set.elementIterator().hasNext());
+        set.add(new Element(250));
+        set.add(new Element(8));
+        assertEquals(List.of(8, 250), ids(set));
+        set.clear();
+        assertEquals(0, set.size());
+        assertFalse(set.containsById(250));
+    }
+
+    private static SimpleSet createSet(int domainSize) {
+        SimpleSet set = new SimpleSet();
+        set.initializeToDomain(createDomain(domainSize));
+        return set;
+    }
+
+    private static Domain<Integer> createDomain(int size) {
+        return new GenericDomain<>(IntStream.range(0, size).boxed().collect(Collectors.toList()));
+    }
+
+    private static List<Integer> ids(SimpleSet set) {
+        return set.setView().stream().map(Element::getId).collect(Collectors.toList());
+    }
+}
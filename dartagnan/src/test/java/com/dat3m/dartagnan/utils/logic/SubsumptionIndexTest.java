@@ -0,0 +1,99 @@
+package com.dat3m.dartagnan.utils.logic;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class SubsumptionIndexTest {
+
+    private static final TestLiteral A = new TestLiteral(0);
+    private static final TestLiteral B = new TestLiteral(1);
+    private static final TestLiteral C = new TestLiteral(2);
+    private static final TestLiteral D = new TestLiteral(3);
+
+    @Test
+    public void subsumedCubes() {
+        SubsumptionIndex<TestLiteral> index = createIndex(cube(A, B), cube(C));
+        assertTrue(index.isSubsumed(cube(A, B, D)));
+        assertTrue(index.isSubsumed(cube(B, C)));
+        assertFalse(index.isSubsumed(cube(A, D)));
+        assertFalse(index.isSubsumed(cube(A)));
+    }
+
+    @Test
+    public void equalCubes() {
+        SubsumptionIndex<TestLiteral> index = createIndex(cube(A, B));
+        // Equal cubes are distinct objects
+        assertTrue(index.isSubsumed(cube(B, A)));
+        index.add(cube(B, A));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void disjointCubes() {
+        SubsumptionIndex<TestLiteral> index = createIndex(cube(A, B));
+        assertFalse(index.isSubsumed(cube(C, D)));
+        // The negation of a literal is a different literal
+        assertFalse(index.isSubsumed(cube(A, B.negated())));
+    }
+
+    @Test
+    public void trueCube() {
+        SubsumptionIndex<TestLiteral> index = createIndex(cube(A, B));
+        // Only the true cube itself subsumes the true cube
+        assertFalse(index.isSubsumed(Conjunction.TRUE()));
+        index.add(Conjunction.TRUE());
+        assertTrue(index.isSubsumed(Conjunction.TRUE()));
+        assertTrue(index.isSubsumed(cube(C, D)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void falseCube() {
+        createIndex(cube(A, A.negated()));
+    }
+
+    @Test
+    public void reduceDNF() {
+        DNF<TestLiteral> dnf = new DNF<>(List.of(
+                cube(A, B, C), cube(B, C), cube(B, C, D), cube(A, D), cube(C, D), cube(A, A.negated())));
+        assertEquals(Set.of(cube(B, C), cube(A, D), cube(C, D)), dnf.getCubes());
+    }
+
+    @Test
+    public void reduceDNFWithTrueCube() {
+        DNF<TestLiteral> dnf = new DNF<>(List.of(cube(A, B), Conjunction.TRUE(), cube(C)));
+        assertTrue(dnf.isTriviallyTrue());
+    }
+
+    private static Conjunction<TestLiteral> cube(TestLiteral... literals) {
+        return new Conjunction<>(literals);
+    }
+
+    @SafeVarargs
+    private static SubsumptionIndex<TestLiteral> createIndex(Conjunction<TestLiteral>... cubes) {
+        SubsumptionIndex<TestLiteral> index = new SubsumptionIndex<>();
+        for (Conjunction<TestLiteral> cube : cubes) {
+            index.add(cube);
+        }
+        return index;
+    }
+
+    private static final class TestLiteral extends AbstractDataLiteral<TestLiteral, Integer> {
+
+        TestLiteral(int id) {
+            this(id, false);
+        }
+
+        TestLiteral(int id, boolean isNegative) {
+            super("lit", id, isNegative);
+        }
+
+        @Override
+        public TestLiteral negated() {
+            return new TestLiteral(data, !isNegative());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.dat3m.dartagnan.witness;
+
+import com.dat3m.dartagnan.configuration.Property;
+import com.dat3m.dartagnan.parsers.cat.ParserCat;
+import com.dat3m.dartagnan.parsers.program.ProgramParser;
+import com.dat3m.dartagnan.program.Program;
+import com.dat3m.dartagnan.utils.ResourceHelper;
+import com.dat3m.dartagnan.utils.Result;
+import com.dat3m.dartagnan.utils.TestHelper;
+import com.dat3m.dartagnan.verification.VerificationTask;
+import com.dat3m.dartagnan.verification.solving.IncrementalSolver;
+import com.dat3m.dartagnan.verification.solving.RefinementSolver;
+import com.dat3m.dartagnan.wmm.Wmm;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
+
+import java.io.File;
+import java.util.List;
+
+import static com.dat3m.dartagnan.configuration.OptionNames.BOUND;
+import static com.dat3m.dartagnan.configuration.OptionNames.WITNESS_ORIGINAL_PROGRAM_PATH;
+import static com.dat3m.dartagnan.utils.Result.FAIL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// Checks that Refinement validates witnesses (including their hb-order) like the eager encoding does
+public class ValidateWitnessTest {
+
+    private static final String PROGRAM_PATH = ResourceHelper.TEST_RESOURCE_PATH + "witness/lazy01-for-witness.bpl";
+
+    @Test
+    public void validWitness() throws Exception {
+        WitnessGraph witness = buildWitness();
+        assertTrue(witness.getHbOrderedEvents(parseProgram()).size() > 1);
+        assertEquals(FAIL, validateEagerly(witness));
+        assertEquals(FAIL, validateLazily(witness));
+    }
+
+    // The lines of the witness are visited in the opposite order and no values are given
+    @Test
+    public void reversedWitness() throws Exception {
+        WitnessGraph witness = reverseOrder(buildWitness());
+        assertTrue(witness.getHbOrderedEvents(parseProgram()).size() > 1);
+        assertEquals(validateEagerly(witness), validateLazily(witness));
+    }
+
+    private WitnessGraph buildWitness() throws Exception {
+        try (SolverContext ctx = TestHelper.createContext();
+             ProverEnvironment prover = ctx.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+            IncrementalSolver modelChecker = IncrementalSolver.run(ctx, prover, createTask(new WitnessGraph()));
+            assertEquals(FAIL, modelChecker.getResult());
+            WitnessBuilder witnessBuilder = WitnessBuilder.of(modelChecker.getEncodingContext(), prover, modelChecker.getResult());
+            createConfig().inject(witnessBuilder);
+            return witnessBuilder.build();
+        }
+    }
+
+    private static WitnessGraph reverseOrder(WitnessGraph witness) {
+        WitnessGraph reversed = new WitnessGraph();
+        List<Edge> edges = witness.getEdges();
+        reversed.addNode("N0");
+        for (int i = 0; i < edges.size(); i++) {
+            reversed.addNode("N" + (i + 1));
+            Edge edge = new Edge(reversed.getNode("N" + i), reversed.getNode("N" + (i + 1)));
+            Edge original = edges.get(edges.size() - 1 - i);
+            if (original.hasCline()) {
+                edge.addAttribute("startline", String.valueOf(original.getCline()));
+            }
+            reversed.addEdge(edge);
+        }
+        return reversed;
+    }
+
+    private Result validateEagerly(WitnessGraph witness) throws Exception {
+        try (SolverContext ctx = TestHelper.createContext();
+             ProverEnvironment prover = ctx.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+            return IncrementalSolver.run(ctx, prover, createTask(witness)).getResult();
+        }
+    }
+
+    private Result validateLazily(WitnessGraph witness) throws Exception {
+        try (SolverContext ctx = TestHelper.createContext();
+             ProverEnvironment prover = ctx.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+            return RefinementSolver.run(ctx, prover, createTask(witness)).getResult();
+        }
+    }
+
+    private VerificationTask createTask(WitnessGraph witness) throws Exception {
+        Wmm wmm = new ParserCat().parse(new File(ResourceHelper.CAT_RESOURCE_PATH + "cat/svcomp.cat"));
+        return VerificationTask.builder()
+                .withConfig(createConfig())
+                .withWitness(witness)
+                .build(parseProgram(), wmm, Property.getDefault());
+    }
+
+    private static Configuration createConfig() throws Exception {
+        return Configuration.builder()
+                .setOption(WITNESS_ORIGINAL_PROGRAM_PATH, PROGRAM_PATH)
+                .setOption(BOUND, "1")
+                .build();
+    }
+
+    private static Program parseProgram() throws Exception {
+        return new ProgramParser().parse(new File(PROGRAM_PATH));
+    }
+}